@@ -13,7 +13,16 @@ public class Admin extends User {
 
     // Admin-specific fields
     private String adminCode;
-    private String accessLevel;  // e.g., "FULL", "LIMITED"
+    private int accessLevelCode;  // StringDictionary code of e.g. "FULL", "LIMITED"
+
+    // STATIC VARIABLE: Code of "FULL", so the access check is an int comparison
+    private static final int FULL_ACCESS = StringDictionary.ACCESS_LEVELS.encode("FULL");
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer DISPLAY_INFO_TIMER =
+            OperationMetrics.timer("Admin.displayInfo");
+    private static final OperationTimer HAS_FULL_ACCESS_TIMER =
+            OperationMetrics.timer("Admin.hasFullAccess");
 
     /**
      * Constructor for Admin class
@@ -30,19 +39,24 @@ public class Admin extends User {
         // Call parent class constructor
         super(name, email, password);
         this.adminCode = adminCode;
-        this.accessLevel = accessLevel;
+        setAccessLevel(accessLevel);
     }
 
     // METHOD OVERRIDING: Provides Admin-specific implementation
     @Override
     public void displayInfo() {
-        System.out.println("========== ADMIN INFORMATION ==========");
-        System.out.println("User ID: " + getId());
-        System.out.println("Name: " + getName());
-        System.out.println("Email: " + getEmail());
-        System.out.println("Admin Code: " + adminCode);
-        System.out.println("Access Level: " + accessLevel);
-        System.out.println("========================================");
+        long start = DISPLAY_INFO_TIMER.start();
+        try {
+            System.out.println("========== ADMIN INFORMATION ==========");
+            System.out.println("User ID: " + getId());
+            System.out.println("Name: " + getName());
+            System.out.println("Email: " + getEmail());
+            System.out.println("Admin Code: " + adminCode);
+            System.out.println("Access Level: " + getAccessLevel());
+            System.out.println("========================================");
+        } finally {
+            DISPLAY_INFO_TIMER.stop(start);
+        }
     }
 
     // METHOD OVERRIDING: Returns "Admin" as the role
@@ -53,7 +67,12 @@ public class Admin extends User {
 
     // Admin-specific method to check if admin has full access
     public boolean hasFullAccess() {
-        return "FULL".equals(accessLevel);
+        long start = HAS_FULL_ACCESS_TIMER.start();
+        try {
+            return accessLevelCode == FULL_ACCESS;
+        } finally {
+            HAS_FULL_ACCESS_TIMER.stop(start);
+        }
     }
 
     // Getter methods for Admin-specific fields
@@ -62,7 +81,12 @@ public class Admin extends User {
     }
 
     public String getAccessLevel() {
-        return accessLevel;
+        return StringDictionary.ACCESS_LEVELS.decode(accessLevelCode);
+    }
+
+    // Dictionary code, for fast equality filters
+    public int getAccessLevelCode() {
+        return accessLevelCode;
     }
 
     // Setter methods
@@ -71,6 +95,6 @@ public class Admin extends User {
     }
 
     public void setAccessLevel(String accessLevel) {
-        this.accessLevel = accessLevel;
+        this.accessLevelCode = StringDictionary.ACCESS_LEVELS.encode(accessLevel);
     }
 }
\ No newline at end of file
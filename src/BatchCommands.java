@@ -0,0 +1,294 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.HashMap;
+
+/**
+ * BatchCommands.java
+ *
+ * Non-interactive command mode for Main (java Main --batch=commands.txt).
+ *
+ * Commands are read one per line, with fields separated by '|', so names
+ * may contain spaces. Blank lines and lines starting with '#' are ignored.
+ *
+ *   student|<number>|<name>|<email>|<year>[|<password>]   (no password: cannot log in)
+ *   course|<code>|<name>|<credits>
+ *   enroll|<student number>|<course code>
+ *   grade|<student number>|<course code>|<score>     (adds, or updates an existing grade)
+ *   gpa|<student number>
+ *   average|<course code>
+ *   grades|<student number>
+ *   roster|<course code>
+ *
+ * Lines are parsed BATCH_SIZE at a time into parallel arrays (as in
+ * WorkloadScript), then the batch is executed against the Gradebook with
+ * System.out muted, since the per-call messages of the domain classes
+ * would cost more than the operations. Only query results and errors are
+ * written, in the same '|' format, to a buffered Writer:
+ *
+ *   gpa|S1001|3.50
+ *   error|12|enroll|Student not found: S9999
+ *
+ * A failing line is reported with its line number and the run continues.
+ * Students are found through a map of student numbers kept by the run,
+ * instead of Gradebook.findStudentByNumber(), which scans the whole list.
+ */
+public class BatchCommands {
+
+    // Lines parsed before a batch is executed
+    static final int BATCH_SIZE = 4096;
+
+    // STATIC VARIABLES: Command types (index into COMMAND_NAMES)
+    private static final byte PARSE_ERROR = -1;
+    private static final byte STUDENT = 0;
+    private static final byte COURSE = 1;
+    private static final byte ENROLL = 2;
+    private static final byte GRADE = 3;
+    private static final byte GPA = 4;
+    private static final byte AVERAGE = 5;
+    private static final byte GRADES = 6;
+    private static final byte ROSTER = 7;
+
+    private static final String[] COMMAND_NAMES = {
+        "student", "course", "enroll", "grade", "gpa", "average", "grades", "roster"
+    };
+
+    // Number of fields after the command name (student also takes an optional password)
+    private static final int[] FIELD_COUNTS = {4, 3, 2, 3, 1, 1, 1, 1};
+
+    private final Gradebook gradebook;
+    private final Writer out;
+
+    // COLLECTIONS: Students by student number, for O(1) lookups
+    private final HashMap<String, Student> studentsByNumber = new HashMap<>();
+
+    // The current batch, one slot per command
+    private final byte[] types = new byte[BATCH_SIZE];
+    private final String[][] fields = new String[BATCH_SIZE][];
+    private final long[] lineNumbers = new long[BATCH_SIZE];
+    private int batched;
+
+    private long executed;
+    private long errors;
+
+    /**
+     * @param gradebook The gradebook the commands run against
+     * @param out Where results and errors are written; wrap it in a
+     *            BufferedWriter, it is written one line at a time
+     */
+    public BatchCommands(Gradebook gradebook, Writer out) {
+        this.gradebook = gradebook;
+        this.out = out;
+        for (Student student : gradebook.getStudents()) {
+            studentsByNumber.putIfAbsent(student.getStudentNumber(), student);
+        }
+    }
+
+    // Run every command in the input, then flush the output
+    public void run(BufferedReader in) throws IOException {
+        PrintStream original = QuietConsole.mute();
+        try {
+            long lineNumber = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                parse(line, lineNumber);
+                if (batched == BATCH_SIZE) {
+                    executeBatch();
+                }
+            }
+            executeBatch();
+        } finally {
+            QuietConsole.restore(original);
+            out.flush();
+        }
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    // ==================== PARSING ====================
+
+    private void parse(String line, long lineNumber) {
+        String[] parts = line.split("\\|", -1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        byte type = typeOf(parts[0]);
+        String error = null;
+        if (type == PARSE_ERROR) {
+            error = "Unknown command";
+        } else {
+            int count = parts.length - 1;
+            boolean optionalPassword = (type == STUDENT && count == FIELD_COUNTS[type] + 1);
+            if (count != FIELD_COUNTS[type] && !optionalPassword) {
+                error = "Expected " + FIELD_COUNTS[type] + " fields, found " + count;
+            }
+        }
+        lineNumbers[batched] = lineNumber;
+        if (error == null) {
+            types[batched] = type;
+            fields[batched] = parts;
+        } else {
+            types[batched] = PARSE_ERROR;
+            fields[batched] = new String[] {parts[0], error};
+        }
+        batched++;
+    }
+
+    // STATIC METHOD: Command type for a name, or PARSE_ERROR
+    private static byte typeOf(String name) {
+        for (byte type = 0; type < COMMAND_NAMES.length; type++) {
+            if (COMMAND_NAMES[type].equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return PARSE_ERROR;
+    }
+
+    // ==================== EXECUTION ====================
+
+    // The gradebook is locked per batch, as replication snapshots read it from other threads
+    private void executeBatch() throws IOException {
+        synchronized (gradebook) {
+            executeLocked();
+        }
+    }
+
+    private void executeLocked() throws IOException {
+        for (int i = 0; i < batched; i++) {
+            String[] f = fields[i];
+            try {
+                if (types[i] == PARSE_ERROR) {
+                    error(i, f[1]);
+                } else {
+                    execute(types[i], f);
+                    executed++;
+                }
+            } catch (NumberFormatException e) {
+                error(i, "Not a number: " + e.getMessage());
+            } catch (IllegalStateException e) {
+                error(i, e.getMessage());
+            } catch (RuntimeException e) {
+                // Any other failure of one command is reported on its line; the run goes on
+                error(i, e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            fields[i] = null;
+        }
+        batched = 0;
+    }
+
+    private void execute(byte type, String[] f) throws IOException {
+        switch (type) {
+            case STUDENT: {
+                if (studentsByNumber.containsKey(f[1])) {
+                    throw new IllegalStateException("Student already exists: " + f[1]);
+                }
+                // Without a password (or with an empty one) the student cannot log in
+                String password = (f.length > 5 && !f[5].isEmpty()) ? f[5] : null;
+                Student student = new Student(f[2], f[3], password, f[1], Integer.parseInt(f[4]));
+                gradebook.addStudent(student);
+                studentsByNumber.put(f[1], student);
+                break;
+            }
+            case COURSE: {
+                if (gradebook.findCourseByCode(f[1]) != null) {
+                    throw new IllegalStateException("Course already exists: " + f[1]);
+                }
+                gradebook.addCourse(new Course(f[1], f[2], Integer.parseInt(f[3])));
+                break;
+            }
+            case ENROLL: {
+                Student student = student(f[1]);
+                Course course = course(f[2]);
+                if (course.getEnrolledStudents().contains(student)) {
+                    throw new IllegalStateException(f[1] + " is already enrolled in " + f[2]);
+                }
+                course.enrollStudent(student);
+                break;
+            }
+            case GRADE: {
+                Student student = student(f[1]);
+                Course course = course(f[2]);
+                double score = Double.parseDouble(f[3]);
+                if (!course.getEnrolledStudents().contains(student)) {
+                    throw new IllegalStateException(f[1] + " is not enrolled in " + f[2]);
+                }
+                if (gradebook.getGrade(student, course) == null) {
+                    gradebook.addGrade(student, course, score);
+                } else {
+                    gradebook.updateGrade(student, course, score);
+                }
+                break;
+            }
+            case GPA:
+                write("gpa", f[1], String.format("%.2f", gradebook.calculateStudentGPA(student(f[1]))));
+                break;
+            case AVERAGE:
+                write("average", f[1], String.format("%.2f", gradebook.calculateCourseAverage(course(f[1]))));
+                break;
+            case GRADES:
+                for (Grade grade : gradebook.gradesOf(student(f[1]))) {
+                    write("grade", f[1], grade.getCourse().getCourseCode(),
+                          String.valueOf(grade.getScore()), grade.getLetterGrade());
+                }
+                break;
+            case ROSTER:
+                for (Student student : course(f[1]).getEnrolledStudents()) {
+                    write("roster", f[1], student.getStudentNumber(), student.getName());
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown command");
+        }
+    }
+
+    private Student student(String studentNumber) {
+        Student student = studentsByNumber.get(studentNumber);
+        if (student == null && gradebook.getEntityLoader() != null) {
+            student = gradebook.findStudentByNumber(studentNumber);  // May be in backing storage
+            if (student != null) {
+                studentsByNumber.put(studentNumber, student);
+            }
+        }
+        if (student == null) {
+            throw new IllegalStateException("Student not found: " + studentNumber);
+        }
+        return student;
+    }
+
+    private Course course(String courseCode) {
+        Course course = gradebook.findCourseByCode(courseCode);
+        if (course == null) {
+            throw new IllegalStateException("Course not found: " + courseCode);
+        }
+        return course;
+    }
+
+    // ==================== OUTPUT ====================
+
+    private void error(int i, String message) throws IOException {
+        errors++;
+        write("error", String.valueOf(lineNumbers[i]), fields[i][0], message);
+    }
+
+    private void write(String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write('|');
+            }
+            out.write(values[i]);
+        }
+        out.write('\n');
+    }
+}
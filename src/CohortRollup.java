@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * CohortRollup.java
+ *
+ * Precomputed aggregates per enrollment-year cohort, and per cohort and
+ * course: number of students and enrollments, GPA, average score, pass
+ * rate and letter grade distribution.
+ *
+ * The rollup is built once from the gradebook's current contents and then
+ * kept up to date as a GradebookListener. Every grade, enrollment or
+ * student change updates a couple of counters, so reading a cohort (or
+ * printing the whole comparison table) never scans students or grades.
+ *
+ *   CohortRollup cohorts = CohortRollup.attach(gradebook);
+ *   double gpa2024 = cohorts.getCohort(2024).getGpa();
+ *   System.out.print(cohorts.report());
+ *
+ * Registering a stub course does not load its roster: the roster is
+ * counted when it is loaded (rosterLoaded), or at once if it already is.
+ *
+ * A student's cohort is its enrollment year when the student is added;
+ * changing Student.setEnrollmentYear() afterwards is not tracked.
+ * Like Gradebook, the rollup is not thread-safe: with parallel graders,
+ * read it under the gradebook lock (see GradebookListener).
+ */
+public class CohortRollup implements GradebookListener {
+
+    // Aggregates of one cohort, or of one cohort within one course
+    public static class Cohort {
+        private int students;
+        private int enrollments;
+        private final GradeStats grades = new GradeStats();
+
+        // Students in the cohort; always 0 for a cohort within one course,
+        // where getEnrollmentCount() is the number of its students on the roster
+        public int getStudentCount() {
+            return students;
+        }
+
+        public int getEnrollmentCount() {
+            return enrollments;
+        }
+
+        public GradeStats getGrades() {
+            return grades;
+        }
+
+        public double getGpa() {
+            return grades.getGpa();
+        }
+
+        public double getPassRate() {
+            return grades.getPassRate();
+        }
+
+        public double getAverageScore() {
+            return grades.getAverageScore();
+        }
+    }
+
+    // COLLECTIONS: year -> cohort, and year -> course code -> cohort in that course
+    private final TreeMap<Integer, Cohort> byYear = new TreeMap<>();
+    private final HashMap<Integer, HashMap<String, Cohort>> byYearAndCourse = new HashMap<>();
+
+    // Registered courses whose roster was counted as a whole
+    private final HashSet<String> countedRosters = new HashSet<>();
+
+    private CohortRollup() {
+    }
+
+    // STATIC METHOD: Build the rollup from the gradebook and keep it up to date
+    public static CohortRollup attach(Gradebook gradebook) {
+        CohortRollup rollup = new CohortRollup();
+        for (Student student : gradebook.getStudents()) {
+            rollup.studentAdded(student);
+        }
+        for (Course course : gradebook.getCourses()) {
+            rollup.courseAdded(course);
+        }
+        for (Grade grade : gradebook.getGrades().values()) {
+            rollup.gradeAdded(grade);
+        }
+        gradebook.addListener(rollup);
+        return rollup;
+    }
+
+    // ==================== READS ====================
+
+    // The cohort of a year (empty if nobody enrolled that year)
+    public Cohort getCohort(int year) {
+        Cohort cohort = byYear.get(year);
+        return (cohort == null) ? new Cohort() : cohort;
+    }
+
+    // The cohort of a year within one course
+    public Cohort getCohort(int year, Course course) {
+        Map<String, Cohort> courses = byYearAndCourse.get(year);
+        Cohort cohort = (courses == null) ? null : courses.get(course.getCourseCode());
+        return (cohort == null) ? new Cohort() : cohort;
+    }
+
+    // Years with at least one student, enrollment or grade, ascending
+    public List<Integer> getYears() {
+        return Collections.unmodifiableList(new ArrayList<>(byYear.keySet()));
+    }
+
+    // Side-by-side comparison of every cohort
+    public String report() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-6s %9s %11s %8s %6s %8s %7s  %s%n",
+                "Year", "Students", "Enrollments", "Grades", "GPA", "AvgScore", "Pass%", "A/B/C/D/F"));
+        for (Map.Entry<Integer, Cohort> entry : byYear.entrySet()) {
+            Cohort cohort = entry.getValue();
+            GradeStats stats = cohort.getGrades();
+            int[] letters = stats.getLetterDistribution();
+            text.append(String.format("%-6d %9d %11d %8d %6.2f %8.1f %6.1f%%  %d/%d/%d/%d/%d%n",
+                    entry.getKey(), cohort.students, cohort.enrollments, stats.getCount(),
+                    stats.getGpa(), stats.getAverageScore(), stats.getPassRate() * 100,
+                    letters[0], letters[1], letters[2], letters[3], letters[4]));
+        }
+        return text.toString();
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    @Override
+    public void studentAdded(Student student) {
+        cohort(student.getEnrollmentYear()).students++;
+    }
+
+    @Override
+    public void studentRemoved(Student student) {
+        cohort(student.getEnrollmentYear()).students--;
+    }
+
+    @Override
+    public void studentEnrolled(Student student, Course course) {
+        cohort(student.getEnrollmentYear()).enrollments++;
+        cohort(student.getEnrollmentYear(), course).enrollments++;
+    }
+
+    // A course registered with its roster already filled: those enrollments
+    // are not reported one by one, but removing the course unenrolls them
+    @Override
+    public void courseAdded(Course course) {
+        if (course.isRosterLoaded()) {
+            countRoster(course);
+        }
+    }
+
+    @Override
+    public void rosterLoaded(Course course) {
+        countRoster(course);
+    }
+
+    @Override
+    public void courseRemoved(Course course) {
+        countedRosters.remove(course.getCourseCode());
+    }
+
+    private void countRoster(Course course) {
+        if (countedRosters.add(course.getCourseCode())) {
+            for (Student student : course.getEnrolledStudents()) {
+                studentEnrolled(student, course);
+            }
+        }
+    }
+
+    @Override
+    public void studentUnenrolled(Student student, Course course) {
+        cohort(student.getEnrollmentYear()).enrollments--;
+        cohort(student.getEnrollmentYear(), course).enrollments--;
+    }
+
+    @Override
+    public void gradeAdded(Grade grade) {
+        int year = grade.getStudent().getEnrollmentYear();
+        cohort(year).grades.add(grade.getScore());
+        cohort(year, grade.getCourse()).grades.add(grade.getScore());
+    }
+
+    @Override
+    public void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        int year = grade.getStudent().getEnrollmentYear();
+        Cohort whole = cohort(year);
+        Cohort inCourse = cohort(year, grade.getCourse());
+        whole.grades.remove(oldScore);
+        whole.grades.add(newScore);
+        inCourse.grades.remove(oldScore);
+        inCourse.grades.add(newScore);
+    }
+
+    @Override
+    public void gradeRemoved(Grade grade) {
+        int year = grade.getStudent().getEnrollmentYear();
+        cohort(year).grades.remove(grade.getScore());
+        cohort(year, grade.getCourse()).grades.remove(grade.getScore());
+    }
+
+    private Cohort cohort(int year) {
+        return byYear.computeIfAbsent(year, y -> new Cohort());
+    }
+
+    private Cohort cohort(int year, Course course) {
+        return byYearAndCourse.computeIfAbsent(year, y -> new HashMap<>())
+                              .computeIfAbsent(course.getCourseCode(), c -> new Cohort());
+    }
+}
@@ -0,0 +1,304 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * CompactStudentStore.java
+ *
+ * Compact storage for very large numbers of students, such as alumni who
+ * are rarely looked at.
+ *
+ * No Student objects are kept. The attributes of all students are packed
+ * into a handful of primitive arrays:
+ * - ids and enrollment years in an int[] and a short[]
+ * - student number, name and email as UTF-8 bytes in one shared byte[],
+ *   with an int[] of start offsets
+ * - an open-addressing hash table of row numbers for lookup by number
+ *
+ * That is roughly 30 bytes per student plus the characters themselves,
+ * instead of a Student, its Strings, its course list and the Gradebook
+ * index entries (see FootprintReport).
+ *
+ * The store is an EntityLoader, so it plugs into Gradebook.setEntityLoader.
+ * A student is materialized as a flyweight stub only when it is looked up,
+ * and the same object is returned for later lookups as long as anything
+ * (a Gradebook, a roster, a caller) still refers to it. The store itself
+ * holds stubs only weakly, so students that are no longer used go back to
+ * costing their packed bytes alone. Courses, teachers
+ * and relationships come from an optional second loader. Without one,
+ * compact students have no enrollments or grades until they are added.
+ *
+ * Not thread-safe: fill the store from one thread before sharing it.
+ */
+public class CompactStudentStore implements EntityLoader {
+
+    // Number of text fields per student: number, name, email
+    private static final int FIELDS = 3;
+    private static final int NUMBER = 0;
+    private static final int NAME = 1;
+    private static final int EMAIL = 2;
+
+    // Packed columns, indexed by row number
+    private int[] ids = new int[1024];
+    private short[] years = new short[1024];
+    private int[] textStarts = new int[1024 * FIELDS + 1];
+    private byte[] text = new byte[1024 * 32];
+    private int size;
+
+    // Hash table of row + 1 (0 = empty slot), keyed by the student number bytes
+    private int[] slots = new int[2048];
+
+    // Relationships and other entities, or null
+    private final EntityLoader delegate;
+
+    // Students materialized and still in use, by row number. Weak values:
+    // a stub nobody refers to can be collected and is recreated on demand.
+    private final HashMap<Integer, MaterializedStudent> materialized = new HashMap<>();
+    private final ReferenceQueue<Student> collected = new ReferenceQueue<>();
+
+    // Weak reference that remembers its row, to drop the map entry once collected
+    private static final class MaterializedStudent extends WeakReference<Student> {
+        final int row;
+
+        MaterializedStudent(Student student, int row, ReferenceQueue<Student> queue) {
+            super(student, queue);
+            this.row = row;
+        }
+    }
+
+    public CompactStudentStore() {
+        this(null);
+    }
+
+    // CONSTRUCTOR OVERLOADING: Take courses, teachers and relationships from another loader
+    public CompactStudentStore(EntityLoader delegate) {
+        this.delegate = delegate;
+    }
+
+    // ==================== PACKING ====================
+
+    /**
+     * Append a student. Returns false (and stores nothing) if the student
+     * number is already present.
+     */
+    public boolean add(int id, String name, String email, String studentNumber, int enrollmentYear) {
+        byte[] number = studentNumber.getBytes(StandardCharsets.UTF_8);
+        if (findRow(number) >= 0) {
+            return false;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            years = Arrays.copyOf(years, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity * FIELDS + 1);
+        }
+        ids[size] = id;
+        years[size] = (short) enrollmentYear;
+        appendText(size * FIELDS + NUMBER, number);
+        appendText(size * FIELDS + NAME, name.getBytes(StandardCharsets.UTF_8));
+        appendText(size * FIELDS + EMAIL, email.getBytes(StandardCharsets.UTF_8));
+        size++;
+
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            insertSlot(size - 1);
+        }
+        // Keep new User IDs clear of the stored ones, as stub constructors do
+        IdAllocator.USER_IDS.reserveThrough(id);
+        return true;
+    }
+
+    // METHOD OVERLOADING: Pack an existing Student (its courses are not kept)
+    public boolean add(Student student) {
+        return add(student.getId(), student.getName(), student.getEmail(),
+                   student.getStudentNumber(), student.getEnrollmentYear());
+    }
+
+    private void appendText(int field, byte[] bytes) {
+        int start = textStarts[field];
+        if (start + bytes.length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, start + bytes.length));
+        }
+        System.arraycopy(bytes, 0, text, start, bytes.length);
+        textStarts[field + 1] = start + bytes.length;
+    }
+
+    // ==================== LOOKUP ====================
+
+    public int size() {
+        return size;
+    }
+
+    // Row number of a student number, or -1
+    public int rowOf(String studentNumber) {
+        return findRow(studentNumber.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Column accessors that do not materialize a Student
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getEnrollmentYear(int row) {
+        return years[row];
+    }
+
+    public String getStudentNumber(int row) {
+        return field(row, NUMBER);
+    }
+
+    public String getName(int row) {
+        return field(row, NAME);
+    }
+
+    public String getEmail(int row) {
+        return field(row, EMAIL);
+    }
+
+    // The flyweight Student for a row, created on first use or after it was collected
+    public Student studentAt(int row) {
+        expungeCollected();
+        MaterializedStudent reference = materialized.get(row);
+        Student student = (reference == null) ? null : reference.get();
+        if (student == null) {
+            student = new Student(ids[row], getName(row), getEmail(row), getStudentNumber(row), years[row], this);
+            materialized.put(row, new MaterializedStudent(student, row, collected));
+        }
+        return student;
+    }
+
+    // Students materialized and not yet collected
+    public int getMaterializedCount() {
+        expungeCollected();
+        int count = 0;
+        for (MaterializedStudent reference : materialized.values()) {
+            if (reference.get() != null) {  // Cleared ones may not be queued yet
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Drop the map entries of stubs the garbage collector has cleared
+    private void expungeCollected() {
+        MaterializedStudent reference;
+        while ((reference = (MaterializedStudent) collected.poll()) != null) {
+            if (materialized.get(reference.row) == reference) {
+                materialized.remove(reference.row);
+            }
+        }
+    }
+
+    // Bytes held by the packed arrays (excluding materialized students)
+    public long getPackedBytes() {
+        return 16L + ids.length * 4L
+             + 16L + years.length * 2L
+             + 16L + textStarts.length * 4L
+             + 16L + text.length
+             + 16L + slots.length * 4L;
+    }
+
+    private String field(int row, int field) {
+        int start = textStarts[row * FIELDS + field];
+        int end = textStarts[row * FIELDS + field + 1];
+        return new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // ==================== HASH TABLE ====================
+
+    private int findRow(byte[] number) {
+        int mask = slots.length - 1;
+        for (int slot = hash(number, 0, number.length) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            int start = textStarts[row * FIELDS + NUMBER];
+            int end = textStarts[row * FIELDS + NUMBER + 1];
+            if (Arrays.equals(text, start, end, number, 0, number.length)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void insertSlot(int row) {
+        int start = textStarts[row * FIELDS + NUMBER];
+        int end = textStarts[row * FIELDS + NUMBER + 1];
+        int mask = slots.length - 1;
+        int slot = hash(text, start, end) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            insertSlot(row);
+        }
+    }
+
+    // STATIC METHOD: FNV-1a over a byte range, with a final mix for the low bits
+    private static int hash(byte[] bytes, int start, int end) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // ==================== ENTITY LOADER ====================
+
+    @Override
+    public Student loadStudent(String studentNumber) {
+        int row = rowOf(studentNumber);
+        if (row >= 0) {
+            return studentAt(row);
+        }
+        return (delegate == null) ? null : delegate.loadStudent(studentNumber);
+    }
+
+    @Override
+    public Course loadCourse(String courseCode) {
+        return (delegate == null) ? null : delegate.loadCourse(courseCode);
+    }
+
+    @Override
+    public Teacher loadTeacher(int teacherId) {
+        return (delegate == null) ? null : delegate.loadTeacher(teacherId);
+    }
+
+    @Override
+    public List<Course> loadEnrolledCourses(Student student) {
+        return (delegate == null) ? Collections.emptyList() : delegate.loadEnrolledCourses(student);
+    }
+
+    @Override
+    public List<Student> loadEnrolledStudents(Course course) {
+        return (delegate == null) ? Collections.emptyList() : delegate.loadEnrolledStudents(course);
+    }
+
+    @Override
+    public Teacher loadCourseTeacher(Course course) {
+        return (delegate == null) ? null : delegate.loadCourseTeacher(course);
+    }
+
+    @Override
+    public List<Course> loadTaughtCourses(Teacher teacher) {
+        return (delegate == null) ? Collections.emptyList() : delegate.loadTaughtCourses(teacher);
+    }
+
+    @Override
+    public List<Grade> loadGrades(Student student) {
+        return (delegate == null) ? Collections.emptyList() : delegate.loadGrades(student);
+    }
+
+    @Override
+    public List<Grade> loadGrades(Course course) {
+        return (delegate == null) ? Collections.emptyList() : delegate.loadGrades(course);
+    }
+}
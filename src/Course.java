@@ -1,4 +1,6 @@
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Course.java
@@ -9,22 +11,47 @@ import java.util.ArrayList;
  * OOP Concepts demonstrated:
  * - Encapsulation: Private fields with public getters/setters
  * - Composition: Course contains references to Teacher and Students
- * - Collections: Uses ArrayList to store enrolled students
- * - Static members: courseCounter for generating unique course codes
+ * - Collections: Uses LinkedHashSet to store enrolled students
+ * - Static members: shared IdAllocator for generating unique course codes
  */
 public class Course {
 
     // ENCAPSULATION: Private fields
     private String courseCode;
+    private int prefixCode;   // DICTIONARY ENCODING: letters of the code, e.g. "CS"
     private String courseName;
     private int credits;
     private Teacher teacher;  // COMPOSITION: Course HAS-A Teacher
 
-    // COLLECTIONS: ArrayList to store enrolled students
-    private ArrayList<Student> enrolledStudents;
+    // COLLECTIONS: LinkedHashSet to store enrolled students - keeps enrollment
+    // order and makes contains/remove O(1) even for very large rosters
+    private LinkedHashSet<Student> enrolledStudents;
+    private Set<Student> enrolledStudentsView;  // Created with the roster
 
-    // STATIC VARIABLE: Counter for generating unique course codes
-    private static int courseCounter = 100;
+    // The gradebook this course is registered in (set by Gradebook.addCourse)
+    // so that removing a student also removes the matching grade, and so that
+    // roster changes reach the gradebook's listeners
+    private Gradebook gradebook;
+
+    // LAZY LOADING: For a stub, the roster stays null and the teacher is not
+    // fetched until first needed
+    private EntityLoader loader;
+    private boolean teacherLoaded = true;
+
+    // STATIC VARIABLE: Allocator for generating unique course codes
+    private static final IdAllocator COURSE_NUMBERS = IdAllocator.COURSE_NUMBERS;
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer ASSIGN_TEACHER_TIMER =
+            OperationMetrics.timer("Course.assignTeacher");
+    private static final OperationTimer ENROLL_STUDENT_TIMER =
+            OperationMetrics.timer("Course.enrollStudent");
+    private static final OperationTimer REMOVE_STUDENT_TIMER =
+            OperationMetrics.timer("Course.removeStudent");
+    private static final OperationTimer DISPLAY_COURSE_INFO_TIMER =
+            OperationMetrics.timer("Course.displayCourseInfo");
+    private static final OperationTimer LIST_ENROLLED_STUDENTS_TIMER =
+            OperationMetrics.timer("Course.listEnrolledStudents");
 
     /**
      * Constructor for Course class
@@ -33,80 +60,182 @@ public class Course {
      * @param credits Number of credits
      */
     public Course(String courseName, int credits) {
-        this.courseCode = "CS" + courseCounter++;  // Auto-generate course code
+        this.courseCode = "CS" + COURSE_NUMBERS.nextInt();  // Auto-generate course code
+        this.prefixCode = encodePrefix(courseCode);
         this.courseName = courseName;
         this.credits = credits;
         this.teacher = null;  // No teacher assigned initially
-        this.enrolledStudents = new ArrayList<>();
+        setRoster(new LinkedHashSet<>());
     }
 
     // METHOD OVERLOADING: Constructor with course code
     public Course(String courseCode, String courseName, int credits) {
         this.courseCode = courseCode;
+        this.prefixCode = encodePrefix(courseCode);
+        this.courseName = courseName;
+        this.credits = credits;
+        this.teacher = null;
+        setRoster(new LinkedHashSet<>());
+    }
+
+    // CONSTRUCTOR OVERLOADING: Stub created by an EntityLoader. The roster
+    // and the teacher are loaded on first access.
+    public Course(String courseCode, String courseName, int credits, EntityLoader loader) {
+        this.courseCode = courseCode;
+        this.prefixCode = encodePrefix(courseCode);
         this.courseName = courseName;
         this.credits = credits;
         this.teacher = null;
-        this.enrolledStudents = new ArrayList<>();
+        this.enrolledStudents = null;
+        this.loader = loader;
+        this.teacherLoaded = false;
+    }
+
+    // LAZY LOADING: Returns the roster, fetching it from the loader once
+    private LinkedHashSet<Student> roster() {
+        if (enrolledStudents == null) {
+            setRoster(new LinkedHashSet<>(loader.loadEnrolledStudents(this)));
+            if (gradebook != null) {
+                gradebook.fireRosterLoaded(this);
+            }
+        }
+        return enrolledStudents;
+    }
+
+    // The roster and its read-only view are created together, once
+    private void setRoster(LinkedHashSet<Student> roster) {
+        this.enrolledStudents = roster;
+        this.enrolledStudentsView = Collections.unmodifiableSet(roster);
+    }
+
+    // LAZY LOADING: Returns the teacher, fetching it from the loader once
+    private Teacher currentTeacher() {
+        if (!teacherLoaded) {
+            teacher = loader.loadCourseTeacher(this);
+            teacherLoaded = true;
+        }
+        return teacher;
+    }
+
+    // True if roster and teacher are in memory (always true for non-stubs)
+    public boolean isLoaded() {
+        return enrolledStudents != null && teacherLoaded;
+    }
+
+    // True if reading the roster will not load it
+    public boolean isRosterLoaded() {
+        return enrolledStudents != null;
+    }
+
+    // STATIC METHOD: Dictionary code for the leading letters of a course code
+    private static int encodePrefix(String courseCode) {
+        int end = 0;
+        while (end < courseCode.length() && Character.isLetter(courseCode.charAt(end))) {
+            end++;
+        }
+        return StringDictionary.COURSE_PREFIXES.encode(courseCode.substring(0, end));
     }
 
     // STATIC METHOD: Get the next course number
     public static int getNextCourseNumber() {
-        return courseCounter;
+        return (int) COURSE_NUMBERS.peek();
     }
 
     // Method to assign a teacher to this course
     public void assignTeacher(Teacher teacher) {
-        this.teacher = teacher;
-        teacher.assignCourse(this);  // Add this course to teacher's list
-        System.out.println("Teacher " + teacher.getName() + " assigned to " + courseName);
+        long start = ASSIGN_TEACHER_TIMER.start();
+        try {
+            changeTeacher(teacher);  // Also adds this course to the teacher's list
+            System.out.println("Teacher " + teacher.getName() + " assigned to " + courseName);
+        } finally {
+            ASSIGN_TEACHER_TIMER.stop(start);
+        }
     }
 
     // Method to enroll a student in this course
     public void enrollStudent(Student student) {
-        if (!enrolledStudents.contains(student)) {
-            enrolledStudents.add(student);
-            student.enrollInCourse(this);  // Add this course to student's list
-        } else {
-            System.out.println(student.getName() + " is already enrolled in " + courseName);
+        long start = ENROLL_STUDENT_TIMER.start();
+        GradebookEvents.Enrollment event = new GradebookEvents.Enrollment();
+        event.begin();
+        try {
+            int rosterSize = roster().size();
+            boolean changed = !roster().contains(student);
+            if (changed) {
+                roster().add(student);
+                student.enrollInCourse(this);  // Add this course to student's list
+                if (gradebook != null) {
+                    gradebook.fireStudentEnrolled(student, this);
+                }
+            } else {
+                System.out.println(student.getName() + " is already enrolled in " + courseName);
+            }
+            GradebookEvents.enrollment(event, "enroll", this, student, rosterSize, changed);
+        } finally {
+            ENROLL_STUDENT_TIMER.stop(start);
         }
     }
 
     // Method to remove a student from this course
     public void removeStudent(Student student) {
-        if (enrolledStudents.remove(student)) {
-            student.dropCourse(this);
-            System.out.println(student.getName() + " removed from " + courseName);
-        } else {
-            System.out.println(student.getName() + " is not enrolled in " + courseName);
+        long start = REMOVE_STUDENT_TIMER.start();
+        GradebookEvents.Enrollment event = new GradebookEvents.Enrollment();
+        event.begin();
+        try {
+            int rosterSize = roster().size();
+            boolean changed = roster().remove(student);
+            if (changed) {
+                student.dropCourse(this);
+                if (gradebook != null) {
+                    gradebook.removeGrade(student, this);
+                    gradebook.fireStudentUnenrolled(student, this);
+                }
+                System.out.println(student.getName() + " removed from " + courseName);
+            } else {
+                System.out.println(student.getName() + " is not enrolled in " + courseName);
+            }
+            GradebookEvents.enrollment(event, "unenroll", this, student, rosterSize, changed);
+        } finally {
+            REMOVE_STUDENT_TIMER.stop(start);
         }
     }
 
     // Method to display course information
     public void displayCourseInfo() {
-        System.out.println("========== COURSE INFORMATION ==========");
-        System.out.println("Course Code: " + courseCode);
-        System.out.println("Course Name: " + courseName);
-        System.out.println("Credits: " + credits);
-        if (teacher != null) {
-            System.out.println("Teacher: " + teacher.getTitle() + " " + teacher.getName());
-        } else {
-            System.out.println("Teacher: Not assigned");
+        long start = DISPLAY_COURSE_INFO_TIMER.start();
+        try {
+            System.out.println("========== COURSE INFORMATION ==========");
+            System.out.println("Course Code: " + courseCode);
+            System.out.println("Course Name: " + courseName);
+            System.out.println("Credits: " + credits);
+            Teacher current = currentTeacher();
+            if (current != null) {
+                System.out.println("Teacher: " + current.getTitle() + " " + current.getName());
+            } else {
+                System.out.println("Teacher: Not assigned");
+            }
+            System.out.println("Enrolled Students: " + roster().size());
+            System.out.println("==========================================");
+        } finally {
+            DISPLAY_COURSE_INFO_TIMER.stop(start);
         }
-        System.out.println("Enrolled Students: " + enrolledStudents.size());
-        System.out.println("==========================================");
     }
 
     // Method to list all enrolled students
     public void listEnrolledStudents() {
-        System.out.println("Students enrolled in " + courseName + ":");
-        if (enrolledStudents.isEmpty()) {
-            System.out.println("  No students enrolled yet.");
-        } else {
-            for (int i = 0; i < enrolledStudents.size(); i++) {
-                Student s = enrolledStudents.get(i);
-                System.out.println("  " + (i + 1) + ". " + s.getName() +
-                        " (" + s.getStudentNumber() + ")");
+        long start = LIST_ENROLLED_STUDENTS_TIMER.start();
+        try {
+            System.out.println("Students enrolled in " + courseName + ":");
+            if (roster().isEmpty()) {
+                System.out.println("  No students enrolled yet.");
+            } else {
+                int i = 0;
+                for (Student s : roster()) {
+                    System.out.println("  " + (++i) + ". " + s.getName() +
+                            " (" + s.getStudentNumber() + ")");
+                }
             }
+        } finally {
+            LIST_ENROLLED_STUDENTS_TIMER.stop(start);
         }
     }
 
@@ -115,6 +244,16 @@ public class Course {
         return courseCode;
     }
 
+    // Leading letters of the course code, e.g. "MATH" for "MATH1001"
+    public String getCoursePrefix() {
+        return StringDictionary.COURSE_PREFIXES.decode(prefixCode);
+    }
+
+    // Dictionary code of the prefix, for fast equality filters
+    public int getCoursePrefixCode() {
+        return prefixCode;
+    }
+
     public String getCourseName() {
         return courseName;
     }
@@ -124,16 +263,20 @@ public class Course {
     }
 
     public Teacher getTeacher() {
-        return teacher;
+        return currentTeacher();
     }
 
-    public ArrayList<Student> getEnrolledStudents() {
-        return enrolledStudents;
+    // Returns a read-only view of the roster, which follows later changes;
+    // change it with enrollStudent() and removeStudent()
+    public Set<Student> getEnrolledStudents() {
+        roster();
+        return enrolledStudentsView;
     }
 
     // Setter methods
     public void setCourseCode(String courseCode) {
         this.courseCode = courseCode;
+        this.prefixCode = encodePrefix(courseCode);
     }
 
     public void setCourseName(String courseName) {
@@ -144,7 +287,31 @@ public class Course {
         this.credits = credits;
     }
 
+    // Package-private: called by Gradebook when the course is added or removed
+    void setGradebook(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
     public void setTeacher(Teacher teacher) {
-        this.teacher = teacher;
+        changeTeacher(teacher);
+    }
+
+    // Set the teacher, move this course between the teachers' lists, and
+    // tell the gradebook's listeners if it changed
+    private void changeTeacher(Teacher newTeacher) {
+        Teacher oldTeacher = currentTeacher();
+        this.teacher = newTeacher;
+        if (oldTeacher == newTeacher) {
+            return;
+        }
+        if (oldTeacher != null) {
+            oldTeacher.removeTaughtCourse(this);
+        }
+        if (newTeacher != null) {
+            newTeacher.addTaughtCourse(this);
+        }
+        if (gradebook != null) {
+            gradebook.fireCourseTeacherChanged(this, oldTeacher, newTeacher);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * CourseQuery.java
+ *
+ * Ad hoc queries over the courses of a Gradebook, for example
+ * "courses taught by teacher Y with an average under 70":
+ *
+ *   List<Course> courses = CourseQuery.on(gradebook)
+ *           .teacher(teacher)
+ *           .averageBelow(70)
+ *           .list();
+ *
+ * Conditions are combined with AND. The planner reads courses through the
+ * teacher's course list or the department's teachers when one of those is
+ * given, and otherwise scans all courses (see QueryPlan). Averages use the
+ * per-course grade index, so each one costs the size of that course only.
+ * Courses without grades have no average and never match an average
+ * condition. With an EntityLoader set, a scan only sees the courses
+ * loaded so far.
+ */
+public class CourseQuery {
+
+    private final Gradebook gradebook;
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<Predicate<Course>> predicates = new ArrayList<>();
+
+    // Index hints recorded from the conditions
+    private Teacher teacher;
+    private String department;
+
+    private CourseQuery(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
+    // STATIC METHOD: Start a query
+    public static CourseQuery on(Gradebook gradebook) {
+        return new CourseQuery(gradebook);
+    }
+
+    // ==================== CONDITIONS ====================
+
+    public CourseQuery teacher(Teacher teacher) {
+        this.teacher = teacher;
+        return where("teacher = " + teacher.getId(), c -> c.getTeacher() == teacher);
+    }
+
+    public CourseQuery department(String department) {
+        this.department = department;
+        int code = StringDictionary.DEPARTMENTS.codeOf(department);
+        return where("department = '" + department + "'", c -> {
+            Teacher t = c.getTeacher();
+            return t != null && t.getDepartmentCode() == code;
+        });
+    }
+
+    // Leading letters of the course code, e.g. "MATH"
+    public CourseQuery prefix(String prefix) {
+        int code = StringDictionary.COURSE_PREFIXES.codeOf(prefix);
+        return where("prefix = '" + prefix + "'", c -> c.getCoursePrefixCode() == code);
+    }
+
+    public CourseQuery averageBelow(double limit) {
+        return where("average < " + limit, c -> {
+            double[] totals = gradebook.calculateCourseScoreTotals(c);
+            return totals[1] > 0 && totals[0] / totals[1] < limit;
+        });
+    }
+
+    public CourseQuery averageAtLeast(double limit) {
+        return where("average >= " + limit, c -> {
+            double[] totals = gradebook.calculateCourseScoreTotals(c);
+            return totals[1] > 0 && totals[0] / totals[1] >= limit;
+        });
+    }
+
+    public CourseQuery minEnrollment(int students) {
+        return where("enrolled >= " + students, c -> c.getEnrolledStudents().size() >= students);
+    }
+
+    private CourseQuery where(String description, Predicate<Course> predicate) {
+        descriptions.add(description);
+        predicates.add(predicate);
+        return this;
+    }
+
+    // ==================== EXECUTION ====================
+
+    public List<Course> list() {
+        return plan().execute();
+    }
+
+    public String explain() {
+        return plan().explain();
+    }
+
+    QueryPlan<Course> plan() {
+        QueryPlan<Course> plan = new QueryPlan<>("courses");
+        if (teacher != null) {
+            List<Course> rows = teacher.getTaughtCourses();
+            plan.addIndex("teacher " + teacher.getId(), rows.size(), () -> rows);
+        }
+        if (department != null) {
+            List<Course> rows = coursesInDepartment(gradebook, department);
+            plan.addIndex("department '" + department + "'", rows.size(), () -> rows);
+        }
+        plan.addScan(gradebook.getCourses(), gradebook.getEntityLoader() == null);
+        for (int i = 0; i < predicates.size(); i++) {
+            plan.addCondition(descriptions.get(i), predicates.get(i));
+        }
+        return plan;
+    }
+
+    // STATIC METHOD: Courses taught by the teachers of a department.
+    // Teachers are few, so walking them is cheap; departments are compared
+    // by dictionary code.
+    static List<Course> coursesInDepartment(Gradebook gradebook, String department) {
+        int code = StringDictionary.DEPARTMENTS.codeOf(department);
+        List<Course> result = new ArrayList<>();
+        for (Teacher t : gradebook.getTeachers()) {
+            if (t.getDepartmentCode() == code) {
+                result.addAll(t.getTaughtCourses());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,553 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * CsvEntityStore.java
+ *
+ * An EntityLoader that reads a directory of CSV files:
+ *
+ *   students.csv     id,studentNumber,name,email,enrollmentYear
+ *   teachers.csv     id,name,email,department,title
+ *   courses.csv      courseCode,courseName,credits,teacherId
+ *   enrollments.csv  studentNumber,courseCode
+ *   grades.csv       studentNumber,courseCode,score
+ *
+ * Each file starts with a header row. Missing files are treated as empty.
+ * A quoted field may contain line breaks (GradebookExporter writes them
+ * so), so a row ends at the first line break outside quotes.
+ *
+ * Opening the store reads nothing. Each file is indexed by byte offset the
+ * first time it is needed: an entity file keeps where each row starts and
+ * a key -> row map; a link file (enrollments, grades) keeps only the
+ * offset of each line, grouped by student and by course (about 12 bytes
+ * per link, no parsed values). The rows and lines themselves are read
+ * from disk again when an entity or its links are requested, so a session
+ * that only looks up students never reads grades.csv at all.
+ *
+ * Entities are turned into stubs only when they are first requested,
+ * and every stub is cached so the same key always gives the same object.
+ * With a Gradebook set (see Gradebook.setEntityLoader), every stub is
+ * registered with it when created, including stubs reached through a
+ * roster, a schedule or a teacher's courses, so courses always know their
+ * gradebook and the Gradebook's collections are the working set.
+ *
+ * Not thread-safe, like the Gradebook it serves.
+ */
+public class CsvEntityStore implements EntityLoader, AutoCloseable {
+
+    // Entity files, indexed on first use
+    private final RowFile studentFile;
+    private final RowFile teacherFile;
+    private final RowFile courseFile;
+
+    // Link files, indexed on first use
+    private final LinkFile enrollmentFile;
+    private final LinkFile gradeFile;
+
+    // Teacher -> courses, from the teacherId column (built on first use)
+    private HashMap<String, List<Integer>> courseRowsByTeacher;
+
+    // Stubs created so far (the working set)
+    private final HashMap<Integer, Student> loadedStudents = new HashMap<>();
+    private final HashMap<Integer, Teacher> loadedTeachers = new HashMap<>();
+    private final HashMap<Integer, Course> loadedCourses = new HashMap<>();
+
+    private Gradebook gradebook;
+
+    /**
+     * Open the CSV files in a directory. Nothing is read until an entity,
+     * a relationship or a grade is first requested.
+     *
+     * @param directory Directory containing the CSV files
+     */
+    public CsvEntityStore(Path directory) {
+        studentFile = new RowFile(directory.resolve("students.csv"), 1);
+        teacherFile = new RowFile(directory.resolve("teachers.csv"), 0);
+        courseFile = new RowFile(directory.resolve("courses.csv"), 0);
+        enrollmentFile = new LinkFile(directory.resolve("enrollments.csv"));
+        gradeFile = new LinkFile(directory.resolve("grades.csv"));
+    }
+
+    @Override
+    public void setGradebook(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
+    // ==================== ENTITY STUBS ====================
+
+    @Override
+    public Student loadStudent(String studentNumber) {
+        int row = studentFile.rowOf(studentNumber);
+        return (row < 0) ? null : studentAt(row);
+    }
+
+    @Override
+    public Course loadCourse(String courseCode) {
+        int row = courseFile.rowOf(courseCode);
+        return (row < 0) ? null : courseAt(row);
+    }
+
+    @Override
+    public Teacher loadTeacher(int teacherId) {
+        int row = teacherFile.rowOf(String.valueOf(teacherId));
+        return (row < 0) ? null : teacherAt(row);
+    }
+
+    // Each stub is registered outside computeIfAbsent: registering fires
+    // listener events, which may load further stubs
+    private Student studentAt(int row) {
+        Student student = loadedStudents.get(row);
+        if (student == null) {
+            List<String> f = studentFile.read(row);
+            student = new Student(Integer.parseInt(f.get(0)), f.get(2), f.get(3), f.get(1),
+                                  Integer.parseInt(f.get(4)), this);
+            loadedStudents.put(row, student);
+            if (gradebook != null) {
+                gradebook.registerLoaded(student);
+            }
+        }
+        return student;
+    }
+
+    private Teacher teacherAt(int row) {
+        Teacher teacher = loadedTeachers.get(row);
+        if (teacher == null) {
+            List<String> f = teacherFile.read(row);
+            teacher = new Teacher(Integer.parseInt(f.get(0)), f.get(1), f.get(2), f.get(3), f.get(4), this);
+            loadedTeachers.put(row, teacher);
+            if (gradebook != null) {
+                gradebook.registerLoaded(teacher);
+            }
+        }
+        return teacher;
+    }
+
+    private Course courseAt(int row) {
+        Course course = loadedCourses.get(row);
+        if (course == null) {
+            List<String> f = courseFile.read(row);
+            course = new Course(f.get(0), f.get(1), Integer.parseInt(f.get(2)), this);
+            loadedCourses.put(row, course);
+            if (gradebook != null) {
+                gradebook.registerLoaded(course);
+            }
+        }
+        return course;
+    }
+
+    // ==================== RELATIONSHIPS ====================
+
+    @Override
+    public List<Course> loadEnrolledCourses(Student student) {
+        List<Course> result = new ArrayList<>();
+        for (List<String> fields : enrollmentFile.linesOfStudent(student.getStudentNumber())) {
+            Course course = loadCourse(fields.get(1));
+            if (course != null) {
+                result.add(course);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Student> loadEnrolledStudents(Course course) {
+        List<Student> result = new ArrayList<>();
+        for (List<String> fields : enrollmentFile.linesOfCourse(course.getCourseCode())) {
+            Student student = loadStudent(fields.get(0));
+            if (student != null) {
+                result.add(student);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Teacher loadCourseTeacher(Course course) {
+        int row = courseFile.rowOf(course.getCourseCode());
+        if (row < 0) {
+            return null;
+        }
+        List<String> fields = courseFile.read(row);
+        String teacherId = (fields.size() > 3) ? fields.get(3) : "";
+        return teacherId.isEmpty() ? null : loadTeacher(Integer.parseInt(teacherId));
+    }
+
+    @Override
+    public List<Course> loadTaughtCourses(Teacher teacher) {
+        if (courseRowsByTeacher == null) {
+            // Courses are few compared to enrollments and grades
+            HashMap<String, List<Integer>> byTeacher = new HashMap<>();
+            for (int row = 0; row < courseFile.size(); row++) {
+                List<String> fields = courseFile.read(row);
+                if (fields.size() > 3 && !fields.get(3).isEmpty()) {
+                    byTeacher.computeIfAbsent(fields.get(3), t -> new ArrayList<>()).add(row);
+                }
+            }
+            courseRowsByTeacher = byTeacher;
+        }
+        List<Course> result = new ArrayList<>();
+        for (int row : courseRowsByTeacher.getOrDefault(String.valueOf(teacher.getId()),
+                                                          Collections.emptyList())) {
+            result.add(courseAt(row));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Grade> loadGrades(Student student) {
+        List<Grade> result = new ArrayList<>();
+        for (List<String> fields : gradeFile.linesOfStudent(student.getStudentNumber())) {
+            Course course = loadCourse(fields.get(1));
+            if (course != null) {
+                result.add(storedGrade(student, course, Double.parseDouble(fields.get(2))));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Grade> loadGrades(Course course) {
+        List<Grade> result = new ArrayList<>();
+        for (List<String> fields : gradeFile.linesOfCourse(course.getCourseCode())) {
+            Student student = loadStudent(fields.get(0));
+            if (student != null) {
+                result.add(storedGrade(student, course, Double.parseDouble(fields.get(2))));
+            }
+        }
+        return result;
+    }
+
+    // STATIC METHOD: A grade read from the file, restored rather than given anew,
+    // so loading it does not count toward Grade.getTotalGradesGiven()
+    private static Grade storedGrade(Student student, Course course, double score) {
+        double clamped = Math.max(0, Math.min(100, score));
+        int letterCode = StringDictionary.LETTER_GRADES.encode(Grade.calculateLetterGrade(clamped));
+        return new Grade(student, course, clamped, letterCode, 0);
+    }
+
+    // ==================== STATISTICS ====================
+
+    // Rows in students.csv (indexes the file if it was not yet)
+    public int getStoredStudentCount() {
+        return studentFile.size();
+    }
+
+    public int getLoadedStudentCount() {
+        return loadedStudents.size();
+    }
+
+    public int getLoadedCourseCount() {
+        return loadedCourses.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        studentFile.close();
+        teacherFile.close();
+        courseFile.close();
+        enrollmentFile.close();
+        gradeFile.close();
+    }
+
+    // ==================== CSV PARSING ====================
+
+    /**
+     * Split one CSV line into fields. Fields may be wrapped in double
+     * quotes, in which case commas are allowed inside and "" stands for
+     * a literal quote.
+     */
+    public static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ==================== HELPER CLASSES ====================
+
+    // Callback used while scanning a file
+    private interface RowVisitor {
+        void visit(long start, List<String> fields) throws IOException;
+    }
+
+    // STATIC METHOD: Pass every data row of a file, with its start offset, to the visitor
+    private static void scan(Path path, RowVisitor visitor) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            LineReader reader = new LineReader(in);
+            reader.next();  // Header row
+            String line;
+            while ((line = reader.next()) != null) {
+                if (!line.isEmpty()) {
+                    visitor.visit(reader.getLineStart(), parseCsvLine(line));
+                }
+            }
+        }
+    }
+
+    // STATIC METHOD: Read and parse the row starting at an offset, up to its end
+    private static List<String> readRowAt(FileChannel channel, long start, Path path) {
+        try {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            ByteBuffer bytes = ByteBuffer.allocate(256);
+            long position = start;
+            boolean quoted = false;
+            while (true) {
+                bytes.clear();
+                int read = channel.read(bytes, position);
+                if (read <= 0) {
+                    break;
+                }
+                int end = 0;
+                while (end < read && (quoted || bytes.get(end) != '\n')) {
+                    if (bytes.get(end) == '"') {
+                        quoted = !quoted;  // An escaped "" toggles twice
+                    }
+                    end++;
+                }
+                line.write(bytes.array(), 0, end);
+                if (end < read) {
+                    break;
+                }
+                position += read;
+            }
+            return parseCsvLine(withoutCarriageReturn(line.toString(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read offset " + start + " of " + path, e);
+        }
+    }
+
+    // STATIC METHOD: A row read up to a CRLF line break ends with the CR
+    private static String withoutCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    // Reads UTF-8 rows from a stream while tracking byte offsets. A row ends
+    // at a line break outside quotes, so a quoted field may span lines.
+    private static class LineReader {
+        private final InputStream in;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        private long offset;
+        private long lineStart;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        // Next row without its terminator, or null at end of stream
+        String next() throws IOException {
+            buffer.reset();
+            lineStart = offset;
+            boolean quoted = false;
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b == '\n' && !quoted) {
+                    return decode();
+                }
+                if (b == '"') {
+                    quoted = !quoted;
+                }
+                buffer.write(b);
+            }
+            return (buffer.size() == 0) ? null : decode();
+        }
+
+        private String decode() {
+            return withoutCarriageReturn(buffer.toString(StandardCharsets.UTF_8));
+        }
+
+        long getLineStart() {
+            return lineStart;
+        }
+    }
+
+    // Opens a file for positional reads on first use; a missing file is empty
+    private abstract static class IndexedFile {
+        final Path path;
+        FileChannel channel;
+        private boolean indexed;
+
+        IndexedFile(Path path) {
+            this.path = path;
+        }
+
+        // Build the index the first time it is needed
+        final void ensureIndexed() {
+            if (indexed) {
+                return;
+            }
+            indexed = true;
+            try {
+                if (Files.exists(path)) {
+                    channel = FileChannel.open(path, StandardOpenOption.READ);
+                    index();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot index " + path, e);
+            }
+        }
+
+        abstract void index() throws IOException;
+
+        List<String> readAt(long start) {
+            return readRowAt(channel, start, path);
+        }
+
+        void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    // An entity file whose rows are found by key and read individually
+    private static class RowFile extends IndexedFile {
+        private final int keyField;
+        private final HashMap<String, Integer> rows = new HashMap<>();
+        private long[] offsets = new long[16];
+        private int size;
+
+        RowFile(Path path, int keyField) {
+            super(path);
+            this.keyField = keyField;
+        }
+
+        @Override
+        void index() throws IOException {
+            scan(path, (start, fields) -> {
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                offsets[size] = start;
+                rows.put(fields.get(keyField), size);
+                size++;
+            });
+        }
+
+        // Row number of a key, or -1
+        int rowOf(String key) {
+            ensureIndexed();
+            Integer row = rows.get(key);
+            return (row == null) ? -1 : row;
+        }
+
+        int size() {
+            ensureIndexed();
+            return size;
+        }
+
+        List<String> read(int row) {
+            return readAt(offsets[row]);
+        }
+    }
+
+    // A studentNumber,courseCode[,...] file: line offsets grouped by student
+    // and by course, with the student and course rows taken from their files
+    private final class LinkFile extends IndexedFile {
+        private long[] lineOffsets;  // Grouped by student row
+        private int[] studentStarts; // Lines of student row s: studentStarts[s] .. studentStarts[s + 1]
+        private int[] courseLines;   // Indexes into lineOffsets, grouped by course row
+        private int[] courseStarts;
+
+        LinkFile(Path path) {
+            super(path);
+        }
+
+        // Two passes: count the lines of every student and course, then place them
+        @Override
+        void index() throws IOException {
+            int students = studentFile.size();
+            int courses = courseFile.size();
+            studentStarts = new int[students + 1];
+            courseStarts = new int[courses + 1];
+            scan(path, (start, fields) -> {
+                int studentRow = studentFile.rowOf(fields.get(0));
+                int courseRow = courseFile.rowOf(fields.get(1));
+                if (studentRow >= 0 && courseRow >= 0) {
+                    studentStarts[studentRow + 1]++;
+                    courseStarts[courseRow + 1]++;
+                }
+            });
+            for (int s = 0; s < students; s++) {
+                studentStarts[s + 1] += studentStarts[s];
+            }
+            for (int c = 0; c < courses; c++) {
+                courseStarts[c + 1] += courseStarts[c];
+            }
+            lineOffsets = new long[studentStarts[students]];
+            courseLines = new int[courseStarts[courses]];
+            int[] nextForStudent = Arrays.copyOf(studentStarts, students);
+            int[] nextForCourse = Arrays.copyOf(courseStarts, courses);
+            scan(path, (start, fields) -> {
+                int studentRow = studentFile.rowOf(fields.get(0));
+                int courseRow = courseFile.rowOf(fields.get(1));
+                if (studentRow >= 0 && courseRow >= 0) {
+                    int line = nextForStudent[studentRow]++;
+                    lineOffsets[line] = start;
+                    courseLines[nextForCourse[courseRow]++] = line;
+                }
+            });
+        }
+
+        List<List<String>> linesOfStudent(String studentNumber) {
+            ensureIndexed();
+            List<List<String>> lines = new ArrayList<>();
+            int row = studentFile.rowOf(studentNumber);
+            if (channel != null && row >= 0) {
+                for (int i = studentStarts[row]; i < studentStarts[row + 1]; i++) {
+                    lines.add(readAt(lineOffsets[i]));
+                }
+            }
+            return lines;
+        }
+
+        List<List<String>> linesOfCourse(String courseCode) {
+            ensureIndexed();
+            List<List<String>> lines = new ArrayList<>();
+            int row = courseFile.rowOf(courseCode);
+            if (channel != null && row >= 0) {
+                for (int i = courseStarts[row]; i < courseStarts[row + 1]; i++) {
+                    lines.add(readAt(lineOffsets[courseLines[i]]));
+                }
+            }
+            return lines;
+        }
+    }
+}
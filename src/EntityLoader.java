@@ -0,0 +1,69 @@
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * EntityLoader.java
+ *
+ * INTERFACE DEMONSTRATION
+ * Backing storage for lazily loaded entities. A Gradebook with a loader
+ * only materializes the students, courses and teachers that are actually
+ * looked up, as lightweight stubs. A stub's relationships (enrolled
+ * courses, roster, teacher, taught courses, grades) are fetched from the
+ * loader the first time they are used.
+ *
+ * Implementations must return the same object for the same key every
+ * time, so that a stub reached through a roster is the very same object
+ * that a lookup by number returns.
+ *
+ * Stubs reached through relationships should be registered too: the
+ * Gradebook passes itself to setGradebook(), and a loader that creates a
+ * stub hands it to the Gradebook, so every course knows its gradebook and
+ * removing or enrolling students on it keeps grades and listeners in step.
+ *
+ * With a loader set, the Gradebook's collections (getStudents(),
+ * getCourses(), getGrades()) hold only what has been loaded so far. Full
+ * scans over them - query scans, GradebookExporter.exportAll() - cover
+ * the working set, not everything in storage.
+ */
+public interface EntityLoader {
+
+    // The gradebook this loader serves (called by Gradebook.setEntityLoader)
+    default void setGradebook(Gradebook gradebook) {
+    }
+
+    // Entity stubs - return null if the key is unknown
+    Student loadStudent(String studentNumber);
+
+    Course loadCourse(String courseCode);
+
+    Teacher loadTeacher(int teacherId);
+
+    // Relationships of a stub
+    List<Course> loadEnrolledCourses(Student student);
+
+    List<Student> loadEnrolledStudents(Course course);
+
+    Teacher loadCourseTeacher(Course course);
+
+    List<Course> loadTaughtCourses(Teacher teacher);
+
+    // Stored grades
+    List<Grade> loadGrades(Student student);
+
+    List<Grade> loadGrades(Course course);
+
+    /**
+     * Take back grades the gradebook drops from memory after reporting them
+     * to its listeners (see Gradebook.releaseGrades()). Returns false if the
+     * loader cannot, which is the default: only a loader that is kept up to
+     * date with every change, and remembers which grades were released, can.
+     */
+    default boolean releaseGrades(Collection<Grade> grades) {
+        return false;
+    }
+
+    // Whether a loaded grade was released before, so listeners have seen it
+    default boolean wasReleased(Grade grade) {
+        return false;
+    }
+}
@@ -0,0 +1,101 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FootprintReport.java
+ *
+ * Measures heap bytes per student for the two ways of holding students:
+ * - standard: Student objects registered in a Gradebook
+ * - compact: packed arrays in a CompactStudentStore
+ *
+ * Each mode is built on its own and measured as the growth of the used
+ * heap after a full GC, so the numbers include every object the mode
+ * keeps alive (Strings, course lists, index entries).
+ *
+ * Usage:
+ *   java FootprintReport --students=1000000
+ */
+public class FootprintReport {
+
+    public static void main(String[] args) {
+        int students = 1_000_000;
+        for (String arg : args) {
+            if (arg.startsWith("--students=")) {
+                students = Integer.parseInt(arg.substring("--students=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+        run(students);
+    }
+
+    public static void run(int students) {
+        System.out.println("============ STUDENT FOOTPRINT (" + students + " students) ============");
+
+        long before = WorkloadDriver.usedHeap();
+        Gradebook gradebook = buildStandard(students);
+        long standardBytes = WorkloadDriver.usedHeap() - before;
+        report("standard", standardBytes, gradebook.getStudents().size());
+        gradebook = null;
+
+        before = WorkloadDriver.usedHeap();
+        CompactStudentStore store = buildCompact(students);
+        long compactBytes = WorkloadDriver.usedHeap() - before;
+        report("compact", compactBytes, store.size());
+        System.out.printf("  %-10s %12.1f bytes/student (packed arrays, allocated capacity)%n", "",
+                (double) store.getPackedBytes() / Math.max(1, store.size()));
+
+        // Materializing a handful of students costs only those students,
+        // and only while they are in use (the store holds them weakly)
+        int sample = Math.min(1000, students);
+        List<Student> views = new ArrayList<>();
+        before = WorkloadDriver.usedHeap();
+        for (int i = 0; i < sample; i++) {
+            views.add(store.loadStudent(studentNumber(i * (students / Math.max(1, sample)))));
+        }
+        long viewBytes = WorkloadDriver.usedHeap() - before;
+        System.out.printf("  %d materialized views: %.1f bytes each%n",
+                store.getMaterializedCount(), (double) viewBytes / Math.max(1, store.getMaterializedCount()));
+        views = null;
+        WorkloadDriver.usedHeap();
+        System.out.printf("  %d materialized views once they are no longer used%n", store.getMaterializedCount());
+
+        System.out.printf("Compact mode uses %.1fx less heap per student%n",
+                (double) standardBytes / Math.max(1, compactBytes));
+        System.out.println("=====================================================");
+    }
+
+    private static Gradebook buildStandard(int students) {
+        Gradebook gradebook = Gradebook.createPartition();
+        PrintStream original = QuietConsole.mute();
+        try {
+            for (int i = 0; i < students; i++) {
+                gradebook.addStudent(new Student("Student " + i, "s" + i + "@student.edu", "pass",
+                                                 studentNumber(i), 2018 + i % 8));
+            }
+        } finally {
+            QuietConsole.restore(original);
+        }
+        return gradebook;
+    }
+
+    private static CompactStudentStore buildCompact(int students) {
+        CompactStudentStore store = new CompactStudentStore();
+        int firstId = IdAllocator.USER_IDS.nextInt();
+        for (int i = 0; i < students; i++) {
+            store.add(firstId + i, "Student " + i, "s" + i + "@student.edu",
+                      studentNumber(i), 2018 + i % 8);
+        }
+        return store;
+    }
+
+    private static String studentNumber(int i) {
+        return String.format("S%08d", i);
+    }
+
+    private static void report(String mode, long bytes, int count) {
+        System.out.printf("  %-10s %12.1f bytes/student (%.1f MB total)%n",
+                mode, (double) bytes / Math.max(1, count), bytes / 1e6);
+    }
+}
@@ -0,0 +1,483 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * GpaProjection.java
+ *
+ * What-if projections for advising: "what GPA, and what class rank, does
+ * this student end up with if they get a B in CS101 and retake CS102?",
+ * answered without touching the Gradebook.
+ *
+ *   GpaProjection projections = GpaProjection.attach(gradebook);
+ *   GpaProjection.Projection result = projections.whatIf(student)
+ *           .set(cs101, "B")
+ *           .set(cs102, 88.0)   // A retake replaces the earlier grade
+ *           .drop(hist200)
+ *           .project();
+ *   System.out.print(result.describe());
+ *
+ * The real values are maintained as a GradebookListener, like CohortRollup:
+ * - the score of every grade, per student and course
+ * - grade points and grade count per student
+ * - score sum and grade count per course
+ * - a Fenwick tree counting graded students per GPA bucket, so the number
+ *   of students above any GPA is a prefix sum in O(log buckets)
+ *
+ * A projection only reads these, never the Gradebook, which could load
+ * grades and call back into the projection halfway through. It works out
+ * the student's grade in each changed course after the scenario, adds the
+ * difference to the real totals, and finds the projected rank by counting
+ * the students above the projected GPA, minus the student's own real
+ * entry. The cost is a few map lookups and two tree walks, whatever the
+ * school size.
+ *
+ * GPA buckets are exact fractions points/count, floored to 1/GPA_SCALE.
+ * Two different GPAs of students with fewer than ~300 grades each are at
+ * least 1/90000 apart, so they never share a bucket and ranks are exact.
+ *
+ * Rank is 1 + the number of graded students with a strictly higher GPA
+ * (ties share a rank). Students without grades are not ranked (rank 0).
+ *
+ * Grades are tracked through listener events, so Grade.setLetterGrade()
+ * and setScore() called directly on a Grade are not seen. Thread-safe: the
+ * listener methods and projections are synchronized.
+ */
+public class GpaProjection implements GradebookListener {
+
+    // GPA buckets per grade point
+    static final int GPA_SCALE = 100_000;
+    private static final int BUCKETS = 4 * GPA_SCALE + 1;
+
+    // COLLECTIONS: student id -> course code -> score
+    private final HashMap<Integer, HashMap<String, Double>> studentScores = new HashMap<>();
+
+    // COLLECTIONS: student id -> {points, count}; course code -> {score sum, count}
+    private final HashMap<Integer, int[]> studentTotals = new HashMap<>();
+    private final HashMap<String, double[]> courseTotals = new HashMap<>();
+
+    // Fenwick tree over GPA buckets (1-based), and the number of graded students
+    private final int[] tree = new int[BUCKETS + 1];
+    private int rankedStudents;
+
+    private GpaProjection() {
+    }
+
+    // STATIC METHOD: Build from the gradebook's current grades and keep up to date
+    public static GpaProjection attach(Gradebook gradebook) {
+        GpaProjection projection = new GpaProjection();
+        for (Grade grade : gradebook.getGrades().values()) {
+            projection.gradeAdded(grade);
+        }
+        gradebook.addListener(projection);
+        return projection;
+    }
+
+    // ==================== SCENARIOS ====================
+
+    // Hypothetical changes to one student's grades; nothing is applied
+    public class Scenario {
+        private final Student student;
+        private final List<Course> courses = new ArrayList<>();
+        private final List<Double> scores = new ArrayList<>();  // null = drop
+
+        private Scenario(Student student) {
+            this.student = student;
+        }
+
+        // A grade with this score in the course, replacing any real one
+        public Scenario set(Course course, double score) {
+            courses.add(course);
+            scores.add(Math.max(0, Math.min(100, score)));
+            return this;
+        }
+
+        // METHOD OVERLOADING: A letter grade, scored as the Grade letter constructor does
+        public Scenario set(Course course, String letterGrade) {
+            return set(course, Grade.convertLetterToScore(letterGrade));
+        }
+
+        // No grade in the course (dropped or withdrawn)
+        public Scenario drop(Course course) {
+            courses.add(course);
+            scores.add(null);
+            return this;
+        }
+
+        public Projection project() {
+            return GpaProjection.this.project(this);
+        }
+    }
+
+    // Start a scenario for a student
+    public Scenario whatIf(Student student) {
+        return new Scenario(student);
+    }
+
+    // ==================== PROJECTION ====================
+
+    private synchronized Projection project(Scenario scenario) {
+        Student student = scenario.student;
+        int[] real = studentTotals.getOrDefault(student.getId(), new int[2]);
+        Map<String, Double> realScores = studentScores.getOrDefault(student.getId(), new HashMap<>());
+
+        // Each changed course: real score and projected score (null = no grade)
+        LinkedHashMap<Course, Double[]> changed = new LinkedHashMap<>();
+        for (int i = 0; i < scenario.courses.size(); i++) {
+            Course course = scenario.courses.get(i);
+            Double[] scores = changed.get(course);
+            if (scores == null) {
+                Double realScore = realScores.get(course.getCourseCode());
+                scores = new Double[] {realScore, realScore};
+                changed.put(course, scores);
+            }
+            scores[1] = scenario.scores.get(i);  // A later change to the same course wins
+        }
+
+        int points = real[0];
+        int count = real[1];
+        List<CourseChange> courseChanges = new ArrayList<>();
+        for (Map.Entry<Course, Double[]> entry : changed.entrySet()) {
+            Double before = entry.getValue()[0];
+            Double after = entry.getValue()[1];
+            double[] totals = courseTotals.getOrDefault(entry.getKey().getCourseCode(), new double[2]);
+            double sum = totals[0];
+            double grades = totals[1];
+            if (before != null) {
+                points -= points(before);
+                count--;
+                sum -= before;
+                grades--;
+            }
+            if (after != null) {
+                points += points(after);
+                count++;
+                sum += after;
+                grades++;
+            }
+            courseChanges.add(new CourseChange(entry.getKey(), before, after,
+                    average(totals[0], totals[1]), average(sum, grades)));
+        }
+
+        // Rank among the other students, with this student moved to the projected bucket
+        int realRank = (real[1] == 0) ? 0 : 1 + countAbove(bucket(real[0], real[1]));
+        int projectedRank = 0;
+        int ranked = rankedStudents - ((real[1] == 0) ? 0 : 1);
+        if (count > 0) {
+            int projectedBucket = bucket(points, count);
+            int above = countAbove(projectedBucket);
+            if (real[1] > 0 && bucket(real[0], real[1]) > projectedBucket) {
+                above--;  // The student's own real entry
+            }
+            projectedRank = 1 + above;
+            ranked++;
+        }
+        return new Projection(student, gpa(real[0], real[1]), gpa(points, count),
+                realRank, projectedRank, rankedStudents, ranked, courseChanges);
+    }
+
+    // STATIC METHOD: Grade points of a score, as Grade.getGradePoints() gives them
+    private static int points(double score) {
+        return (int) Grade.letterToGradePoints(Grade.calculateLetterGrade(score));
+    }
+
+    private static double gpa(int points, int count) {
+        return (count == 0) ? 0 : (double) points / count;
+    }
+
+    private static double average(double sum, double count) {
+        return (count == 0) ? 0 : sum / count;
+    }
+
+    // STATIC METHOD: Bucket of a GPA, 0 .. BUCKETS-1, in exact integer arithmetic
+    private static int bucket(int points, int count) {
+        return (int) ((long) points * GPA_SCALE / count);
+    }
+
+    // ==================== REAL VALUES ====================
+
+    public synchronized double getGpa(Student student) {
+        int[] totals = studentTotals.get(student.getId());
+        return (totals == null) ? 0 : gpa(totals[0], totals[1]);
+    }
+
+    // Class rank of a student, or 0 if they have no grades
+    public synchronized int getRank(Student student) {
+        int[] totals = studentTotals.get(student.getId());
+        return (totals == null) ? 0 : 1 + countAbove(bucket(totals[0], totals[1]));
+    }
+
+    public synchronized int getRankedStudentCount() {
+        return rankedStudents;
+    }
+
+    public synchronized double getCourseAverage(Course course) {
+        double[] totals = courseTotals.get(course.getCourseCode());
+        return (totals == null) ? 0 : average(totals[0], totals[1]);
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    @Override
+    public synchronized void gradeAdded(Grade grade) {
+        double score = grade.getScore();
+        studentScores.computeIfAbsent(grade.getStudent().getId(), id -> new HashMap<>())
+                     .put(grade.getCourse().getCourseCode(), score);
+        change(grade.getStudent(), grade.getCourse(), 0, points(score), 1, score);
+    }
+
+    @Override
+    public synchronized void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        studentScores.computeIfAbsent(grade.getStudent().getId(), id -> new HashMap<>())
+                     .put(grade.getCourse().getCourseCode(), newScore);
+        change(grade.getStudent(), grade.getCourse(), points(oldScore), points(newScore), 0,
+               newScore - oldScore);
+    }
+
+    @Override
+    public synchronized void gradeRemoved(Grade grade) {
+        HashMap<String, Double> scores = studentScores.get(grade.getStudent().getId());
+        Double tracked = (scores == null) ? null : scores.remove(grade.getCourse().getCourseCode());
+        if (tracked == null) {
+            return;  // Never counted, so there is nothing to take away
+        }
+        if (scores.isEmpty()) {
+            studentScores.remove(grade.getStudent().getId());
+        }
+        // Take away what the totals were built from
+        change(grade.getStudent(), grade.getCourse(), points(tracked), 0, -1, -tracked);
+    }
+
+    // Apply a change of the student's points and grade count, and of the course's score sum
+    private void change(Student student, Course course, int oldPoints, int newPoints,
+                        int countChange, double scoreChange) {
+        int[] totals = studentTotals.get(student.getId());
+        if (totals == null) {
+            totals = new int[2];
+            studentTotals.put(student.getId(), totals);
+        } else {
+            removeFromTree(bucket(totals[0], totals[1]));
+        }
+        totals[0] += newPoints - oldPoints;
+        totals[1] += countChange;
+        if (totals[1] == 0) {
+            studentTotals.remove(student.getId());
+        } else {
+            addToTree(bucket(totals[0], totals[1]));
+        }
+
+        double[] sums = courseTotals.computeIfAbsent(course.getCourseCode(), code -> new double[2]);
+        sums[0] += scoreChange;
+        sums[1] += countChange;
+        if (sums[1] == 0) {
+            courseTotals.remove(course.getCourseCode());
+        }
+    }
+
+    // ==================== FENWICK TREE ====================
+
+    private void addToTree(int bucket) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i]++;
+        }
+        rankedStudents++;
+    }
+
+    private void removeFromTree(int bucket) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i]--;
+        }
+        rankedStudents--;
+    }
+
+    // Graded students in a strictly higher bucket
+    private int countAbove(int bucket) {
+        int atOrBelow = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            atOrBelow += tree[i];
+        }
+        return rankedStudents - atOrBelow;
+    }
+
+    // ==================== RESULTS ====================
+
+    // Projected effect on one course
+    public static class CourseChange {
+        private final Course course;
+        private final Double realScore;       // null = no grade
+        private final Double projectedScore;  // null = no grade
+        private final double realAverage;
+        private final double projectedAverage;
+
+        CourseChange(Course course, Double realScore, Double projectedScore,
+                     double realAverage, double projectedAverage) {
+            this.course = course;
+            this.realScore = realScore;
+            this.projectedScore = projectedScore;
+            this.realAverage = realAverage;
+            this.projectedAverage = projectedAverage;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Double getRealScore() {
+            return realScore;
+        }
+
+        public Double getProjectedScore() {
+            return projectedScore;
+        }
+
+        public double getRealAverage() {
+            return realAverage;
+        }
+
+        public double getProjectedAverage() {
+            return projectedAverage;
+        }
+
+        public double getAverageDelta() {
+            return projectedAverage - realAverage;
+        }
+    }
+
+    // Result of a scenario: real and projected values side by side
+    public static class Projection {
+        private final Student student;
+        private final double realGpa;
+        private final double projectedGpa;
+        private final int realRank;
+        private final int projectedRank;
+        private final int realRankedStudents;
+        private final int projectedRankedStudents;
+        private final List<CourseChange> courseChanges;
+
+        Projection(Student student, double realGpa, double projectedGpa, int realRank, int projectedRank,
+                   int realRankedStudents, int projectedRankedStudents, List<CourseChange> courseChanges) {
+            this.student = student;
+            this.realGpa = realGpa;
+            this.projectedGpa = projectedGpa;
+            this.realRank = realRank;
+            this.projectedRank = projectedRank;
+            this.realRankedStudents = realRankedStudents;
+            this.projectedRankedStudents = projectedRankedStudents;
+            this.courseChanges = Collections.unmodifiableList(courseChanges);
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public double getRealGpa() {
+            return realGpa;
+        }
+
+        public double getProjectedGpa() {
+            return projectedGpa;
+        }
+
+        public double getGpaDelta() {
+            return projectedGpa - realGpa;
+        }
+
+        // Class rank (1 = top), or 0 when the student has no grades
+        public int getRealRank() {
+            return realRank;
+        }
+
+        public int getProjectedRank() {
+            return projectedRank;
+        }
+
+        // Places gained (positive) or lost (negative)
+        public int getRankChange() {
+            return (realRank == 0 || projectedRank == 0) ? 0 : realRank - projectedRank;
+        }
+
+        public int getRealRankedStudents() {
+            return realRankedStudents;
+        }
+
+        public int getProjectedRankedStudents() {
+            return projectedRankedStudents;
+        }
+
+        public List<CourseChange> getCourseChanges() {
+            return courseChanges;
+        }
+
+        public String describe() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("What-if for %s (%s)%n", student.getName(), student.getStudentNumber()));
+            text.append(String.format("GPA:  %.2f -> %.2f (%+.2f)%n", realGpa, projectedGpa, getGpaDelta()));
+            text.append(String.format("Rank: %d of %d -> %d of %d (%+d)%n", realRank, realRankedStudents,
+                    projectedRank, projectedRankedStudents, getRankChange()));
+            for (CourseChange change : courseChanges) {
+                text.append(String.format("  %-10s %6s -> %-6s course average %.2f -> %.2f (%+.2f)%n",
+                        change.course.getCourseCode(), score(change.realScore), score(change.projectedScore),
+                        change.realAverage, change.projectedAverage, change.getAverageDelta()));
+            }
+            return text.toString();
+        }
+
+        private static String score(Double score) {
+            return (score == null) ? "-" : String.format("%.1f", score);
+        }
+    }
+
+    // ==================== BENCHMARK ====================
+
+    public static void main(String[] args) {
+        int students = 100_000;
+        int scenarios = 200_000;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--students": students = Integer.parseInt(parts[1]); break;
+                case "--scenarios": scenarios = Integer.parseInt(parts[1]); break;
+                default: System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        Gradebook gradebook = Gradebook.createPartition();
+        WorkloadGenerator generator = new WorkloadGenerator(42);
+        generator.setStudentCount(students);
+        generator.populate(gradebook);
+        long start = System.nanoTime();
+        GpaProjection projections = attach(gradebook);
+        System.out.printf("%,d grades, %,d ranked students, attached in %.0f ms%n",
+                gradebook.getGrades().size(), projections.getRankedStudentCount(),
+                (System.nanoTime() - start) / 1e6);
+
+        List<Student> all = gradebook.getStudents();
+        List<Course> courses = gradebook.getCourses();
+        Random random = new Random(1);
+        Projection last = null;
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            double check = 0;
+            for (int i = 0; i < scenarios; i++) {
+                Student student = all.get(random.nextInt(all.size()));
+                Scenario scenario = projections.whatIf(student)
+                        .set(courses.get(random.nextInt(courses.size())), "B")
+                        .set(courses.get(random.nextInt(courses.size())), 60 + random.nextInt(41));
+                for (Course enrolled : student.getEnrolledCourses()) {
+                    scenario.drop(enrolled);  // Withdraw from the first enrolled course
+                    break;
+                }
+                last = scenario.project();
+                check += last.getProjectedGpa();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%,d scenarios in %.2f s: %,.0f scenarios/s (check %.1f)%n",
+                    scenarios, seconds, scenarios / seconds, check);
+        }
+        System.out.print(last.describe());
+    }
+}
@@ -1,3 +1,6 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * Grade.java
  *
@@ -9,18 +12,52 @@
  * - Composition: Grade HAS-A Student and HAS-A Course
  * - Static method: Utility method for calculating letter grade
  * - Method overloading: Multiple constructors and display methods
+ *
+ * The score, letter grade and a version stamp are held together in one
+ * immutable State, replaced by compare-and-set. Every change bumps the
+ * version. A grader that read version v can apply its change with
+ * compareAndSetScore(v, score): it succeeds only if nobody changed the
+ * grade in between, and otherwise returns CONFLICT so the grader can
+ * re-read and decide, instead of silently overwriting. Updates to
+ * different grades never touch the same State, so they never wait on
+ * each other.
  */
 public class Grade {
 
     // ENCAPSULATION: Private fields
     private Student student;  // COMPOSITION: Grade belongs to a Student
     private Course course;    // COMPOSITION: Grade is for a Course
-    private double score;     // Numerical score (0-100)
-    private String letterGrade;
+    private volatile State state;  // Score, letter grade and version
+
+    // One consistent value of the grade; never modified, only replaced
+    private static final class State {
+        final double score;      // Numerical score (0-100)
+        final int letterCode;    // StringDictionary code of the letter grade
+        final long version;      // Number of changes so far
+
+        State(double score, int letterCode, long version) {
+            this.score = score;
+            this.letterCode = letterCode;
+            this.version = version;
+        }
+    }
+
+    // STATIC VARIABLE: Compare-and-set on the state field without an AtomicReference per grade
+    private static final AtomicReferenceFieldUpdater<Grade, State> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(Grade.class, State.class, "state");
+
+    // STATIC VARIABLE: Returned by compareAndSetScore() when the expected version is out of date
+    public static final long CONFLICT = -1;
+
+    // STATIC VARIABLE: Lowest passing score
+    public static final double PASSING_SCORE = 60;
 
     // STATIC VARIABLE: Counter for tracking total grades given
     private static int totalGradesGiven = 0;
 
+    // STATIC VARIABLE: Grade points indexed by letter code, extended as new codes appear
+    private static volatile double[] pointsByLetterCode = new double[0];
+
     /**
      * Constructor for Grade class
      *
@@ -31,7 +68,7 @@ public class Grade {
     public Grade(Student student, Course course, double score) {
         this.student = student;
         this.course = course;
-        setScore(score);  // Use setter to validate and calculate letter grade
+        this.state = scoreState(score, 0);  // Validate and calculate letter grade
         totalGradesGiven++;
     }
 
@@ -39,11 +76,19 @@ public class Grade {
     public Grade(Student student, Course course, String letterGrade) {
         this.student = student;
         this.course = course;
-        this.letterGrade = letterGrade;
-        this.score = convertLetterToScore(letterGrade);
+        this.state = new State(convertLetterToScore(letterGrade),
+                StringDictionary.LETTER_GRADES.encode(letterGrade), 0);
         totalGradesGiven++;
     }
 
+    // Package-private: restore a stored grade as it was, version included.
+    // Not counted in the total, since the grade was given before.
+    Grade(Student student, Course course, double score, int letterCode, long version) {
+        this.student = student;
+        this.course = course;
+        this.state = new State(score, letterCode, version);
+    }
+
     // STATIC METHOD: Utility method to calculate letter grade from score
     public static String calculateLetterGrade(double score) {
         if (score >= 90) {
@@ -64,8 +109,8 @@ public class Grade {
         return totalGradesGiven;
     }
 
-    // Helper method to convert letter grade to approximate score
-    private double convertLetterToScore(String letter) {
+    // STATIC METHOD: Helper method to convert letter grade to approximate score
+    static double convertLetterToScore(String letter) {
         switch (letter.toUpperCase()) {
             case "A": return 95.0;
             case "B": return 85.0;
@@ -78,10 +123,15 @@ public class Grade {
 
     // Method to display grade information
     public void displayGrade() {
-        System.out.println("Student: " + student.getName() +
+        System.out.println(formatGrade());
+    }
+
+    // The line printed by displayGrade()
+    public String formatGrade() {
+        return "Student: " + student.getName() +
                 " | Course: " + course.getCourseName() +
-                " | Score: " + score +
-                " | Grade: " + letterGrade);
+                " | Score: " + getScore() +
+                " | Grade: " + getLetterGrade();
     }
 
     // METHOD OVERLOADING: Display with more details
@@ -92,17 +142,54 @@ public class Grade {
             System.out.println("Student Number: " + student.getStudentNumber());
             System.out.println("Course: " + course.getCourseName());
             System.out.println("Course Code: " + course.getCourseCode());
-            System.out.println("Numerical Score: " + score);
-            System.out.println("Letter Grade: " + letterGrade);
+            System.out.println("Numerical Score: " + getScore());
+            System.out.println("Letter Grade: " + getLetterGrade());
             System.out.println("====================================");
         } else {
             displayGrade();
         }
     }
 
+    // STATIC METHOD: Convert a letter grade to GPA points on a 4.0 scale
+    public static double letterToGradePoints(String letter) {
+        switch (letter) {
+            case "A": return 4.0;
+            case "B": return 3.0;
+            case "C": return 2.0;
+            case "D": return 1.0;
+            default: return 0.0;
+        }
+    }
+
+    // STATIC METHOD: GPA points for a letter code, read from a table instead of decoding it
+    static double letterCodeToGradePoints(int letterCode) {
+        double[] table = pointsByLetterCode;
+        return (letterCode < table.length) ? table[letterCode] : extendPointsTable(letterCode);
+    }
+
+    // Add the codes up to letterCode to the table; every code below it is already assigned
+    private static synchronized double extendPointsTable(int letterCode) {
+        double[] table = pointsByLetterCode;
+        if (letterCode >= table.length) {
+            int filled = table.length;
+            table = Arrays.copyOf(table, letterCode + 1);
+            for (int code = filled; code <= letterCode; code++) {
+                String letter = StringDictionary.LETTER_GRADES.decode(code);
+                table[code] = (letter == null) ? 0.0 : letterToGradePoints(letter);
+            }
+            pointsByLetterCode = table;
+        }
+        return table[letterCode];
+    }
+
+    // GPA points for this grade
+    public double getGradePoints() {
+        return letterCodeToGradePoints(state.letterCode);
+    }
+
     // Check if the grade is passing (D or above)
     public boolean isPassing() {
-        return score >= 60;
+        return getScore() >= PASSING_SCORE;
     }
 
     // Getter methods
@@ -115,11 +202,21 @@ public class Grade {
     }
 
     public double getScore() {
-        return score;
+        return state.score;
     }
 
     public String getLetterGrade() {
-        return letterGrade;
+        return StringDictionary.LETTER_GRADES.decode(state.letterCode);
+    }
+
+    // Dictionary code of the letter grade, for fast equality filters
+    public int getLetterCode() {
+        return state.letterCode;
+    }
+
+    // Version stamp: 0 when created, increased by every change
+    public long getVersion() {
+        return state.version;
     }
 
     // Setter methods
@@ -131,22 +228,54 @@ public class Grade {
         this.course = course;
     }
 
-    // Setter for score also updates letter grade
+    // Setter for score also updates letter grade; overwrites whatever is there
     public void setScore(double score) {
-        // Validate score range
-        if (score < 0) {
-            this.score = 0;
-        } else if (score > 100) {
-            this.score = 100;
-        } else {
-            this.score = score;
+        while (replaceScore(state, score) == null) {
+            // Lost a race with another change: apply ours on top of it
         }
-        // Calculate and set letter grade
-        this.letterGrade = calculateLetterGrade(this.score);
+    }
+
+    /**
+     * Set the score only if the grade is still at the expected version.
+     * Returns the new version, or CONFLICT if the grade changed since that
+     * version was read (nothing is written then).
+     */
+    public long compareAndSetScore(long expectedVersion, double score) {
+        State current = state;
+        if (current.version != expectedVersion) {
+            return CONFLICT;
+        }
+        State next = replaceScore(current, score);
+        return (next == null) ? CONFLICT : next.version;
+    }
+
+    // Replace the given state with one holding the score; null if it was replaced first
+    private State replaceScore(State current, double score) {
+        State next = scoreState(score, current.version + 1);
+        return STATE.compareAndSet(this, current, next) ? next : null;
+    }
+
+    // STATIC METHOD: The score actually stored for a requested one (clamped to 0-100)
+    static double validScore(double score) {
+        return Math.max(0, Math.min(100, score));
+    }
+
+    // STATIC METHOD: State for a score, clamped to 0-100, with its letter grade
+    private static State scoreState(double score, long version) {
+        // Validate score range
+        double clamped = validScore(score);
+        // Calculate the letter grade with it
+        int letterCode = StringDictionary.LETTER_GRADES.encode(calculateLetterGrade(clamped));
+        return new State(clamped, letterCode, version);
     }
 
     public void setLetterGrade(String letterGrade) {
-        this.letterGrade = letterGrade;
+        int letterCode = StringDictionary.LETTER_GRADES.encode(letterGrade);
+        State current;
+        do {
+            current = state;
+        } while (!STATE.compareAndSet(this, current,
+                new State(current.score, letterCode, current.version + 1)));
     }
 }
 
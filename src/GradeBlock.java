@@ -0,0 +1,710 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * GradeBlock.java
+ *
+ * Compressed, immutable block of up to MAX_GRADES grades, for archives on
+ * disk and for cold in-memory tiers.
+ *
+ * A Grade object with its double score and the references to its student
+ * and course costs about 40 bytes of heap per grade, and a naive record
+ * (int id, course code, double) still over 20 bytes on disk. Real scores
+ * are 0-100 in steps of 0.5 or 0.1, so a block stores:
+ * - scores in fixed point: one unsigned byte per score when every score
+ *   is a multiple of 0.5, otherwise a short in tenths (or hundredths,
+ *   rounded, for anything finer)
+ * - grades sorted by student ID, each key as a varint delta from the
+ *   previous student ID plus a varint index into the block's course
+ *   dictionary
+ * - per-block statistics (count, min/max score, min/max student ID) in the
+ *   header, so range queries skip whole blocks without decoding them
+ * - optionally, the letter grade of every grade, as one byte indexing a
+ *   small letter dictionary, so a letter set apart from the score (see
+ *   Grade.setLetterGrade) or derived from an unrounded score survives
+ *
+ * The scores are one contiguous fixed-width array, so decoding and
+ * summing them is a tight loop over bytes (see main for a benchmark).
+ *
+ * Layout (big-endian):
+ *   int magic, byte version, byte score width (1 or 2), short scale,
+ *   int count, int min student, int max student, short min score,
+ *   short max score, int dictionary bytes, int key bytes, int block bytes,
+ *   course dictionary (varint n, then n x (varint length, UTF-8)),
+ *   scores (count x width), keys (count x (varint delta, varint course)),
+ *   then in version 2 only: letter dictionary (varint n, then n x (varint
+ *   length, UTF-8)), letters (count x byte index into the dictionary)
+ *
+ * A block wraps any ByteBuffer: a heap array, a direct buffer or a mapped
+ * file region (see readArchive).
+ *
+ * Blocks are keyed by int student IDs. encode(Collection<Grade>) and
+ * encodeAll use Student.getId(), which is only handed out for the life of
+ * one process (see IdAllocator): a block written to disk needs its own
+ * ID -> student number map to be read by another process, as TermSegment
+ * keeps beside its file. Callers with a stable key of their own pass it
+ * through the array form of encode().
+ */
+public final class GradeBlock {
+
+    // Largest block; the sort key packs the position into 16 bits
+    public static final int MAX_GRADES = 1 << 16;
+
+    // Grades per block chosen by encodeAll() when none is given
+    public static final int DEFAULT_GRADES = 4096;
+
+    private static final int MAGIC = 0x47524442;  // "GRDB"
+    private static final byte VERSION = 1;
+    private static final byte VERSION_WITH_LETTERS = 2;
+    private static final int HEADER_BYTES = 36;
+    private static final int KEY_CHECKPOINT = 64;
+
+    // STATIC VARIABLES: Decoded score of every fixed-point value, per scale. A lookup is
+    // as fast as a multiply and gives exactly the double of e.g. 72.3, which x * 0.1 does not.
+    private static final double[] HALVES = scoreTable(2);
+    private static final double[] TENTHS = scoreTable(10);
+    private static final double[] HUNDREDTHS = scoreTable(100);
+
+    private final ByteBuffer buffer;  // Exactly one block, starting at index 0
+
+    // Header fields, read once
+    private final int width;
+    private final int scale;
+    private final double[] scores;  // The score table for this scale
+    private final int count;
+    private final int minStudentId;
+    private final int maxStudentId;
+    private final int minFixed;
+    private final int maxFixed;
+    private final int scoresOffset;
+    private final int keysOffset;
+    private final String[] courseCodes;
+    private final String[] letterGrades;  // Null if the block has no letters
+    private final int lettersOffset;
+
+    // Where to resume reading keys: for every KEY_CHECKPOINT-th grade, the student ID
+    // before it and the offset of its key, interleaved. Built on first use; racing
+    // builds produce equal arrays, so no lock is needed.
+    private volatile int[] keyCheckpoints;
+
+    private GradeBlock(ByteBuffer buffer) {
+        byte version = buffer.get(4);
+        if (buffer.getInt(0) != MAGIC || (version != VERSION && version != VERSION_WITH_LETTERS)) {
+            throw new IllegalArgumentException("Not a grade block");
+        }
+        this.buffer = buffer;
+        this.width = buffer.get(5);
+        this.scale = buffer.getShort(6);
+        this.scores = (scale == 2) ? HALVES : (scale == 10) ? TENTHS : HUNDREDTHS;
+        this.count = buffer.getInt(8);
+        this.minStudentId = buffer.getInt(12);
+        this.maxStudentId = buffer.getInt(16);
+        this.minFixed = buffer.getShort(20);
+        this.maxFixed = buffer.getShort(22);
+        int dictionaryBytes = buffer.getInt(24);
+        this.scoresOffset = HEADER_BYTES + dictionaryBytes;
+        this.keysOffset = scoresOffset + count * width;
+
+        int[] position = {HEADER_BYTES};
+        this.courseCodes = readStrings(buffer, position);
+        if (version == VERSION_WITH_LETTERS) {
+            position[0] = keysOffset + buffer.getInt(28);
+            this.letterGrades = readStrings(buffer, position);
+            this.lettersOffset = position[0];
+        } else {
+            this.letterGrades = null;
+            this.lettersOffset = 0;
+        }
+    }
+
+    // STATIC METHOD: A dictionary as written by writeStrings, read at position[0]
+    private static String[] readStrings(ByteBuffer buffer, int[] position) {
+        String[] strings = new String[readVarint(buffer, position)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readVarint(buffer, position)];
+            buffer.get(position[0], bytes);
+            position[0] += bytes.length;
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    // STATIC METHOD: Read the block at the start of the buffer's remaining bytes
+    public static GradeBlock wrap(ByteBuffer buffer) {
+        ByteBuffer start = buffer.slice();
+        int length = start.getInt(32);
+        return new GradeBlock(start.slice(0, length));
+    }
+
+    // ==================== ENCODING ====================
+
+    // METHOD OVERLOADING: Encode Grade objects (at most MAX_GRADES) with their letter
+    // grades, keyed by the process-local Student.getId()
+    public static GradeBlock encode(Collection<Grade> grades) {
+        int n = grades.size();
+        int[] studentIds = new int[n];
+        String[] courses = new String[n];
+        double[] scores = new double[n];
+        String[] letters = new String[n];
+        int i = 0;
+        for (Grade grade : grades) {
+            studentIds[i] = grade.getStudent().getId();
+            courses[i] = grade.getCourse().getCourseCode();
+            scores[i] = grade.getScore();
+            letters[i] = grade.getLetterGrade();
+            i++;
+        }
+        return encode(studentIds, courses, scores, letters, n);
+    }
+
+    // METHOD OVERLOADING: Without letters; they are derived from the stored scores
+    public static GradeBlock encode(int[] studentIds, String[] courses, double[] scores, int n) {
+        return encode(studentIds, courses, scores, null, n);
+    }
+
+    /**
+     * Encode the first n entries of parallel arrays (n at most MAX_GRADES,
+     * student IDs not negative). The input order does not matter; the
+     * block is sorted by student ID and course. letters may be null.
+     */
+    public static GradeBlock encode(int[] studentIds, String[] courses, double[] scores,
+                                    String[] letters, int n) {
+        if (n > MAX_GRADES) {
+            throw new IllegalArgumentException("At most " + MAX_GRADES + " grades per block");
+        }
+
+        // Course dictionary, sorted so equal blocks encode identically
+        String[] dictionary = new TreeSet<>(Arrays.asList(courses).subList(0, n)).toArray(new String[0]);
+        HashMap<String, Integer> courseIndexes = new HashMap<>();
+        for (int c = 0; c < dictionary.length; c++) {
+            courseIndexes.put(dictionary[c], c);
+        }
+        if (dictionary.length > MAX_GRADES) {
+            throw new IllegalStateException("Too many courses");
+        }
+
+        // Sort by (student, course) by sorting packed keys: student | course | position
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            if (studentIds[i] < 0) {
+                throw new IllegalArgumentException("Negative student ID " + studentIds[i]);
+            }
+            order[i] = ((long) studentIds[i] << 32) | ((long) courseIndexes.get(courses[i]) << 16) | i;
+        }
+        Arrays.sort(order);
+
+        int scale = chooseScale(scores, n);
+        int width = (scale == 2) ? 1 : 2;
+
+        byte[][] dictionaryBytes = utf8(dictionary);
+        int dictionarySize = stringsSize(dictionaryBytes);
+
+        // Letter dictionary, sorted like the course dictionary
+        String[] letterDictionary = null;
+        byte[][] letterBytes = null;
+        HashMap<String, Integer> letterIndexes = new HashMap<>();
+        int lettersSize = 0;
+        if (letters != null) {
+            letterDictionary = new TreeSet<>(Arrays.asList(letters).subList(0, n)).toArray(new String[0]);
+            if (letterDictionary.length > 256) {
+                throw new IllegalStateException("Too many letter grades");
+            }
+            for (int l = 0; l < letterDictionary.length; l++) {
+                letterIndexes.put(letterDictionary[l], l);
+            }
+            letterBytes = utf8(letterDictionary);
+            lettersSize = stringsSize(letterBytes) + n;
+        }
+
+        int minStudent = (n == 0) ? 0 : (int) (order[0] >>> 32);
+        int maxStudent = (n == 0) ? 0 : (int) (order[n - 1] >>> 32);
+        int keySize = 0;
+        int previous = minStudent;
+        for (int i = 0; i < n; i++) {
+            int student = (int) (order[i] >>> 32);
+            keySize += varintSize(student - previous) + varintSize((int) (order[i] >>> 16) & 0xFFFF);
+            previous = student;
+        }
+
+        int length = HEADER_BYTES + dictionarySize + n * width + keySize + lettersSize;
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.position(HEADER_BYTES);
+        writeStrings(out, dictionaryBytes);
+
+        int minFixed = Integer.MAX_VALUE;
+        int maxFixed = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int fixed = toFixed(scores[(int) order[i] & 0xFFFF], scale);
+            minFixed = Math.min(minFixed, fixed);
+            maxFixed = Math.max(maxFixed, fixed);
+            if (width == 1) {
+                out.put((byte) fixed);
+            } else {
+                out.putShort((short) fixed);
+            }
+        }
+
+        previous = minStudent;
+        for (int i = 0; i < n; i++) {
+            int student = (int) (order[i] >>> 32);
+            writeVarint(out, student - previous);
+            writeVarint(out, (int) (order[i] >>> 16) & 0xFFFF);
+            previous = student;
+        }
+
+        if (letters != null) {
+            writeStrings(out, letterBytes);
+            for (int i = 0; i < n; i++) {
+                out.put((byte) (int) letterIndexes.get(letters[(int) order[i] & 0xFFFF]));
+            }
+        }
+
+        out.putInt(0, MAGIC);
+        out.put(4, (letters != null) ? VERSION_WITH_LETTERS : VERSION);
+        out.put(5, (byte) width);
+        out.putShort(6, (short) scale);
+        out.putInt(8, n);
+        out.putInt(12, minStudent);
+        out.putInt(16, maxStudent);
+        out.putShort(20, (short) ((n == 0) ? 0 : minFixed));
+        out.putShort(22, (short) ((n == 0) ? 0 : maxFixed));
+        out.putInt(24, dictionarySize);
+        out.putInt(28, keySize);
+        out.putInt(32, length);
+        return new GradeBlock(out.clear());
+    }
+
+    // STATIC METHOD: Split grades into blocks of up to gradesPerBlock, in (process-local)
+    // student ID order
+    public static List<GradeBlock> encodeAll(Collection<Grade> grades, int gradesPerBlock) {
+        List<Grade> sorted = new ArrayList<>(grades);
+        sorted.sort((a, b) -> Integer.compare(a.getStudent().getId(), b.getStudent().getId()));
+        List<GradeBlock> blocks = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += gradesPerBlock) {
+            blocks.add(encode(sorted.subList(from, Math.min(sorted.size(), from + gradesPerBlock))));
+        }
+        return blocks;
+    }
+
+    private static byte[][] utf8(String[] strings) {
+        byte[][] bytes = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            bytes[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static int stringsSize(byte[][] strings) {
+        int size = varintSize(strings.length);
+        for (byte[] bytes : strings) {
+            size += varintSize(bytes.length) + bytes.length;
+        }
+        return size;
+    }
+
+    private static void writeStrings(ByteBuffer out, byte[][] strings) {
+        writeVarint(out, strings.length);
+        for (byte[] bytes : strings) {
+            writeVarint(out, bytes.length);
+            out.put(bytes);
+        }
+    }
+
+    // STATIC METHOD: Smallest exact scale of 2 (halves) or 10 (tenths); else hundredths
+    private static int chooseScale(double[] scores, int n) {
+        int scale = 2;
+        for (int i = 0; i < n; i++) {
+            while (scale < 100 && !isExact(scores[i], scale)) {
+                scale = (scale == 2) ? 10 : 100;
+            }
+        }
+        return scale;
+    }
+
+    private static boolean isExact(double score, int scale) {
+        double scaled = score * scale;
+        return Math.abs(scaled - Math.rint(scaled)) < 1e-9;
+    }
+
+    private static double[] scoreTable(int scale) {
+        double[] table = new double[100 * scale + 1];
+        for (int fixed = 0; fixed < table.length; fixed++) {
+            table[fixed] = (double) fixed / scale;
+        }
+        return table;
+    }
+
+    private static int toFixed(double score, int scale) {
+        return (int) Math.round(Math.max(0, Math.min(100, score)) * scale);
+    }
+
+    // ==================== STATISTICS (NO DECODING) ====================
+
+    public int size() {
+        return count;
+    }
+
+    public int getEncodedBytes() {
+        return buffer.capacity();
+    }
+
+    public double getMinScore() {
+        return (double) minFixed / scale;
+    }
+
+    public double getMaxScore() {
+        return (double) maxFixed / scale;
+    }
+
+    public int getMinStudentId() {
+        return minStudentId;
+    }
+
+    public int getMaxStudentId() {
+        return maxStudentId;
+    }
+
+    // False when no score in the block can lie in [low, high]
+    public boolean mayContainScores(double low, double high) {
+        return count > 0 && high >= getMinScore() && low <= getMaxScore();
+    }
+
+    public boolean mayContainStudent(int studentId) {
+        return count > 0 && studentId >= minStudentId && studentId <= maxStudentId;
+    }
+
+    // The encoded block, read-only, for writing to a channel
+    public ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    // ==================== DECODING ====================
+
+    // Score of the i-th grade in (student, course) order
+    public double scoreAt(int i) {
+        return scores[fixedAt(i)];
+    }
+
+    // Letter grade of the i-th grade: as stored, or derived from the stored score
+    public String letterAt(int i) {
+        if (letterGrades == null) {
+            return Grade.calculateLetterGrade(scoreAt(i));
+        }
+        return letterGrades[buffer.get(lettersOffset + i) & 0xFF];
+    }
+
+    private int fixedAt(int i) {
+        return (width == 1) ? buffer.get(scoresOffset + i) & 0xFF : buffer.getShort(scoresOffset + 2 * i);
+    }
+
+    // Decode every score into out, starting at offset; returns the number decoded
+    public int decodeScores(double[] out, int offset) {
+        double[] table = scores;
+        ByteBuffer b = buffer;
+        int base = scoresOffset;
+        if (width == 1) {
+            for (int i = 0; i < count; i++) {
+                out[offset + i] = table[b.get(base + i) & 0xFF];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                out[offset + i] = table[b.getShort(base + 2 * i)];
+            }
+        }
+        return count;
+    }
+
+    // Sum of all scores, added up in fixed point
+    public double sumScores() {
+        long sum = 0;
+        ByteBuffer b = buffer;
+        int base = scoresOffset;
+        if (width == 1) {
+            for (int i = 0; i < count; i++) {
+                sum += b.get(base + i) & 0xFF;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                sum += b.getShort(base + 2 * i);
+            }
+        }
+        return (double) sum / scale;
+    }
+
+    // Number of scores in [low, high], answered from the statistics when possible
+    public int countScoresBetween(double low, double high) {
+        if (!mayContainScores(low, high)) {
+            return 0;
+        }
+        if (low <= getMinScore() && high >= getMaxScore()) {
+            return count;
+        }
+        int lowFixed = (int) Math.ceil(low * scale - 1e-9);
+        int highFixed = (int) Math.floor(high * scale + 1e-9);
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            int fixed = fixedAt(i);
+            if (fixed >= lowFixed && fixed <= highFixed) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    // Decode the keys: student IDs and indexes into the course dictionary (see courseCode)
+    public void decodeKeys(int[] studentIds, int[] courseIndexes) {
+        int[] position = {keysOffset};
+        int student = minStudentId;
+        for (int i = 0; i < count; i++) {
+            student += readVarint(buffer, position);
+            studentIds[i] = student;
+            courseIndexes[i] = readVarint(buffer, position);
+        }
+    }
+
+    // METHOD OVERLOADING: Without letter grades
+    public int studentGrades(int studentId, int[] courseIndexes, double[] scores) {
+        return studentGrades(studentId, courseIndexes, scores, null);
+    }
+
+    /**
+     * Decode the grades of one student into courseIndexes, scores and (if
+     * not null) letters, in course order, reading keys only up to that
+     * student. Returns how many the student has; if that is more than the
+     * arrays hold, only the first ones are filled.
+     */
+    public int studentGrades(int studentId, int[] courseIndexes, double[] scores, String[] letters) {
+        if (!mayContainStudent(studentId)) {
+            return 0;
+        }
+        // Resume at the last checkpoint whose preceding student is below this one
+        int[] checkpoints = keyCheckpoints();
+        int low = 0;
+        int high = checkpoints.length / 2 - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (checkpoints[2 * middle] < studentId) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        int[] position = {checkpoints[2 * low + 1]};
+        int student = checkpoints[2 * low];
+        int found = 0;
+        for (int i = low * KEY_CHECKPOINT; i < count && student <= studentId; i++) {
+            student += readVarint(buffer, position);
+            int courseIndex = readVarint(buffer, position);
+            if (student == studentId) {
+                if (found < courseIndexes.length) {
+                    courseIndexes[found] = courseIndex;
+                    scores[found] = scoreAt(i);
+                    if (letters != null) {
+                        letters[found] = letterAt(i);
+                    }
+                }
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private int[] keyCheckpoints() {
+        int[] checkpoints = keyCheckpoints;
+        if (checkpoints == null) {
+            checkpoints = new int[2 * Math.max(1, (count + KEY_CHECKPOINT - 1) / KEY_CHECKPOINT)];
+            checkpoints[0] = minStudentId;
+            checkpoints[1] = keysOffset;
+            int[] position = {keysOffset};
+            int student = minStudentId;
+            for (int i = 0; i < count; i++) {
+                if (i % KEY_CHECKPOINT == 0) {
+                    checkpoints[2 * (i / KEY_CHECKPOINT)] = student;
+                    checkpoints[2 * (i / KEY_CHECKPOINT) + 1] = position[0];
+                }
+                student += readVarint(buffer, position);
+                readVarint(buffer, position);
+            }
+            keyCheckpoints = checkpoints;
+        }
+        return checkpoints;
+    }
+
+    // Sum of scores and number of grades for one course, as {sum, count}
+    public double[] courseScoreTotals(String courseCode) {
+        int wanted = Arrays.binarySearch(courseCodes, courseCode);  // The dictionary is sorted
+        if (wanted < 0) {
+            return new double[] {0, 0};
+        }
+        int[] position = {keysOffset};
+        double sum = 0;
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            readVarint(buffer, position);
+            if (readVarint(buffer, position) == wanted) {
+                sum += scoreAt(i);
+                matches++;
+            }
+        }
+        return new double[] {sum, matches};
+    }
+
+    public int getCourseCount() {
+        return courseCodes.length;
+    }
+
+    public String courseCode(int courseIndex) {
+        return courseCodes[courseIndex];
+    }
+
+    // ==================== VARINTS ====================
+
+    // STATIC METHOD: Unsigned LEB128, 7 bits per byte, high bit = more bytes follow
+    private static void writeVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    // Reads at position[0] and advances it
+    private static int readVarint(ByteBuffer in, int[] position) {
+        int p = position[0];
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get(p++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                position[0] = p;
+                return value;
+            }
+        }
+    }
+
+    // ==================== ARCHIVE FILES ====================
+
+    // STATIC METHOD: Write blocks back to back into a file
+    public static void writeArchive(Path file, List<GradeBlock> blocks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (GradeBlock block : blocks) {
+                ByteBuffer bytes = block.getBuffer();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        }
+    }
+
+    // STATIC METHOD: Map an archive file read-only; blocks decode straight from the mapping
+    public static List<GradeBlock> readArchive(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<GradeBlock> blocks = new ArrayList<>();
+            while (mapped.hasRemaining()) {
+                GradeBlock block = wrap(mapped);
+                blocks.add(block);
+                mapped.position(mapped.position() + block.getEncodedBytes());
+            }
+            return blocks;
+        }
+    }
+
+    // ==================== BENCHMARK ====================
+
+    /**
+     * Encodes random grades and reports the size per grade and the decode
+     * speed.
+     *   java GradeBlock --grades=10000000 [--tenths]
+     */
+    public static void main(String[] args) {
+        int total = 10_000_000;
+        boolean tenths = false;
+        for (String arg : args) {
+            if (arg.startsWith("--grades=")) {
+                total = Integer.parseInt(arg.substring("--grades=".length()));
+            } else if (arg.equals("--tenths")) {
+                tenths = true;
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        Random random = new Random(42);
+        String[] codes = new String[400];
+        for (int c = 0; c < codes.length; c++) {
+            codes[c] = "C" + (100 + c);
+        }
+        List<GradeBlock> blocks = new ArrayList<>();
+        int[] ids = new int[DEFAULT_GRADES];
+        String[] courses = new String[DEFAULT_GRADES];
+        double[] scores = new double[DEFAULT_GRADES];
+        long bytes = 0;
+        int student = 1000;
+        for (int done = 0; done < total; done += DEFAULT_GRADES) {
+            int n = Math.min(DEFAULT_GRADES, total - done);
+            for (int i = 0; i < n; i++) {
+                student += (random.nextInt(4) == 0) ? 1 : 0;  // About 4 grades per student
+                ids[i] = student;
+                courses[i] = codes[random.nextInt(codes.length)];
+                double score = 40 + random.nextGaussian() * 10 + 30;
+                scores[i] = tenths ? Math.rint(score * 10) / 10 : Math.rint(score * 2) / 2;
+            }
+            GradeBlock block = encode(ids, courses, scores, n);
+            blocks.add(block);
+            bytes += block.getEncodedBytes();
+        }
+        System.out.printf("%,d grades in %,d blocks: %.2f bytes/grade (scores in %s)%n",
+                total, blocks.size(), (double) bytes / total, tenths ? "tenths" : "halves");
+
+        double[] decoded = new double[DEFAULT_GRADES];
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            double checksum = 0;
+            for (GradeBlock block : blocks) {
+                int n = block.decodeScores(decoded, 0);
+                checksum += decoded[n - 1];
+            }
+            long decodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double sum = 0;
+            for (GradeBlock block : blocks) {
+                sum += block.sumScores();
+            }
+            long sumNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long failing = 0;
+            for (GradeBlock block : blocks) {
+                failing += block.countScoresBetween(0, Grade.PASSING_SCORE - 0.01);
+            }
+            long countNanos = System.nanoTime() - start;
+
+            System.out.printf("decode %,.0f M scores/s   sum %,.0f M/s (avg %.2f)   count failing %,.0f M/s (%,d)  [%.0f]%n",
+                    total / (decodeNanos / 1e3), total / (sumNanos / 1e3), sum / total,
+                    total / (countNanos / 1e3), failing, checksum);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * GradeQuery.java
+ *
+ * Ad hoc queries over the grades of a Gradebook, for example
+ * "grades below 60 in Computer Science for 2024 enrollees":
+ *
+ *   List<Grade> grades = GradeQuery.on(gradebook)
+ *           .department("Computer Science")
+ *           .enrollmentYear(2024)
+ *           .scoreBelow(60)
+ *           .list();
+ *
+ * Conditions are combined with AND. The planner (see QueryPlan) reads the
+ * grades through the most selective index the conditions allow:
+ * - student     the student's grades
+ * - course      the course's grades
+ * - teacher     the grades of the teacher's courses
+ * - department  the grades of the courses taught in the department
+ * - score       the sorted ScoreIndex, if Gradebook.enableScoreIndex()
+ *               was called (score and passing conditions)
+ * Otherwise it scans all grades, in parallel when there are many and no
+ * EntityLoader is set. explain() shows the candidates and the choice.
+ * With an EntityLoader set, a scan only sees the grades loaded so far.
+ */
+public class GradeQuery {
+
+    private final Gradebook gradebook;
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<Predicate<Grade>> predicates = new ArrayList<>();
+
+    // Index hints recorded from the conditions
+    private Student student;
+    private Course course;
+    private Teacher teacher;
+    private String department;
+    private double lowScore = Double.NEGATIVE_INFINITY;
+    private boolean lowInclusive = true;
+    private double highScore = Double.POSITIVE_INFINITY;
+    private boolean highInclusive = true;
+
+    private GradeQuery(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
+    // STATIC METHOD: Start a query
+    public static GradeQuery on(Gradebook gradebook) {
+        return new GradeQuery(gradebook);
+    }
+
+    // ==================== CONDITIONS ====================
+
+    public GradeQuery student(Student student) {
+        this.student = student;
+        return where("student = " + student.getStudentNumber(), g -> g.getStudent() == student);
+    }
+
+    public GradeQuery course(Course course) {
+        this.course = course;
+        return where("course = " + course.getCourseCode(), g -> g.getCourse() == course);
+    }
+
+    public GradeQuery teacher(Teacher teacher) {
+        this.teacher = teacher;
+        return where("teacher = " + teacher.getId(), g -> g.getCourse().getTeacher() == teacher);
+    }
+
+    public GradeQuery department(String department) {
+        this.department = department;
+        int code = StringDictionary.DEPARTMENTS.codeOf(department);
+        return where("department = '" + department + "'", g -> {
+            Teacher t = g.getCourse().getTeacher();
+            return t != null && t.getDepartmentCode() == code;
+        });
+    }
+
+    public GradeQuery enrollmentYear(int year) {
+        return where("enrollmentYear = " + year, g -> g.getStudent().getEnrollmentYear() == year);
+    }
+
+    public GradeQuery scoreBelow(double limit) {
+        narrowHigh(limit, false);
+        return where("score < " + limit, g -> g.getScore() < limit);
+    }
+
+    public GradeQuery scoreAtLeast(double limit) {
+        narrowLow(limit, true);
+        return where("score >= " + limit, g -> g.getScore() >= limit);
+    }
+
+    // Inclusive at both ends
+    public GradeQuery scoreBetween(double low, double high) {
+        narrowLow(low, true);
+        narrowHigh(high, true);
+        return where("score BETWEEN " + low + " AND " + high,
+                     g -> g.getScore() >= low && g.getScore() <= high);
+    }
+
+    public GradeQuery letter(String letter) {
+        int code = StringDictionary.LETTER_GRADES.codeOf(letter);
+        return where("letter = '" + letter + "'", g -> g.getLetterCode() == code);
+    }
+
+    public GradeQuery passing(boolean passing) {
+        if (passing) {
+            narrowLow(Grade.PASSING_SCORE, true);
+        } else {
+            narrowHigh(Grade.PASSING_SCORE, false);
+        }
+        return where(passing ? "passing" : "failing", g -> g.isPassing() == passing);
+    }
+
+    // Keep the tightest score bounds seen, for the score index
+    private void narrowLow(double limit, boolean inclusive) {
+        if (limit > lowScore || (limit == lowScore && !inclusive)) {
+            lowScore = limit;
+            lowInclusive = inclusive;
+        }
+    }
+
+    private void narrowHigh(double limit, boolean inclusive) {
+        if (limit < highScore || (limit == highScore && !inclusive)) {
+            highScore = limit;
+            highInclusive = inclusive;
+        }
+    }
+
+    private GradeQuery where(String description, Predicate<Grade> predicate) {
+        descriptions.add(description);
+        predicates.add(predicate);
+        return this;
+    }
+
+    // ==================== EXECUTION ====================
+
+    public List<Grade> list() {
+        return plan().execute();
+    }
+
+    public int count() {
+        return list().size();
+    }
+
+    public String explain() {
+        return plan().explain();
+    }
+
+    // Package-private: build the plan from the current conditions
+    QueryPlan<Grade> plan() {
+        QueryPlan<Grade> plan = new QueryPlan<>("grades");
+        // Estimates only: grades are read (and loaded, with a loader) for the chosen candidate alone
+        if (student != null) {
+            Student s = student;
+            plan.addIndex("student " + s.getStudentNumber(), gradebook.estimateGradeCount(s),
+                          () -> gradebook.gradesOf(s));
+        }
+        if (course != null) {
+            Course c = course;
+            plan.addIndex("course " + c.getCourseCode(), gradebook.estimateGradeCount(c),
+                          () -> gradebook.gradesOf(c));
+        }
+        if (teacher != null) {
+            addCoursesIndex(plan, "teacher " + teacher.getId(), teacher.getTaughtCourses());
+        }
+        if (department != null) {
+            addCoursesIndex(plan, "department '" + department + "'",
+                            CourseQuery.coursesInDepartment(gradebook, department));
+        }
+        ScoreIndex scores = gradebook.getScoreIndex();
+        if (scores != null && (lowScore != Double.NEGATIVE_INFINITY || highScore != Double.POSITIVE_INFINITY)) {
+            double low = lowScore;
+            boolean lowIn = lowInclusive;
+            double high = highScore;
+            boolean highIn = highInclusive;
+            plan.addIndex("score " + (lowIn ? "[" : "(") + low + ", " + high + (highIn ? "]" : ")"),
+                          scores.countBetween(low, lowIn, high, highIn),
+                          () -> scores.inRange(low, lowIn, high, highIn));
+        }
+        plan.addScan(gradebook.getGrades().values(), gradebook.getEntityLoader() == null);
+        for (int i = 0; i < predicates.size(); i++) {
+            plan.addCondition(descriptions.get(i), predicates.get(i));
+        }
+        return plan;
+    }
+
+    // Grades of a set of courses, estimated by the size of each course's grade list
+    private void addCoursesIndex(QueryPlan<Grade> plan, String description, Collection<Course> courses) {
+        long estimate = 0;
+        for (Course c : courses) {
+            estimate += gradebook.estimateGradeCount(c);
+        }
+        plan.addIndex(description + " (" + courses.size() + " courses)", estimate, () -> {
+            List<Grade> rows = new ArrayList<>();
+            for (Course c : courses) {
+                rows.addAll(gradebook.gradesOf(c));
+            }
+            return rows;
+        });
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * GradeStats.java
+ *
+ * Running totals over a group of grades (a cohort, a course, a teacher...)
+ * that can be updated one grade at a time: count, score sum, grade point
+ * sum, passing count and the letter grade distribution. Averages and rates
+ * are derived on read, so every update is O(1).
+ *
+ * Letters and grade points are derived from the score with
+ * Grade.calculateLetterGrade(), so that a grade can be taken out again
+ * knowing only its old score.
+ */
+public class GradeStats {
+
+    // STATIC VARIABLE: Letters in distribution order
+    public static final String[] LETTERS = {"A", "B", "C", "D", "F"};
+
+    private int count;
+    private double scoreSum;
+    private double pointsSum;
+    private int passing;
+    private final int[] letterCounts = new int[LETTERS.length];
+
+    // Add (sign = 1) or remove (sign = -1) one grade with the given score
+    void apply(double score, int sign) {
+        String letter = Grade.calculateLetterGrade(score);
+        count += sign;
+        scoreSum += sign * score;
+        pointsSum += sign * Grade.letterToGradePoints(letter);
+        if (score >= Grade.PASSING_SCORE) {
+            passing += sign;
+        }
+        letterCounts[letterIndex(letter)] += sign;
+    }
+
+    // Add (sign = 1) or remove (sign = -1) every grade counted in another GradeStats
+    void merge(GradeStats other, int sign) {
+        count += sign * other.count;
+        scoreSum += sign * other.scoreSum;
+        pointsSum += sign * other.pointsSum;
+        passing += sign * other.passing;
+        for (int i = 0; i < letterCounts.length; i++) {
+            letterCounts[i] += sign * other.letterCounts[i];
+        }
+    }
+
+    void add(double score) {
+        apply(score, 1);
+    }
+
+    void remove(double score) {
+        apply(score, -1);
+    }
+
+    // STATIC METHOD: Position of a letter in LETTERS (anything else counts as F)
+    private static int letterIndex(String letter) {
+        switch (letter) {
+            case "A": return 0;
+            case "B": return 1;
+            case "C": return 2;
+            case "D": return 3;
+            default: return 4;
+        }
+    }
+
+    // ==================== DERIVED VALUES ====================
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getAverageScore() {
+        return (count == 0) ? 0 : scoreSum / count;
+    }
+
+    // Mean grade points over the grades, as Gradebook.calculateStudentGPA does per student
+    public double getGpa() {
+        return (count == 0) ? 0 : pointsSum / count;
+    }
+
+    public double getPassRate() {
+        return (count == 0) ? 0 : (double) passing / count;
+    }
+
+    public int getPassingCount() {
+        return passing;
+    }
+
+    public int getLetterCount(String letter) {
+        return letterCounts[letterIndex(letter)];
+    }
+
+    // Counts in LETTERS order (a copy)
+    public int[] getLetterDistribution() {
+        return letterCounts.clone();
+    }
+}
@@ -1,5 +1,17 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Gradebook.java
@@ -12,6 +24,16 @@ import java.util.HashMap;
  * - Encapsulation: Private collections with public methods to access them
  * - Static members: Singleton pattern for single gradebook instance
  * - Generics: Generic method for searching (optional bonus)
+ *
+ * Locking: every change that other threads may see - adding or removing
+ * an entity or a grade, loading from the entity loader, delivering a
+ * listener event - is made while holding the gradebook's lock. The write
+ * methods take it themselves; code that reads several things that must
+ * agree (a listener-maintained view, a batch of changes) synchronizes on
+ * the gradebook too. The one exception is a score update
+ * (updateGrade): it compare-and-sets only its own Grade, so graders of
+ * different grades never wait for each other, and its event is queued and
+ * delivered under the lock by whichever grader gets there first.
  */
 public class Gradebook {
     
@@ -24,12 +46,104 @@ public class Gradebook {
     // This allows quick lookup of a specific student's grade in a specific course
     private HashMap<String, Grade> grades;
     
+    // INDEXES: Position of each entity in its list, so it can be removed
+    // without searching, and the grades of each student and course, so that
+    // per-student and per-course work never scans the whole grade map
+    private HashMap<Integer, Integer> studentPositions;
+    private HashMap<Integer, Integer> teacherPositions;
+    private HashMap<String, Integer> coursePositions;
+    private HashMap<Integer, LinkedHashMap<String, Grade>> gradesByStudent;
+    private HashMap<String, LinkedHashMap<Integer, Grade>> gradesByCourse;
+    
+    // LISTENERS: Told about every grade change (see GradebookListener).
+    // Copy-on-write, since listeners are added rarely and notified often.
+    private CopyOnWriteArrayList<GradebookListener> listeners;
+    
+    // Score updates made without the gradebook lock, waiting to be delivered
+    // to the listeners in the order they were made (see setScore)
+    private ConcurrentLinkedQueue<PendingUpdate> pendingUpdates;
+    private AtomicBoolean delivering;
+    private ScoreIndex scoreIndex;  // null until enableScoreIndex()
+    
+    // READ-ONLY VIEWS: Created once and handed out by the getters below.
+    // They share storage with the collections above, so reading them costs
+    // no copy, but any attempt to modify them throws an exception.
+    private List<Student> studentsView;
+    private List<Teacher> teachersView;
+    private List<Course> coursesView;
+    private Map<String, Grade> gradesView;
+    
+    // LAZY LOADING: Optional backing storage. When set, entities that are not
+    // in memory yet are fetched on lookup, and stored grades are merged into
+    // the grades map the first time a student's or course's grades are used.
+    private EntityLoader loader;
+    // Concurrent sets, so graders can check them without the lock
+    private Set<Integer> studentsWithGradesLoaded;
+    private Set<String> coursesWithGradesLoaded;
+    
     // STATIC VARIABLE: Single instance of Gradebook (Singleton pattern)
     private static Gradebook instance = null;
     
+    // STATIC VARIABLE: Returned by the versioned updateGrade() when there is no grade to update
+    public static final long NO_GRADE = -2;
+    
     // STATIC VARIABLE: Name of the school
     private static String schoolName = "OOP University";
     
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer ADD_STUDENT_TIMER =
+            OperationMetrics.timer("Gradebook.addStudent");
+    private static final OperationTimer FIND_STUDENT_BY_ID_TIMER =
+            OperationMetrics.timer("Gradebook.findStudentById");
+    private static final OperationTimer FIND_STUDENT_BY_NUMBER_TIMER =
+            OperationMetrics.timer("Gradebook.findStudentByNumber");
+    private static final OperationTimer LIST_ALL_STUDENTS_TIMER =
+            OperationMetrics.timer("Gradebook.listAllStudents");
+    private static final OperationTimer ADD_TEACHER_TIMER =
+            OperationMetrics.timer("Gradebook.addTeacher");
+    private static final OperationTimer FIND_TEACHER_BY_ID_TIMER =
+            OperationMetrics.timer("Gradebook.findTeacherById");
+    private static final OperationTimer LIST_ALL_TEACHERS_TIMER =
+            OperationMetrics.timer("Gradebook.listAllTeachers");
+    private static final OperationTimer ADD_COURSE_TIMER =
+            OperationMetrics.timer("Gradebook.addCourse");
+    private static final OperationTimer FIND_COURSE_BY_CODE_TIMER =
+            OperationMetrics.timer("Gradebook.findCourseByCode");
+    private static final OperationTimer LIST_ALL_COURSES_TIMER =
+            OperationMetrics.timer("Gradebook.listAllCourses");
+    private static final OperationTimer ADD_GRADE_TIMER =
+            OperationMetrics.timer("Gradebook.addGrade");
+    private static final OperationTimer UPDATE_GRADE_TIMER =
+            OperationMetrics.timer("Gradebook.updateGrade");
+    private static final OperationTimer UPDATE_GRADE_VERSIONED_TIMER =
+            OperationMetrics.timer("Gradebook.updateGradeVersioned");
+    private static final OperationTimer GET_GRADE_TIMER =
+            OperationMetrics.timer("Gradebook.getGrade");
+    private static final OperationTimer DISPLAY_STUDENT_GRADES_TIMER =
+            OperationMetrics.timer("Gradebook.displayStudentGrades");
+    private static final OperationTimer DISPLAY_COURSE_GRADES_TIMER =
+            OperationMetrics.timer("Gradebook.displayCourseGrades");
+    private static final OperationTimer CALCULATE_COURSE_AVERAGE_TIMER =
+            OperationMetrics.timer("Gradebook.calculateCourseAverage");
+    private static final OperationTimer CALCULATE_COURSE_SCORE_TOTALS_TIMER =
+            OperationMetrics.timer("Gradebook.calculateCourseScoreTotals");
+    private static final OperationTimer CALCULATE_STUDENT_GPA_TIMER =
+            OperationMetrics.timer("Gradebook.calculateStudentGPA");
+    private static final OperationTimer CALCULATE_STUDENT_GRADE_POINTS_TIMER =
+            OperationMetrics.timer("Gradebook.calculateStudentGradePoints");
+    private static final OperationTimer DISPLAY_USER_INFO_TIMER =
+            OperationMetrics.timer("Gradebook.displayUserInfo");
+    private static final OperationTimer FIND_BY_NAME_TIMER =
+            OperationMetrics.timer("Gradebook.findByName");
+    private static final OperationTimer REMOVE_STUDENT_TIMER =
+            OperationMetrics.timer("Gradebook.removeStudent");
+    private static final OperationTimer REMOVE_TEACHER_TIMER =
+            OperationMetrics.timer("Gradebook.removeTeacher");
+    private static final OperationTimer REMOVE_COURSE_TIMER =
+            OperationMetrics.timer("Gradebook.removeCourse");
+    private static final OperationTimer REMOVE_GRADE_TIMER =
+            OperationMetrics.timer("Gradebook.removeGrade");
+    
     /**
      * Private constructor for Singleton pattern
      * Ensures only one Gradebook instance exists
@@ -39,6 +153,20 @@ public class Gradebook {
         teachers = new ArrayList<>();
         courses = new ArrayList<>();
         grades = new HashMap<>();
+        studentPositions = new HashMap<>();
+        teacherPositions = new HashMap<>();
+        coursePositions = new HashMap<>();
+        gradesByStudent = new HashMap<>();
+        gradesByCourse = new HashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+        pendingUpdates = new ConcurrentLinkedQueue<>();
+        delivering = new AtomicBoolean();
+        studentsView = Collections.unmodifiableList(students);
+        teachersView = Collections.unmodifiableList(teachers);
+        coursesView = Collections.unmodifiableList(courses);
+        gradesView = Collections.unmodifiableMap(grades);
+        studentsWithGradesLoaded = ConcurrentHashMap.newKeySet();
+        coursesWithGradesLoaded = ConcurrentHashMap.newKeySet();
     }
     
     // STATIC METHOD: Get the single instance of Gradebook
@@ -49,6 +177,12 @@ public class Gradebook {
         return instance;
     }
     
+    // STATIC METHOD: Create an independent Gradebook used as one partition
+    // of a PartitionedGradebook. It shares nothing with getInstance().
+    public static Gradebook createPartition() {
+        return new Gradebook();
+    }
+    
     // STATIC METHOD: Get school name
     public static String getSchoolName() {
         return schoolName;
@@ -62,241 +196,904 @@ public class Gradebook {
     // ==================== STUDENT MANAGEMENT ====================
     
     // Add a new student
-    public void addStudent(Student student) {
-        students.add(student);
-        System.out.println("Student " + student.getName() + " added successfully.");
+    public synchronized void addStudent(Student student) {
+        long start = ADD_STUDENT_TIMER.start();
+        try {
+            registerStudent(student);
+            System.out.println("Student " + student.getName() + " added successfully.");
+        } finally {
+            ADD_STUDENT_TIMER.stop(start);
+        }
     }
     
     // Find student by ID
     public Student findStudentById(int id) {
-        for (Student student : students) {
-            if (student.getId() == id) {
-                return student;
-            }
+        long start = FIND_STUDENT_BY_ID_TIMER.start();
+        GradebookEvents.Lookup event = new GradebookEvents.Lookup();
+        event.begin();
+        try {
+            Integer position = studentPositions.get(id);
+            GradebookEvents.lookup(event, "findStudentById", String.valueOf(id), 1, position != null);
+            return (position == null) ? null : students.get(position);
+        } finally {
+            FIND_STUDENT_BY_ID_TIMER.stop(start);
         }
-        return null;
     }
     
     // Find student by student number
     public Student findStudentByNumber(String studentNumber) {
-        for (Student student : students) {
-            if (student.getStudentNumber().equals(studentNumber)) {
-                return student;
+        long start = FIND_STUDENT_BY_NUMBER_TIMER.start();
+        GradebookEvents.Lookup event = new GradebookEvents.Lookup();
+        event.begin();
+        try {
+            Student found = null;
+            int scanned = 0;
+            for (Student student : students) {
+                scanned++;
+                if (student.getStudentNumber().equals(studentNumber)) {
+                    found = student;
+                    break;
+                }
+            }
+            if (found == null) {
+                found = loadStudent(studentNumber);
             }
+            GradebookEvents.lookup(event, "findStudentByNumber", studentNumber, scanned, found != null);
+            return found;
+        } finally {
+            FIND_STUDENT_BY_NUMBER_TIMER.stop(start);
         }
-        return null;
     }
     
     // List all students
     public void listAllStudents() {
-        System.out.println("\n========== ALL STUDENTS ==========");
-        if (students.isEmpty()) {
-            System.out.println("No students registered.");
-        } else {
-            for (int i = 0; i < students.size(); i++) {
-                Student s = students.get(i);
-                System.out.println((i + 1) + ". " + s.getName() + 
-                                   " (" + s.getStudentNumber() + ")");
+        long start = LIST_ALL_STUDENTS_TIMER.start();
+        try {
+            System.out.println("\n========== ALL STUDENTS ==========");
+            if (students.isEmpty()) {
+                System.out.println("No students registered.");
+            } else {
+                for (int i = 0; i < students.size(); i++) {
+                    Student s = students.get(i);
+                    System.out.println((i + 1) + ". " + s.getName() + 
+                                       " (" + s.getStudentNumber() + ")");
+                }
             }
+            System.out.println("===================================\n");
+        } finally {
+            LIST_ALL_STUDENTS_TIMER.stop(start);
         }
-        System.out.println("===================================\n");
     }
     
     // ==================== TEACHER MANAGEMENT ====================
     
     // Add a new teacher
-    public void addTeacher(Teacher teacher) {
-        teachers.add(teacher);
-        System.out.println("Teacher " + teacher.getName() + " added successfully.");
+    public synchronized void addTeacher(Teacher teacher) {
+        long start = ADD_TEACHER_TIMER.start();
+        try {
+            registerTeacher(teacher);
+            System.out.println("Teacher " + teacher.getName() + " added successfully.");
+        } finally {
+            ADD_TEACHER_TIMER.stop(start);
+        }
     }
     
     // Find teacher by ID
     public Teacher findTeacherById(int id) {
-        for (Teacher teacher : teachers) {
-            if (teacher.getId() == id) {
-                return teacher;
-            }
+        long start = FIND_TEACHER_BY_ID_TIMER.start();
+        try {
+            Integer position = teacherPositions.get(id);
+            return (position == null) ? loadTeacher(id) : teachers.get(position);
+        } finally {
+            FIND_TEACHER_BY_ID_TIMER.stop(start);
         }
-        return null;
     }
     
     // List all teachers
     public void listAllTeachers() {
-        System.out.println("\n========== ALL TEACHERS ==========");
-        if (teachers.isEmpty()) {
-            System.out.println("No teachers registered.");
-        } else {
-            for (int i = 0; i < teachers.size(); i++) {
-                Teacher t = teachers.get(i);
-                System.out.println((i + 1) + ". " + t.getTitle() + " " + 
-                                   t.getName() + " (" + t.getDepartment() + ")" + " " + "Teacher ID:" + t.getId() + " " + "Teaching: " + t.getTaughtCourses().size() + " courses");
+        long start = LIST_ALL_TEACHERS_TIMER.start();
+        try {
+            System.out.println("\n========== ALL TEACHERS ==========");
+            if (teachers.isEmpty()) {
+                System.out.println("No teachers registered.");
+            } else {
+                for (int i = 0; i < teachers.size(); i++) {
+                    Teacher t = teachers.get(i);
+                    System.out.println((i + 1) + ". " + t.getTitle() + " " + 
+                                       t.getName() + " (" + t.getDepartment() + ")" + " " + "Teacher ID:" + t.getId() + " " + "Teaching: " + t.getTaughtCourses().size() + " courses");
+                }
             }
+            System.out.println("===================================\n");
+        } finally {
+            LIST_ALL_TEACHERS_TIMER.stop(start);
         }
-        System.out.println("===================================\n");
     }
     
     // ==================== COURSE MANAGEMENT ====================
     
     // Add a new course
-    public void addCourse(Course course) {
-        courses.add(course);
-        System.out.println("Course " + course.getCourseName() + " added successfully.");
+    public synchronized void addCourse(Course course) {
+        long start = ADD_COURSE_TIMER.start();
+        try {
+            registerCourse(course);
+            System.out.println("Course " + course.getCourseName() + " added successfully.");
+        } finally {
+            ADD_COURSE_TIMER.stop(start);
+        }
     }
     
     // Find course by code
     public Course findCourseByCode(String courseCode) {
-        for (Course course : courses) {
-            if (course.getCourseCode().equals(courseCode)) {
-                return course;
-            }
+        long start = FIND_COURSE_BY_CODE_TIMER.start();
+        GradebookEvents.Lookup event = new GradebookEvents.Lookup();
+        event.begin();
+        try {
+            Integer position = coursePositions.get(courseCode);
+            Course found = (position == null) ? loadCourse(courseCode) : courses.get(position);
+            GradebookEvents.lookup(event, "findCourseByCode", courseCode, 1, found != null);
+            return found;
+        } finally {
+            FIND_COURSE_BY_CODE_TIMER.stop(start);
         }
-        return null;
     }
     
     // List all courses
     public void listAllCourses() {
-        System.out.println("\n========== ALL COURSES ==========");
-        if (courses.isEmpty()) {
-            System.out.println("No courses available.");
-        } else {
-            for (int i = 0; i < courses.size(); i++) {
-                Course c = courses.get(i);
-                String teacherName = (c.getTeacher() != null) ? 
-                                     c.getTeacher().getName() : "Not assigned";
-                System.out.println((i + 1) + ". " + c.getCourseCode() + " - " + 
-                                   c.getCourseName() + " (Teacher: " + teacherName + ")");
+        long start = LIST_ALL_COURSES_TIMER.start();
+        try {
+            System.out.println("\n========== ALL COURSES ==========");
+            if (courses.isEmpty()) {
+                System.out.println("No courses available.");
+            } else {
+                for (int i = 0; i < courses.size(); i++) {
+                    Course c = courses.get(i);
+                    String teacherName = (c.getTeacher() != null) ? 
+                                         c.getTeacher().getName() : "Not assigned";
+                    System.out.println((i + 1) + ". " + c.getCourseCode() + " - " + 
+                                       c.getCourseName() + " (Teacher: " + teacherName + ")");
+                }
             }
+            System.out.println("==================================\n");
+        } finally {
+            LIST_ALL_COURSES_TIMER.stop(start);
         }
-        System.out.println("==================================\n");
     }
     
     // ==================== GRADE MANAGEMENT ====================
     
     // Add a grade for a student in a course
-    public void addGrade(Student student, Course course, double score) {
-        // Check if student is enrolled in the course
-        if (!course.getEnrolledStudents().contains(student)) {
-            System.out.println("Error: Student is not enrolled in this course.");
-            return;
-        }
+    public synchronized void addGrade(Student student, Course course, double score) {
+        long start = ADD_GRADE_TIMER.start();
+        GradebookEvents.GradeWrite event = new GradebookEvents.GradeWrite();
+        event.begin();
+        try {
+            loadGrades(student);
+            loadGrades(course);
+            // Check if student is enrolled in the course
+            int rosterSize = course.getEnrolledStudents().size();
+            if (!course.getEnrolledStudents().contains(student)) {
+                System.out.println("Error: Student is not enrolled in this course.");
+                GradebookEvents.gradeWrite(event, "add", student, course, score, "not enrolled", rosterSize);
+                return;
+            }
         
-        // Create unique key for HashMap
-        String key = student.getId() + "_" + course.getCourseCode();
+            // Create unique key for HashMap
+            String key = gradeKey(student, course);
         
-        // Check if grade already exists
-        if (grades.containsKey(key)) {
-            System.out.println("Grade already exists. Use updateGrade() to modify.");
-            return;
-        }
+            // Check if grade already exists
+            if (grades.containsKey(key)) {
+                System.out.println("Grade already exists. Use updateGrade() to modify.");
+                GradebookEvents.gradeWrite(event, "add", student, course, score, "exists", rosterSize);
+                return;
+            }
         
-        // Create and store the grade
-        Grade grade = new Grade(student, course, score);
-        grades.put(key, grade);
-        System.out.println("Grade added: " + student.getName() + " received " + 
-                           grade.getLetterGrade() + " (" + score + ") in " + 
-                           course.getCourseName());
+            // Create and store the grade
+            Grade grade = new Grade(student, course, score);
+            storeGrade(grade);
+            System.out.println("Grade added: " + student.getName() + " received " + 
+                               grade.getLetterGrade() + " (" + score + ") in " + 
+                               course.getCourseName());
+            GradebookEvents.gradeWrite(event, "add", student, course, score, "ok", rosterSize);
+        } finally {
+            ADD_GRADE_TIMER.stop(start);
+        }
     }
     
     // Update an existing grade
     public void updateGrade(Student student, Course course, double newScore) {
-        String key = student.getId() + "_" + course.getCourseCode();
+        long start = UPDATE_GRADE_TIMER.start();
+        GradebookEvents.GradeWrite event = new GradebookEvents.GradeWrite();
+        event.begin();
+        try {
+            loadGrades(student);
+            String key = gradeKey(student, course);
         
-        if (grades.containsKey(key)) {
             Grade grade = grades.get(key);
+            if (grade != null) {
+                double oldScore;
+                long newVersion;
+                do {
+                    long version = grade.getVersion();
+                    oldScore = grade.getScore();
+                    newVersion = setScore(grade, version, oldScore, newScore);
+                } while (newVersion == Grade.CONFLICT);
+                System.out.println("Grade updated: " + student.getName() + "'s grade in " + 
+                                   course.getCourseName() + " changed from " + oldScore + 
+                                   " to " + newScore);
+                GradebookEvents.gradeWrite(event, "update", student, course, newScore, "ok", 0);
+            } else {
+                System.out.println("No existing grade found. Use addGrade() first.");
+                GradebookEvents.gradeWrite(event, "update", student, course, newScore, "missing", 0);
+            }
+        } finally {
+            UPDATE_GRADE_TIMER.stop(start);
+        }
+    }
+    
+    /**
+     * Optimistic update: change the grade only if it is still at the version
+     * the caller read (Grade.getVersion()). Returns the new version,
+     * Grade.CONFLICT if someone else changed the grade first, or NO_GRADE.
+     * Only the one Grade is compare-and-set, so graders of different grades
+     * never wait for each other, with or without listeners (see setScore).
+     */
+    public long updateGrade(Student student, Course course, long expectedVersion, double newScore) {
+        long start = UPDATE_GRADE_VERSIONED_TIMER.start();
+        GradebookEvents.GradeWrite event = new GradebookEvents.GradeWrite();
+        event.begin();
+        try {
+            loadGrades(student);
+            Grade grade = grades.get(gradeKey(student, course));
+            if (grade == null) {
+                System.out.println("No existing grade found. Use addGrade() first.");
+                GradebookEvents.gradeWrite(event, "updateVersioned", student, course, newScore, "missing", 0);
+                return NO_GRADE;
+            }
+            // Versions only grow, so a score read between two matching
+            // version checks belongs to that version
+            if (grade.getVersion() != expectedVersion) {
+                GradebookEvents.gradeWrite(event, "updateVersioned", student, course, newScore, "conflict", 0);
+                return Grade.CONFLICT;
+            }
             double oldScore = grade.getScore();
-            grade.setScore(newScore);
-            System.out.println("Grade updated: " + student.getName() + "'s grade in " + 
-                               course.getCourseName() + " changed from " + oldScore + 
-                               " to " + newScore);
-        } else {
-            System.out.println("No existing grade found. Use addGrade() first.");
+            long newVersion = setScore(grade, expectedVersion, oldScore, newScore);
+            GradebookEvents.gradeWrite(event, "updateVersioned", student, course, newScore,
+                                       (newVersion == Grade.CONFLICT) ? "conflict" : "ok", 0);
+            return newVersion;
+        } finally {
+            UPDATE_GRADE_VERSIONED_TIMER.stop(start);
+        }
+    }
+    
+    /**
+     * Compare-and-set a grade's score and report the change. The change and
+     * queueing its event happen under the lock of the one Grade, so the
+     * events of each grade are queued in version order, with the score each
+     * update installed. The queue is then delivered under the gradebook lock
+     * by one grader at a time; the others leave their event to it and return
+     * at once, so graders never wait for each other, only the delivering one
+     * for the gradebook lock.
+     */
+    private long setScore(Grade grade, long expectedVersion, double oldScore, double newScore) {
+        if (listeners.isEmpty()) {
+            return grade.compareAndSetScore(expectedVersion, newScore);
+        }
+        long newVersion;
+        synchronized (grade) {
+            newVersion = grade.compareAndSetScore(expectedVersion, newScore);
+            if (newVersion != Grade.CONFLICT) {
+                pendingUpdates.add(new PendingUpdate(grade, oldScore, Grade.validScore(newScore)));
+            }
+        }
+        // Re-check after letting go, or an update queued meanwhile could wait
+        while (!pendingUpdates.isEmpty() && delivering.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    deliverPendingUpdates();
+                }
+            } finally {
+                delivering.set(false);
+            }
+        }
+        return newVersion;
+    }
+    
+    // A score update waiting to be delivered to the listeners
+    private static final class PendingUpdate {
+        final Grade grade;
+        final double oldScore;
+        final double newScore;
+        
+        PendingUpdate(Grade grade, double oldScore, double newScore) {
+            this.grade = grade;
+            this.oldScore = oldScore;
+            this.newScore = newScore;
+        }
+    }
+    
+    // Deliver the queued score updates; the caller holds the gradebook lock.
+    // An update that lost the race with the removal of its grade is dropped,
+    // since the listeners were already told the grade is gone.
+    private void deliverPendingUpdates() {
+        PendingUpdate update;
+        while ((update = pendingUpdates.poll()) != null) {
+            Grade grade = update.grade;
+            if (grades.get(gradeKey(grade.getStudent(), grade.getCourse())) != grade) {
+                continue;
+            }
+            for (GradebookListener listener : listeners) {
+                listener.gradeUpdated(grade, update.oldScore, update.newScore);
+            }
+        }
+    }
+    
+    // Deliver one event to every listener under the gradebook lock, after
+    // any score updates still queued, so listeners see changes in order
+    private void fire(Consumer<GradebookListener> event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            deliverPendingUpdates();
+            for (GradebookListener listener : listeners) {
+                event.accept(listener);
+            }
         }
     }
     
     // Get a specific grade
     public Grade getGrade(Student student, Course course) {
-        String key = student.getId() + "_" + course.getCourseCode();
-        return grades.get(key);
+        long start = GET_GRADE_TIMER.start();
+        GradebookEvents.Lookup event = new GradebookEvents.Lookup();
+        event.begin();
+        try {
+            loadGrades(student);
+            String key = gradeKey(student, course);
+            Grade grade = grades.get(key);
+            GradebookEvents.lookup(event, "getGrade", key, 1, grade != null);
+            return grade;
+        } finally {
+            GET_GRADE_TIMER.stop(start);
+        }
     }
     
     // Display all grades for a student
     public void displayStudentGrades(Student student) {
-        System.out.println("\n========== GRADES FOR " + student.getName().toUpperCase() + " ==========");
+        long start = DISPLAY_STUDENT_GRADES_TIMER.start();
+        try {
+            System.out.print(renderStudentGrades(student));
+        } finally {
+            DISPLAY_STUDENT_GRADES_TIMER.stop(start);
+        }
+    }
+    
+    // The text printed by displayStudentGrades()
+    public String renderStudentGrades(Student student) {
+        GradebookEvents.Report event = new GradebookEvents.Report();
+        event.begin();
+        loadGrades(student);
+        StringBuilder text = new StringBuilder();
+        text.append("\n========== GRADES FOR ").append(student.getName().toUpperCase()).append(" ==========\n");
         boolean hasGrades = false;
         
-        for (Grade grade : grades.values()) {
-            if (grade.getStudent().getId() == student.getId()) {
-                grade.displayGrade();
-                hasGrades = true;
-            }
+        int rows = 0;
+        for (Grade grade : studentGrades(student)) {
+            text.append(grade.formatGrade()).append('\n');
+            hasGrades = true;
+            rows++;
         }
         
         if (!hasGrades) {
-            System.out.println("No grades recorded for this student.");
+            text.append("No grades recorded for this student.\n");
         }
-        System.out.println("================================================\n");
+        text.append("================================================\n\n");
+        GradebookEvents.report(event, "student", student.getStudentNumber(), rows, text.length());
+        return text.toString();
     }
     
     // Display all grades for a course
     public void displayCourseGrades(Course course) {
-        System.out.println("\n========== GRADES FOR " + course.getCourseName().toUpperCase() + " ==========");
+        long start = DISPLAY_COURSE_GRADES_TIMER.start();
+        try {
+            System.out.print(renderCourseGrades(course));
+        } finally {
+            DISPLAY_COURSE_GRADES_TIMER.stop(start);
+        }
+    }
+    
+    // The text printed by displayCourseGrades()
+    public String renderCourseGrades(Course course) {
+        GradebookEvents.Report event = new GradebookEvents.Report();
+        event.begin();
+        loadGrades(course);
+        StringBuilder text = new StringBuilder();
+        text.append("\n========== GRADES FOR ").append(course.getCourseName().toUpperCase()).append(" ==========\n");
         boolean hasGrades = false;
         
-        for (Grade grade : grades.values()) {
-            if (grade.getCourse().getCourseCode().equals(course.getCourseCode())) {
-                grade.displayGrade();
-                hasGrades = true;
-            }
+        int rows = 0;
+        for (Grade grade : courseGrades(course)) {
+            text.append(grade.formatGrade()).append('\n');
+            hasGrades = true;
+            rows++;
         }
         
         if (!hasGrades) {
-            System.out.println("No grades recorded for this course.");
+            text.append("No grades recorded for this course.\n");
         }
-        System.out.println("==================================================\n");
+        text.append("==================================================\n\n");
+        GradebookEvents.report(event, "course", course.getCourseCode(), rows, text.length());
+        return text.toString();
     }
     
     // Calculate average grade for a course
     public double calculateCourseAverage(Course course) {
-        double total = 0;
-        int count = 0;
+        long start = CALCULATE_COURSE_AVERAGE_TIMER.start();
+        try {
+            double[] totals = calculateCourseScoreTotals(course);
+            if (totals[1] == 0) {
+                return 0;
+            }
+            return totals[0] / totals[1];
+        } finally {
+            CALCULATE_COURSE_AVERAGE_TIMER.stop(start);
+        }
+    }
+    
+    // Sum of scores and number of grades for a course, as {sum, count}
+    public double[] calculateCourseScoreTotals(Course course) {
+        long start = CALCULATE_COURSE_SCORE_TOTALS_TIMER.start();
+        GradebookEvents.Aggregate event = new GradebookEvents.Aggregate();
+        event.begin();
+        try {
+            loadGrades(course);
+            double total = 0;
+            int count = 0;
         
-        for (Grade grade : grades.values()) {
-            if (grade.getCourse().getCourseCode().equals(course.getCourseCode())) {
+            for (Grade grade : courseGrades(course)) {
                 total += grade.getScore();
                 count++;
             }
+            GradebookEvents.aggregate(event, "courseScoreTotals", course.getCourseCode(), count);
+            return new double[] {total, count};
+        } finally {
+            CALCULATE_COURSE_SCORE_TOTALS_TIMER.stop(start);
         }
-        
-        if (count == 0) {
-            return 0;
-        }
-        return total / count;
     }
     
     // Calculate GPA for a student
     public double calculateStudentGPA(Student student) {
-        double totalPoints = 0;
-        int count = 0;
+        long start = CALCULATE_STUDENT_GPA_TIMER.start();
+        try {
+            double[] totals = calculateStudentGradePoints(student);
+            if (totals[1] == 0) {
+                return 0;
+            }
+            return totals[0] / totals[1];
+        } finally {
+            CALCULATE_STUDENT_GPA_TIMER.stop(start);
+        }
+    }
+    
+    // Sum of grade points and number of grades for a student, as {points, count}.
+    // Kept separate from the GPA so partial results from several
+    // partitions can be added up before dividing.
+    public double[] calculateStudentGradePoints(Student student) {
+        long start = CALCULATE_STUDENT_GRADE_POINTS_TIMER.start();
+        GradebookEvents.Aggregate event = new GradebookEvents.Aggregate();
+        event.begin();
+        try {
+            loadGrades(student);
+            double totalPoints = 0;
+            int count = 0;
         
-        for (Grade grade : grades.values()) {
-            if (grade.getStudent().getId() == student.getId()) {
-                // Convert letter grade to GPA points
-                String letter = grade.getLetterGrade();
-                switch (letter) {
-                    case "A": totalPoints += 4.0; break;
-                    case "B": totalPoints += 3.0; break;
-                    case "C": totalPoints += 2.0; break;
-                    case "D": totalPoints += 1.0; break;
-                    case "F": totalPoints += 0.0; break;
-                }
+            for (Grade grade : studentGrades(student)) {
+                totalPoints += grade.getGradePoints();
                 count++;
             }
+            GradebookEvents.aggregate(event, "studentGradePoints", student.getStudentNumber(), count);
+            return new double[] {totalPoints, count};
+        } finally {
+            CALCULATE_STUDENT_GRADE_POINTS_TIMER.stop(start);
         }
-        
-        if (count == 0) {
-            return 0;
+    }
+    
+    // ==================== REMOVAL ====================
+    // Every removal cascades to the entity's own links only: its enrollments,
+    // teaching assignments and grades are reached through the entity itself
+    // and the grade indexes, so the cost does not grow with the school size.
+    
+    // Remove a student, dropping all enrollments and grades
+    public synchronized boolean removeStudent(Student student) {
+        long start = REMOVE_STUDENT_TIMER.start();
+        try {
+            if (!studentPositions.containsKey(student.getId())) {
+                System.out.println("Student " + student.getName() + " is not registered.");
+                return false;
+            }
+            loadGrades(student);
+            for (Course course : new ArrayList<>(student.getEnrolledCourses())) {
+                course.removeStudent(student);  // Also removes the grade in that course
+            }
+            // Grades left over for courses the student is no longer enrolled in
+            LinkedHashMap<String, Grade> remaining = gradesByStudent.get(student.getId());
+            if (remaining != null) {
+                for (Grade grade : new ArrayList<>(remaining.values())) {
+                    unstoreGrade(grade);
+                }
+            }
+            swapRemove(students, studentPositions, student.getId(), Student::getId);
+            studentsWithGradesLoaded.remove(student.getId());
+            fire(listener -> listener.studentRemoved(student));
+            System.out.println("Student " + student.getName() + " removed.");
+            return true;
+        } finally {
+            REMOVE_STUDENT_TIMER.stop(start);
+        }
+    }
+    
+    // Remove a teacher, leaving their courses without a teacher
+    public synchronized boolean removeTeacher(Teacher teacher) {
+        long start = REMOVE_TEACHER_TIMER.start();
+        try {
+            if (!teacherPositions.containsKey(teacher.getId())) {
+                System.out.println("Teacher " + teacher.getName() + " is not registered.");
+                return false;
+            }
+            for (Course course : new ArrayList<>(teacher.getTaughtCourses())) {
+                teacher.removeCourse(course);  // Also unassigns the course
+            }
+            swapRemove(teachers, teacherPositions, teacher.getId(), Teacher::getId);
+            fire(listener -> listener.teacherRemoved(teacher));
+            System.out.println("Teacher " + teacher.getName() + " removed.");
+            return true;
+        } finally {
+            REMOVE_TEACHER_TIMER.stop(start);
+        }
+    }
+    
+    // Remove a course, unenrolling its students and deleting its grades
+    public synchronized boolean removeCourse(Course course) {
+        long start = REMOVE_COURSE_TIMER.start();
+        try {
+            if (!coursePositions.containsKey(course.getCourseCode())) {
+                System.out.println("Course " + course.getCourseName() + " is not registered.");
+                return false;
+            }
+            loadGrades(course);
+            for (Student student : new ArrayList<>(course.getEnrolledStudents())) {
+                course.removeStudent(student);  // Also removes the student's grade
+            }
+            LinkedHashMap<Integer, Grade> remaining = gradesByCourse.get(course.getCourseCode());
+            if (remaining != null) {
+                for (Grade grade : new ArrayList<>(remaining.values())) {
+                    unstoreGrade(grade);
+                }
+            }
+            Teacher teacher = course.getTeacher();
+            if (teacher != null) {
+                teacher.removeCourse(course);  // Also unassigns the course
+            }
+            swapRemove(courses, coursePositions, course.getCourseCode(), Course::getCourseCode);
+            coursesWithGradesLoaded.remove(course.getCourseCode());
+            fire(listener -> listener.courseRemoved(course));
+            course.setGradebook(null);
+            System.out.println("Course " + course.getCourseName() + " removed.");
+            return true;
+        } finally {
+            REMOVE_COURSE_TIMER.stop(start);
+        }
+    }
+    
+    // Remove one grade; returns the removed grade or null if there was none
+    public synchronized Grade removeGrade(Student student, Course course) {
+        long start = REMOVE_GRADE_TIMER.start();
+        GradebookEvents.GradeWrite event = new GradebookEvents.GradeWrite();
+        event.begin();
+        try {
+            loadGrades(student);
+            Grade grade = grades.get(gradeKey(student, course));
+            if (grade != null) {
+                unstoreGrade(grade);
+                System.out.println("Grade removed: " + student.getName() + " in " + course.getCourseName());
+            }
+            GradebookEvents.gradeWrite(event, "remove", student, course,
+                                       (grade == null) ? 0 : grade.getScore(), (grade == null) ? "missing" : "ok", 0);
+            return grade;
+        } finally {
+            REMOVE_GRADE_TIMER.stop(start);
+        }
+    }
+    
+    // ==================== INDEX MAINTENANCE ====================
+    
+    private void registerStudent(Student student) {
+        studentPositions.put(student.getId(), students.size());
+        students.add(student);
+        fire(listener -> listener.studentAdded(student));
+    }
+    
+    private void registerTeacher(Teacher teacher) {
+        teacherPositions.put(teacher.getId(), teachers.size());
+        teachers.add(teacher);
+        fire(listener -> listener.teacherAdded(teacher));
+    }
+    
+    private void registerCourse(Course course) {
+        coursePositions.put(course.getCourseCode(), courses.size());
+        courses.add(course);
+        course.setGradebook(this);
+        fire(listener -> listener.courseAdded(course));
+    }
+    
+    // Remove an element in O(1) by moving the last element into its slot.
+    // The relative order of the remaining elements changes slightly.
+    private static <K, T> void swapRemove(ArrayList<T> list, HashMap<K, Integer> positions,
+                                          K key, Function<T, K> keyOf) {
+        int position = positions.remove(key);
+        T last = list.remove(list.size() - 1);
+        if (position < list.size()) {
+            list.set(position, last);
+            positions.put(keyOf.apply(last), position);
         }
-        return totalPoints / count;
+    }
+    
+    // Add a grade to the map and both indexes (ignored if the key is taken)
+    private void storeGrade(Grade grade) {
+        storeGrade(grade, true);
+    }
+    
+    // METHOD OVERLOADING: Store a grade, telling listeners only if asked to.
+    // Under the grade's lock, no grader can update it before gradeAdded.
+    private synchronized void storeGrade(Grade grade, boolean report) {
+        Student student = grade.getStudent();
+        Course course = grade.getCourse();
+        synchronized (grade) {
+            if (grades.putIfAbsent(gradeKey(student, course), grade) == null) {
+                gradesByStudent.computeIfAbsent(student.getId(), id -> new LinkedHashMap<>())
+                               .put(course.getCourseCode(), grade);
+                gradesByCourse.computeIfAbsent(course.getCourseCode(), code -> new LinkedHashMap<>())
+                              .put(student.getId(), grade);
+                if (report) {
+                    fire(listener -> listener.gradeAdded(grade));
+                }
+            }
+        }
+    }
+    
+    // Remove a grade from the map and both indexes. Under the grade's lock no
+    // grader can change it, so once the queued updates are delivered the
+    // listeners hold its current score, which gradeRemoved reports.
+    private synchronized void unstoreGrade(Grade grade) {
+        Student student = grade.getStudent();
+        Course course = grade.getCourse();
+        synchronized (grade) {
+            deliverPendingUpdates();
+            if (grades.remove(gradeKey(student, course)) == null) {
+                return;
+            }
+            LinkedHashMap<String, Grade> byStudent = gradesByStudent.get(student.getId());
+            if (byStudent != null) {
+                byStudent.remove(course.getCourseCode());
+                if (byStudent.isEmpty()) {
+                    gradesByStudent.remove(student.getId());
+                }
+            }
+            LinkedHashMap<Integer, Grade> byCourse = gradesByCourse.get(course.getCourseCode());
+            if (byCourse != null) {
+                byCourse.remove(student.getId());
+                if (byCourse.isEmpty()) {
+                    gradesByCourse.remove(course.getCourseCode());
+                }
+            }
+            fire(listener -> listener.gradeRemoved(grade));
+        }
+    }
+    
+    // All grades of a student, from the index
+    private Collection<Grade> studentGrades(Student student) {
+        LinkedHashMap<String, Grade> byStudent = gradesByStudent.get(student.getId());
+        return (byStudent == null) ? Collections.emptyList() : byStudent.values();
+    }
+    
+    // All grades of a course, from the index
+    private Collection<Grade> courseGrades(Course course) {
+        LinkedHashMap<Integer, Grade> byCourse = gradesByCourse.get(course.getCourseCode());
+        return (byCourse == null) ? Collections.emptyList() : byCourse.values();
+    }
+    
+    // METHOD OVERLOADING: Number of grades without loading any, for query planning.
+    // Exact once the grades are loaded (or without a loader); otherwise the
+    // number of enrolled courses, an upper bound since grades need an enrollment.
+    int estimateGradeCount(Student student) {
+        if (loader == null || studentsWithGradesLoaded.contains(student.getId())) {
+            return studentGrades(student).size();
+        }
+        return student.getEnrolledCourses().size();
+    }
+    
+    int estimateGradeCount(Course course) {
+        if (loader == null || coursesWithGradesLoaded.contains(course.getCourseCode())) {
+            return courseGrades(course).size();
+        }
+        return course.getEnrolledStudents().size();
+    }
+    
+    // ==================== LISTENERS AND SECONDARY INDEXES ====================
+    
+    public void addListener(GradebookListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(GradebookListener listener) {
+        listeners.remove(listener);
+    }
+    
+    // Build the sorted score index (and at-risk set) over the current grades
+    // and keep it up to date from then on. Calling it again returns the same index.
+    public synchronized ScoreIndex enableScoreIndex() {
+        if (scoreIndex == null) {
+            scoreIndex = new ScoreIndex(grades.values());
+            listeners.add(scoreIndex);
+        }
+        return scoreIndex;
+    }
+    
+    // The score index, or null if it was never enabled
+    public ScoreIndex getScoreIndex() {
+        return scoreIndex;
+    }
+    
+    // Package-private: called by Course when its roster changes
+    void fireStudentEnrolled(Student student, Course course) {
+        fire(listener -> listener.studentEnrolled(student, course));
+    }
+    
+    void fireStudentUnenrolled(Student student, Course course) {
+        fire(listener -> listener.studentUnenrolled(student, course));
+    }
+    
+    void fireRosterLoaded(Course course) {
+        fire(listener -> listener.rosterLoaded(course));
+    }
+    
+    void fireCourseTeacherChanged(Course course, Teacher oldTeacher, Teacher newTeacher) {
+        fire(listener -> listener.courseTeacherChanged(course, oldTeacher, newTeacher));
+    }
+    
+    // ==================== QUERY SUPPORT ====================
+    // Package-private index access for GradeQuery, CourseQuery and StudentQuery.
+    // The collections are live read-only views; do not change the gradebook
+    // while iterating them.
+    
+    Collection<Grade> gradesOf(Student student) {
+        loadGrades(student);
+        return Collections.unmodifiableCollection(studentGrades(student));
+    }
+    
+    Collection<Grade> gradesOf(Course course) {
+        loadGrades(course);
+        return Collections.unmodifiableCollection(courseGrades(course));
+    }
+    
+    // STATIC METHOD: HashMap key for a student's grade in a course
+    private static String gradeKey(Student student, Course course) {
+        return student.getId() + "_" + course.getCourseCode();
+    }
+    
+    // ==================== LAZY LOADING ====================
+    
+    // Use the given backing storage for entities that are not in memory yet
+    public void setEntityLoader(EntityLoader loader) {
+        this.loader = loader;
+        if (loader != null) {
+            loader.setGradebook(this);
+        }
+    }
+    
+    public EntityLoader getEntityLoader() {
+        return loader;
+    }
+    
+    // Fetch a student stub from the loader and remember it
+    private synchronized Student loadStudent(String studentNumber) {
+        Student student = (loader != null) ? loader.loadStudent(studentNumber) : null;
+        if (student != null) {
+            registerLoaded(student);
+        }
+        return student;
+    }
+    
+    private synchronized Teacher loadTeacher(int id) {
+        Teacher teacher = (loader != null) ? loader.loadTeacher(id) : null;
+        if (teacher != null) {
+            registerLoaded(teacher);
+        }
+        return teacher;
+    }
+    
+    private synchronized Course loadCourse(String courseCode) {
+        Course course = (loader != null) ? loader.loadCourse(courseCode) : null;
+        if (course != null) {
+            registerLoaded(course);
+        }
+        return course;
+    }
+    
+    // Package-private: register a stub created by the loader, unless it
+    // already is (the loader registers stubs it reaches through relationships)
+    synchronized void registerLoaded(Student student) {
+        if (!studentPositions.containsKey(student.getId())) {
+            registerStudent(student);
+        }
+    }
+    
+    synchronized void registerLoaded(Teacher teacher) {
+        if (!teacherPositions.containsKey(teacher.getId())) {
+            registerTeacher(teacher);
+        }
+    }
+    
+    synchronized void registerLoaded(Course course) {
+        if (!coursePositions.containsKey(course.getCourseCode())) {
+            registerCourse(course);
+        }
+    }
+    
+    // METHOD OVERLOADING: Merge the stored grades of a student (once)
+    private void loadGrades(Student student) {
+        if (loader == null || studentsWithGradesLoaded.contains(student.getId())) {
+            return;
+        }
+        synchronized (this) {
+            if (studentsWithGradesLoaded.add(student.getId())) {
+                for (Grade grade : loader.loadGrades(student)) {
+                    storeGrade(grade, !loader.wasReleased(grade));
+                }
+            }
+        }
+    }
+    
+    // METHOD OVERLOADING: Merge the stored grades of a course (once)
+    private void loadGrades(Course course) {
+        if (loader == null || coursesWithGradesLoaded.contains(course.getCourseCode())) {
+            return;
+        }
+        synchronized (this) {
+            if (coursesWithGradesLoaded.add(course.getCourseCode())) {
+                for (Grade grade : loader.loadGrades(course)) {
+                    storeGrade(grade, !loader.wasReleased(grade));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drop every grade held in memory; they are loaded from the loader
+     * again the next time they are used. Only for a loader that takes them
+     * back (EntityLoader.releaseGrades()), such as OffHeapGradeStore, since
+     * changes are not saved here. Listeners are not told (the grades still
+     * exist), and the loader remembers each released grade, so it is not
+     * reported through gradeAdded() a second time when it is loaded again
+     * and rollups and views keep their counts. The score index holds the
+     * Grade objects themselves, so it cannot be used with it.
+     */
+    public synchronized void releaseGrades() {
+        if (loader == null) {
+            throw new IllegalStateException("Grades can only be released to an entity loader");
+        }
+        if (scoreIndex != null) {
+            throw new IllegalStateException("The score index keeps every grade in memory");
+        }
+        // Every grade in memory has been reported to the listeners
+        deliverPendingUpdates();
+        if (!loader.releaseGrades(grades.values())) {
+            throw new IllegalStateException("The entity loader cannot take grades back");
+        }
+        grades.clear();
+        gradesByStudent.clear();
+        gradesByCourse.clear();
+        studentsWithGradesLoaded.clear();
+        coursesWithGradesLoaded.clear();
     }
     
     // ==================== POLYMORPHISM DEMONSTRATION ====================
@@ -304,46 +1101,74 @@ public class Gradebook {
     // RUNTIME POLYMORPHISM: This method accepts any User type
     // The correct displayInfo() method is called based on actual object type
     public void displayUserInfo(User user) {
-        System.out.println("\nDisplaying info using polymorphism:");
-        System.out.println("User role: " + user.getRole());
-        user.displayInfo();  // Calls the overridden method based on object type
+        long start = DISPLAY_USER_INFO_TIMER.start();
+        try {
+            System.out.println("\nDisplaying info using polymorphism:");
+            System.out.println("User role: " + user.getRole());
+            user.displayInfo();  // Calls the overridden method based on object type
+        } finally {
+            DISPLAY_USER_INFO_TIMER.stop(start);
+        }
     }
     
     // ==================== GENERIC METHOD (OPTIONAL BONUS) ====================
     
     /**
-     * GENERICS: Generic method to search in any ArrayList
+     * GENERICS: Generic method to search in any collection of users
      * This demonstrates type-safe operations with generics
      * 
      * @param <T> The type of elements in the list (must extend User)
-     * @param list The ArrayList to search in
+     * @param list The collection to search in (e.g. the read-only getStudents() view)
      * @param name The name to search for
      * @return The found element or null
      */
-    public <T extends User> T findByName(ArrayList<T> list, String name) {
-        for (T item : list) {
-            if (item.getName().equalsIgnoreCase(name)) {
-                return item;
+    public <T extends User> T findByName(Collection<T> list, String name) {
+        long start = FIND_BY_NAME_TIMER.start();
+        try {
+            for (T item : list) {
+                if (item.getName().equalsIgnoreCase(name)) {
+                    return item;
+                }
             }
+            return null;
+        } finally {
+            FIND_BY_NAME_TIMER.stop(start);
         }
-        return null;
     }
     
     // Getter methods for collections
-    public ArrayList<Student> getStudents() {
-        return students;
+    // These return read-only views: no copy is made, and callers cannot
+    // add or remove elements behind the Gradebook's back.
+    // With an EntityLoader set, they hold only what has been loaded so far.
+    public List<Student> getStudents() {
+        return studentsView;
     }
     
-    public ArrayList<Teacher> getTeachers() {
-        return teachers;
+    public List<Teacher> getTeachers() {
+        return teachersView;
+    }
+    
+    public List<Course> getCourses() {
+        return coursesView;
+    }
+    
+    public Map<String, Grade> getGrades() {
+        return gradesView;
+    }
+    
+    // ==================== PAGINATION ====================
+    
+    // Page through students without copying, e.g. for large listings
+    public PageCursor<Student> studentPages(int pageSize) {
+        return new PageCursor<>(studentsView, pageSize);
     }
     
-    public ArrayList<Course> getCourses() {
-        return courses;
+    public PageCursor<Teacher> teacherPages(int pageSize) {
+        return new PageCursor<>(teachersView, pageSize);
     }
     
-    public HashMap<String, Grade> getGrades() {
-        return grades;
+    public PageCursor<Course> coursePages(int pageSize) {
+        return new PageCursor<>(coursesView, pageSize);
     }
 }
 
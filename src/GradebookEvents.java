@@ -0,0 +1,200 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * GradebookEvents.java
+ *
+ * Java Flight Recorder events for the Gradebook operations whose latency
+ * depends on the data: lookups, enrollments, grade writes, aggregates and
+ * report rendering. Each event carries what the operation worked on (course
+ * code, student number) and how much it had to look at (rows scanned,
+ * roster size), so that a latency spike in a recording can be tied to a
+ * specific course or an unexpectedly long scan.
+ *
+ * Typical use inside an instrumented method:
+ *   GradebookEvents.Lookup event = new GradebookEvents.Lookup();
+ *   event.begin();
+ *   ... do the work, counting rows ...
+ *   GradebookEvents.lookup(event, "findStudentByNumber", number, rows, found);
+ *
+ * The commit helpers check shouldCommit() before filling in any field, so
+ * with recording off (or under the event's threshold) the cost is the
+ * begin() timestamp, and the JIT removes the event object altogether.
+ *
+ * Recording with the shipped profile, then summarizing:
+ *   java -XX:StartFlightRecording=settings=gradebook.jfc,filename=gradebook.jfr Main
+ *   java JfrSummary gradebook.jfr
+ */
+public final class GradebookEvents {
+
+    // Utility class - no instances
+    private GradebookEvents() {
+    }
+
+    // ==================== EVENT TYPES ====================
+
+    @Name("gradebook.Lookup")
+    @Label("Gradebook Lookup")
+    @Category("Gradebook")
+    @Description("Finding a student, course or grade")
+    @Threshold("50 us")
+    @StackTrace(false)
+    public static final class Lookup extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Key")
+        String key;
+
+        @Label("Rows Scanned")
+        int rowsScanned;
+
+        @Label("Found")
+        boolean found;
+    }
+
+    @Name("gradebook.Enrollment")
+    @Label("Gradebook Enrollment")
+    @Category("Gradebook")
+    @Description("Enrolling a student in a course or removing them from it")
+    @StackTrace(false)
+    public static final class Enrollment extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Course Code")
+        String courseCode;
+
+        @Label("Student Number")
+        String studentNumber;
+
+        @Label("Roster Size")
+        @Description("Students on the roster before the change")
+        int rosterSize;
+
+        @Label("Changed")
+        boolean changed;
+    }
+
+    @Name("gradebook.GradeWrite")
+    @Label("Gradebook Grade Write")
+    @Category("Gradebook")
+    @Description("Adding, updating or removing a grade")
+    public static final class GradeWrite extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Course Code")
+        String courseCode;
+
+        @Label("Student Number")
+        String studentNumber;
+
+        @Label("Score")
+        double score;
+
+        @Label("Outcome")
+        @Description("ok, or why nothing was written (missing, exists, not enrolled, conflict)")
+        String outcome;
+
+        @Label("Roster Size")
+        @Description("Students on the course roster; 0 when the roster was not consulted")
+        int rosterSize;
+    }
+
+    @Name("gradebook.Aggregate")
+    @Label("Gradebook Aggregate")
+    @Category("Gradebook")
+    @Description("Course score totals or student grade points")
+    @StackTrace(false)
+    public static final class Aggregate extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Key")
+        String key;
+
+        @Label("Rows Scanned")
+        int rowsScanned;
+    }
+
+    @Name("gradebook.Report")
+    @Label("Gradebook Report")
+    @Category("Gradebook")
+    @Description("Rendering a student or course grade report")
+    @StackTrace(false)
+    public static final class Report extends Event {
+        @Label("Report")
+        String report;
+
+        @Label("Key")
+        String key;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Characters")
+        int characters;
+    }
+
+    // ==================== COMMIT HELPERS ====================
+
+    static void lookup(Lookup event, String operation, String key, int rowsScanned, boolean found) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.key = key;
+            event.rowsScanned = rowsScanned;
+            event.found = found;
+            event.commit();
+        }
+    }
+
+    static void enrollment(Enrollment event, String operation, Course course, Student student,
+                           int rosterSize, boolean changed) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.courseCode = course.getCourseCode();
+            event.studentNumber = student.getStudentNumber();
+            event.rosterSize = rosterSize;
+            event.changed = changed;
+            event.commit();
+        }
+    }
+
+    static void gradeWrite(GradeWrite event, String operation, Student student, Course course,
+                           double score, String outcome, int rosterSize) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.studentNumber = student.getStudentNumber();
+            event.courseCode = course.getCourseCode();
+            event.score = score;
+            event.outcome = outcome;
+            event.rosterSize = rosterSize;
+            event.commit();
+        }
+    }
+
+    static void aggregate(Aggregate event, String operation, String key, int rowsScanned) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.key = key;
+            event.rowsScanned = rowsScanned;
+            event.commit();
+        }
+    }
+
+    static void report(Report event, String report, String key, int rows, int characters) {
+        if (event.shouldCommit()) {
+            event.report = report;
+            event.key = key;
+            event.rows = rows;
+            event.characters = characters;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,470 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * GradebookExporter.java
+ *
+ * Streams students, teachers, courses, enrollments and grades to files or
+ * any WritableByteChannel, as CSV or JSON.
+ *
+ * Rows are encoded (UTF-8, numbers written digit by digit) into a reusable
+ * byte[] staging area. When it fills up it is copied in one bulk put into
+ * a reusable direct ByteBuffer and written to the channel, so the channel
+ * never needs a temporary copy of its own. No String or byte[] is created
+ * per row, and memory use is the size of the two buffers whatever the size
+ * of the export.
+ *
+ * CSV files use the same columns as CsvEntityStore, so an exported
+ * directory can be opened again as an EntityLoader:
+ *
+ *   students.csv     id,studentNumber,name,email,enrollmentYear
+ *   teachers.csv     id,name,email,department,title
+ *   courses.csv      courseCode,courseName,credits,teacherId
+ *   enrollments.csv  studentNumber,courseCode
+ *   grades.csv       studentNumber,courseCode,score
+ *
+ * JSON files hold an array with one object per line, using the same names
+ * as keys.
+ *
+ * CSV fields containing a comma, a quote or a line break are quoted, so a
+ * record may span several lines; CsvEntityStore reads it back as one.
+ *
+ * An exporter is not thread-safe; use one per thread.
+ */
+public class GradebookExporter {
+
+    public enum Format {
+        CSV("csv"), JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // STATIC VARIABLES: Column names of each file
+    private static final String[] STUDENT_COLUMNS = {"id", "studentNumber", "name", "email", "enrollmentYear"};
+    private static final String[] TEACHER_COLUMNS = {"id", "name", "email", "department", "title"};
+    private static final String[] COURSE_COLUMNS = {"courseCode", "courseName", "credits", "teacherId"};
+    private static final String[] ENROLLMENT_COLUMNS = {"studentNumber", "courseCode"};
+    private static final String[] GRADE_COLUMNS = {"studentNumber", "courseCode", "score"};
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+
+    // Smallest buffer: every single write must fit in the staging area, and the
+    // longest is a score in Double.toString form (up to 25 bytes)
+    public static final int MIN_BUFFER_SIZE = 32;
+
+    private final Format format;
+    private final ByteBuffer buffer;
+    private final byte[] staging;
+    private int pos;
+    private final byte[] digits = new byte[20];
+
+    // State of the file being written
+    private WritableByteChannel channel;
+    private byte[][] jsonKeys;
+    private boolean firstRow;
+    private long bytesWritten;
+
+    public GradebookExporter(Format format) {
+        this(format, DEFAULT_BUFFER_SIZE);
+    }
+
+    public GradebookExporter(Format format, int bufferSize) {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + ": " + bufferSize);
+        }
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.staging = new byte[bufferSize];
+    }
+
+    // ==================== WHOLE GRADEBOOK ====================
+
+    /**
+     * Write every file of the gradebook into a directory, replacing
+     * existing files. Returns the number of rows written. With an
+     * EntityLoader set, only what has been loaded so far is written.
+     */
+    public long exportAll(Gradebook gradebook, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        long rows = 0;
+        try (FileChannel out = open(directory, "students")) {
+            rows += exportStudents(gradebook.getStudents(), out);
+        }
+        try (FileChannel out = open(directory, "teachers")) {
+            rows += exportTeachers(gradebook.getTeachers(), out);
+        }
+        try (FileChannel out = open(directory, "courses")) {
+            rows += exportCourses(gradebook.getCourses(), out);
+        }
+        try (FileChannel out = open(directory, "enrollments")) {
+            rows += exportEnrollments(gradebook.getCourses(), out);
+        }
+        try (FileChannel out = open(directory, "grades")) {
+            rows += exportGrades(gradebook.getGrades().values(), out);
+        }
+        return rows;
+    }
+
+    private FileChannel open(Path directory, String name) throws IOException {
+        return FileChannel.open(directory.resolve(name + "." + format.getExtension()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // ==================== SINGLE FILES ====================
+    // Each method writes one complete file to the channel and returns the row count.
+    // The channel is left open.
+
+    public long exportStudents(Collection<Student> students, WritableByteChannel out) throws IOException {
+        begin(out, STUDENT_COLUMNS);
+        for (Student student : students) {
+            beginRow();
+            putNumber(0, student.getId());
+            putText(1, student.getStudentNumber());
+            putText(2, student.getName());
+            putText(3, student.getEmail());
+            putNumber(4, student.getEnrollmentYear());
+            endRow();
+        }
+        return end(students.size());
+    }
+
+    public long exportTeachers(Collection<Teacher> teachers, WritableByteChannel out) throws IOException {
+        begin(out, TEACHER_COLUMNS);
+        for (Teacher teacher : teachers) {
+            beginRow();
+            putNumber(0, teacher.getId());
+            putText(1, teacher.getName());
+            putText(2, teacher.getEmail());
+            putText(3, teacher.getDepartment());
+            putText(4, teacher.getTitle());
+            endRow();
+        }
+        return end(teachers.size());
+    }
+
+    public long exportCourses(Collection<Course> courses, WritableByteChannel out) throws IOException {
+        begin(out, COURSE_COLUMNS);
+        for (Course course : courses) {
+            beginRow();
+            putText(0, course.getCourseCode());
+            putText(1, course.getCourseName());
+            putNumber(2, course.getCredits());
+            Teacher teacher = course.getTeacher();
+            if (teacher == null) {
+                putNull(3);
+            } else {
+                putNumber(3, teacher.getId());
+            }
+            endRow();
+        }
+        return end(courses.size());
+    }
+
+    // One row per student on each course's roster
+    public long exportEnrollments(Collection<Course> courses, WritableByteChannel out) throws IOException {
+        begin(out, ENROLLMENT_COLUMNS);
+        long rows = 0;
+        for (Course course : courses) {
+            for (Student student : course.getEnrolledStudents()) {
+                beginRow();
+                putText(0, student.getStudentNumber());
+                putText(1, course.getCourseCode());
+                endRow();
+                rows++;
+            }
+        }
+        return end(rows);
+    }
+
+    public long exportGrades(Collection<Grade> grades, WritableByteChannel out) throws IOException {
+        begin(out, GRADE_COLUMNS);
+        for (Grade grade : grades) {
+            beginRow();
+            putText(0, grade.getStudent().getStudentNumber());
+            putText(1, grade.getCourse().getCourseCode());
+            putScore(2, grade.getScore());
+            endRow();
+        }
+        return end(grades.size());
+    }
+
+    // Total bytes handed to channels by this exporter
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    // ==================== FILE AND ROW FRAMING ====================
+
+    private void begin(WritableByteChannel out, String[] columns) throws IOException {
+        channel = out;
+        pos = 0;
+        firstRow = true;
+        if (format == Format.CSV) {
+            for (int i = 0; i < columns.length; i++) {
+                putText(i, columns[i]);
+            }
+            putByte((byte) '\n');
+        } else {
+            jsonKeys = new byte[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                jsonKeys[i] = ("\"" + columns[i] + "\":").getBytes(StandardCharsets.UTF_8);
+            }
+            putByte((byte) '[');
+        }
+    }
+
+    private long end(long rows) throws IOException {
+        if (format == Format.JSON) {
+            putByte((byte) '\n');
+            putByte((byte) ']');
+            putByte((byte) '\n');
+        }
+        flush();
+        channel = null;
+        return rows;
+    }
+
+    private void beginRow() throws IOException {
+        if (format == Format.JSON) {
+            ensure(3);
+            if (!firstRow) {
+                staging[pos++] = (byte) ',';
+            }
+            staging[pos++] = (byte) '\n';
+            staging[pos++] = (byte) '{';
+        }
+        firstRow = false;
+    }
+
+    private void endRow() throws IOException {
+        putByte((byte) (format == Format.CSV ? '\n' : '}'));
+    }
+
+    // Separator and (for JSON) key before the value of a column
+    private void beginField(int column) throws IOException {
+        if (format == Format.CSV) {
+            if (column > 0) {
+                putByte((byte) ',');
+            }
+        } else {
+            byte[] key = jsonKeys[column];
+            ensure(key.length + 1);
+            if (column > 0) {
+                staging[pos++] = (byte) ',';
+            }
+            System.arraycopy(key, 0, staging, pos, key.length);
+            pos += key.length;
+        }
+    }
+
+    // ==================== VALUE ENCODING ====================
+
+    private void putNull(int column) throws IOException {
+        beginField(column);
+        if (format == Format.JSON) {
+            ensure(4);
+            staging[pos++] = 'n';
+            staging[pos++] = 'u';
+            staging[pos++] = 'l';
+            staging[pos++] = 'l';
+        }
+    }
+
+    private void putText(int column, String value) throws IOException {
+        if (value == null) {
+            putNull(column);
+            return;
+        }
+        beginField(column);
+        ensure(value.length() + 2);
+        if (putPlainText(value)) {
+            return;
+        }
+        boolean quote = (format == Format.JSON) || needsCsvQuotes(value);
+        if (quote) {
+            putByte((byte) '"');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (staging.length - pos < 6) {
+                flush();
+            }
+            char c = value.charAt(i);
+            if (c == '"') {
+                staging[pos++] = (format == Format.CSV) ? (byte) '"' : (byte) '\\';
+                staging[pos++] = (byte) '"';
+            } else if (format == Format.JSON && (c == '\\' || c < 0x20)) {
+                putJsonEscape(c);
+            } else if (c < 0x80) {
+                staging[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                staging[pos++] = (byte) (0xC0 | (c >> 6));
+                staging[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                staging[pos++] = (byte) (0xF0 | (cp >> 18));
+                staging[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                staging[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                staging[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                staging[pos++] = (byte) (0xE0 | (c >> 12));
+                staging[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                staging[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (quote) {
+            putByte((byte) '"');
+        }
+    }
+
+    // Fast path for the common case of printable ASCII that needs no escaping:
+    // one pass, one bounds check. Returns false, having written nothing, if
+    // the value needs the general path (or does not fit in the staging area).
+    private boolean putPlainText(String value) {
+        int length = value.length();
+        if (staging.length - pos < length + 2) {
+            return false;
+        }
+        int start = pos;
+        if (format == Format.JSON) {
+            staging[pos++] = '"';
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7F || c == '"' || c == ',' || c == '\\') {
+                pos = start;
+                return false;
+            }
+            staging[pos++] = (byte) c;
+        }
+        if (format == Format.JSON) {
+            staging[pos++] = '"';
+        }
+        return true;
+    }
+
+    private void putJsonEscape(char c) {
+        staging[pos++] = (byte) '\\';
+        switch (c) {
+            case '\\': staging[pos++] = (byte) '\\'; break;
+            case '\n': staging[pos++] = (byte) 'n'; break;
+            case '\r': staging[pos++] = (byte) 'r'; break;
+            case '\t': staging[pos++] = (byte) 't'; break;
+            default:
+                staging[pos++] = 'u';
+                staging[pos++] = '0';
+                staging[pos++] = '0';
+                staging[pos++] = (byte) Character.forDigit(c >> 4, 16);
+                staging[pos++] = (byte) Character.forDigit(c & 0xF, 16);
+        }
+    }
+
+    private void putNumber(int column, long value) throws IOException {
+        beginField(column);
+        putDigits(value);
+    }
+
+    // Scores are written with up to two decimals when that is exact
+    // (87, 87.5, 87.25), otherwise with Double.toString
+    private void putScore(int column, double value) throws IOException {
+        beginField(column);
+        double hundredths = value * 100;
+        if (Math.abs(value) < 1e12 && hundredths == Math.rint(hundredths)) {
+            long cents = (long) hundredths;
+            if (cents < 0) {
+                putByte((byte) '-');
+                cents = -cents;
+            }
+            putDigits(cents / 100);
+            int fraction = (int) (cents % 100);
+            if (fraction != 0) {
+                ensure(3);
+                staging[pos++] = '.';
+                staging[pos++] = (byte) ('0' + fraction / 10);
+                if (fraction % 10 != 0) {
+                    staging[pos++] = (byte) ('0' + fraction % 10);
+                }
+            }
+        } else {
+            String text = Double.toString(value);
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                staging[pos++] = (byte) text.charAt(i);
+            }
+        }
+    }
+
+    private void putDigits(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            String text = Long.toString(value);
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                staging[pos++] = (byte) text.charAt(i);
+            }
+            return;
+        }
+        ensure(digits.length + 1);
+        if (value < 0) {
+            staging[pos++] = (byte) '-';
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        System.arraycopy(digits, start, staging, pos, digits.length - start);
+        pos += digits.length - start;
+    }
+
+    private void putByte(byte b) throws IOException {
+        if (pos == staging.length) {
+            flush();
+        }
+        staging[pos++] = b;
+    }
+
+    // STATIC METHOD: CSV fields with separators, quotes or line breaks must be quoted
+    private static boolean needsCsvQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== CHANNEL OUTPUT ====================
+
+    private void ensure(int bytes) throws IOException {
+        if (staging.length - pos < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.clear();
+        buffer.put(staging, 0, pos);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        pos = 0;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * GradebookListener.java
+ *
+ * INTERFACE DEMONSTRATION
+ * Receives changes made through a Gradebook, so that derived data (indexes,
+ * rollups, caches) can be kept up to date incrementally instead of being
+ * recomputed from all grades.
+ *
+ * Every event is delivered under the gradebook lock, one at a time and
+ * after the change is visible in the gradebook, so a listener needs no
+ * locking of its own; readers of what it maintains synchronize on the
+ * gradebook. Every method has an empty default, so a listener only
+ * overrides what it needs.
+ *
+ * Events are delivered on the thread that made the change, except score
+ * updates: graders do not take the gradebook lock (see Gradebook.updateGrade),
+ * so an update may be delivered by another grader shortly after its
+ * updateGrade() returns. Updates of each grade still arrive in version
+ * order, before any later event about that grade. A listener should use
+ * the scores passed in, not grade.getScore(), which may already hold a
+ * later update.
+ *
+ * Grades and students merged in from an EntityLoader are reported as
+ * added, since they are new to the in-memory gradebook. Grades loaded
+ * again after Gradebook.releaseGrades() are not reported twice. A roster
+ * loaded lazily by a stub course is reported once through rosterLoaded(),
+ * not as enrollments. Scores changed by calling Grade.setScore() directly,
+ * rather than Gradebook.updateGrade(), are not seen by listeners.
+ */
+public interface GradebookListener {
+
+    // A grade is now in the gradebook
+    default void gradeAdded(Grade grade) {
+    }
+
+    // A grade's score changed from oldScore to newScore
+    default void gradeUpdated(Grade grade, double oldScore, double newScore) {
+    }
+
+    // A grade is no longer in the gradebook
+    default void gradeRemoved(Grade grade) {
+    }
+
+    // A student is now registered in the gradebook
+    default void studentAdded(Student student) {
+    }
+
+    // A student was removed (enrollments and grades are reported first)
+    default void studentRemoved(Student student) {
+    }
+
+    // A student joined the roster of a course registered in the gradebook
+    default void studentEnrolled(Student student, Course course) {
+    }
+
+    // A student left the roster (the grade, if any, is reported removed first)
+    default void studentUnenrolled(Student student, Course course) {
+    }
+
+    // A teacher is now registered in the gradebook
+    default void teacherAdded(Teacher teacher) {
+    }
+
+    // A teacher was removed (their courses are reported unassigned first)
+    default void teacherRemoved(Teacher teacher) {
+    }
+
+    // A course is now registered, possibly with a teacher and roster already
+    // set. A listener should read the roster only if Course.isRosterLoaded(),
+    // and otherwise wait for rosterLoaded(), so registering a stub loads nothing.
+    default void courseAdded(Course course) {
+    }
+
+    // The roster of a registered stub course was loaded from the EntityLoader
+    default void rosterLoaded(Course course) {
+    }
+
+    // A course was removed (roster, grades and teacher are reported cleared first)
+    default void courseRemoved(Course course) {
+    }
+
+    // The teacher of a registered course changed; either side may be null
+    default void courseTeacherChanged(Course course, Teacher oldTeacher, Teacher newTeacher) {
+    }
+}
@@ -0,0 +1,464 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GradebookReplica.java
+ *
+ * A read-only copy of a primary Gradebook, kept up to date from the
+ * replication stream of a ReplicationPrimary, for spreading read traffic
+ * (reports, GPA, listings) over several processes.
+ *
+ * The replica connects with the run ID of the primary it followed and the
+ * last sequence number it applied, and gets either the missing tail of
+ * the log or a snapshot plus the records after it. A primary that was
+ * restarted has a new run ID, so the replica is sent a snapshot rather
+ * than the tail of a different history. Snapshots are loaded into a fresh Gradebook off to the side and then
+ * swapped in, so reads keep being served from the old copy meanwhile.
+ * Records are applied in order, and idempotently (add if absent, set the
+ * score, remove if present), so a record that the snapshot already
+ * contained changes nothing. If the connection drops, the replica
+ * reconnects and resumes from where it was.
+ *
+ * Reads go through the GradebookShard interface, so a replica can be
+ * served to other processes with ShardServer and queried with RemoteShard.
+ * Writes are refused. Records are applied under the replica's lock, in
+ * runs of up to APPLY_BATCH, between reads.
+ *
+ * Lag metrics: the sequence applied, the latest sequence the primary has
+ * announced (records and heartbeats), and how old the replica's view is.
+ *
+ * Start a replica with:
+ *   java GradebookReplica --primary=localhost:7201 --port=7202
+ */
+public class GradebookReplica implements GradebookShard {
+
+    // Records applied per lock acquisition
+    private static final int APPLY_BATCH = 1024;
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer APPLY_TIMER =
+            OperationMetrics.timer("GradebookReplica.apply");
+    private static final OperationTimer LOAD_SNAPSHOT_TIMER =
+            OperationMetrics.timer("GradebookReplica.loadSnapshot");
+
+    // STATIC VARIABLE: Relationships of replicated entities arrive as records, never from a loader
+    private static final EntityLoader NO_RELATIONSHIPS = new EntityLoader() {
+        @Override public Student loadStudent(String studentNumber) { return null; }
+        @Override public Course loadCourse(String courseCode) { return null; }
+        @Override public Teacher loadTeacher(int teacherId) { return null; }
+        @Override public List<Course> loadEnrolledCourses(Student student) { return Collections.emptyList(); }
+        @Override public List<Student> loadEnrolledStudents(Course course) { return Collections.emptyList(); }
+        @Override public Teacher loadCourseTeacher(Course course) { return null; }
+        @Override public List<Course> loadTaughtCourses(Teacher teacher) { return Collections.emptyList(); }
+        @Override public List<Grade> loadGrades(Student student) { return Collections.emptyList(); }
+        @Override public List<Grade> loadGrades(Course course) { return Collections.emptyList(); }
+    };
+
+    private final String host;
+    private final int port;
+
+    // Reads are answered from this; replaced when a snapshot is loaded
+    private LocalShard copy = new LocalShard(Gradebook.createPartition());
+
+    // Run ID of the primary whose history the replica holds (see ReplicationPrimary)
+    private volatile long primaryRunId = ReplicationPrimary.NO_RUN;
+
+    // LAG METRICS
+    private volatile long appliedSequence = -1;       // -1 until the first snapshot
+    private volatile long primarySequence = -1;
+    private volatile long appliedCommitMillis;        // Primary time of the last applied record
+    private volatile long recordsApplied;
+    private volatile int snapshotsLoaded;
+
+    private volatile boolean closed;
+    private volatile Socket socket;
+
+    public GradebookReplica(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    // Follow the primary on a background thread, reconnecting as needed
+    public void start() {
+        Thread follower = new Thread(this::follow, "replica-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    // ==================== LAG METRICS ====================
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getPrimarySequence() {
+        return primarySequence;
+    }
+
+    // Records the primary has committed that this replica has not applied yet
+    public long getLagRecords() {
+        return Math.max(0, primarySequence - appliedSequence);
+    }
+
+    // How far behind the primary the replica's view is; 0 when caught up
+    public long getLagMillis() {
+        if (appliedSequence < 0) {
+            return Long.MAX_VALUE;  // Nothing loaded yet
+        }
+        return (getLagRecords() == 0) ? 0 : Math.max(0, System.currentTimeMillis() - appliedCommitMillis);
+    }
+
+    public long getRecordsApplied() {
+        return recordsApplied;
+    }
+
+    public int getSnapshotsLoaded() {
+        return snapshotsLoaded;
+    }
+
+    public String lagReport() {
+        long lagMillis = getLagMillis();
+        return String.format("applied %,d / primary %,d, lag %,d records / %s, %,d records applied, %d snapshots",
+                appliedSequence, primarySequence, getLagRecords(),
+                (lagMillis == Long.MAX_VALUE) ? "not loaded" : lagMillis + " ms",
+                recordsApplied, snapshotsLoaded);
+    }
+
+    // The replicated gradebook, for in-process readers; hold the replica's lock while reading it
+    public synchronized Gradebook getGradebook() {
+        return copy.getGradebook();
+    }
+
+    // ==================== FOLLOWING THE PRIMARY ====================
+
+    private void follow() {
+        while (!closed) {
+            try (Socket s = new Socket(host, port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+                socket = s;
+                out.writeLong(primaryRunId);
+                out.writeLong(appliedSequence);
+                out.flush();
+                while (!closed) {
+                    byte type = in.readByte();  // Wait for the primary without holding the lock
+                    if (type == ReplicationPrimary.MSG_SNAPSHOT) {
+                        loadSnapshot(in);
+                        continue;
+                    }
+                    synchronized (this) {
+                        for (int applied = 1; ; applied++) {
+                            receive(type, in);
+                            if (applied == APPLY_BATCH || in.available() == 0) {
+                                break;
+                            }
+                            type = in.readByte();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Replication stream lost (" + e.getMessage() + "); reconnecting");
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // Apply one record or heartbeat; caller holds the lock
+    private void receive(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case ReplicationPrimary.MSG_RECORD: {
+                long sequence = in.readLong();
+                long commitMillis = in.readLong();
+                if (sequence != appliedSequence + 1) {
+                    throw new IOException("Expected sequence " + (appliedSequence + 1) + ", got " + sequence);
+                }
+                long start = APPLY_TIMER.start();
+                try {
+                    apply(copy.getGradebook(), in.readByte(), in);
+                } finally {
+                    APPLY_TIMER.stop(start);
+                }
+                appliedSequence = sequence;
+                appliedCommitMillis = commitMillis;
+                primarySequence = Math.max(primarySequence, sequence);
+                recordsApplied++;
+                break;
+            }
+            case ReplicationPrimary.MSG_HEARTBEAT:
+                primarySequence = Math.max(primarySequence, in.readLong());
+                in.readLong();  // Primary time; lag is measured from record commit times
+                break;
+            default:
+                throw new IOException("Unknown message type " + type);
+        }
+    }
+
+    // Build the snapshot into a new gradebook, then swap it in
+    private void loadSnapshot(DataInputStream in) throws IOException {
+        long start = LOAD_SNAPSHOT_TIMER.start();
+        try {
+            long sequence = in.readLong();
+            long runId = in.readLong();
+            long commitMillis = in.readLong();
+            Gradebook fresh = Gradebook.createPartition();
+            for (byte op = in.readByte(); op != ReplicationPrimary.OP_END; op = in.readByte()) {
+                apply(fresh, op, in);
+            }
+            synchronized (this) {
+                copy = new LocalShard(fresh);
+                appliedSequence = sequence;
+                appliedCommitMillis = commitMillis;
+                // A restarted primary numbers its records from 1 again
+                primarySequence = (runId == primaryRunId) ? Math.max(primarySequence, sequence) : sequence;
+                primaryRunId = runId;
+                snapshotsLoaded++;
+            }
+        } finally {
+            LOAD_SNAPSHOT_TIMER.stop(start);
+        }
+    }
+
+    // Apply one record; every case is a no-op if the change is already there
+    private static void apply(Gradebook gradebook, byte op, DataInputStream in) throws IOException {
+        switch (op) {
+            case ReplicationPrimary.OP_ADD_STUDENT: {
+                int id = in.readInt();
+                String name = in.readUTF();
+                String email = in.readUTF();
+                String number = in.readUTF();
+                int year = in.readShort();
+                if (gradebook.findStudentById(id) == null) {
+                    gradebook.addStudent(new Student(id, name, email, number, year, NO_RELATIONSHIPS));
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_REMOVE_STUDENT: {
+                Student student = gradebook.findStudentById(in.readInt());
+                if (student != null) {
+                    gradebook.removeStudent(student);
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_ADD_TEACHER: {
+                int id = in.readInt();
+                String name = in.readUTF();
+                String email = in.readUTF();
+                String department = emptyToNull(in.readUTF());
+                String title = emptyToNull(in.readUTF());
+                if (gradebook.findTeacherById(id) == null) {
+                    gradebook.addTeacher(new Teacher(id, name, email, department, title, NO_RELATIONSHIPS));
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_REMOVE_TEACHER: {
+                Teacher teacher = gradebook.findTeacherById(in.readInt());
+                if (teacher != null) {
+                    gradebook.removeTeacher(teacher);
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_ADD_COURSE: {
+                String code = in.readUTF();
+                String name = in.readUTF();
+                int credits = in.readShort();
+                if (gradebook.findCourseByCode(code) == null) {
+                    gradebook.addCourse(new Course(code, name, credits));
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_REMOVE_COURSE: {
+                Course course = gradebook.findCourseByCode(in.readUTF());
+                if (course != null) {
+                    gradebook.removeCourse(course);
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_COURSE_TEACHER: {
+                Course course = gradebook.findCourseByCode(in.readUTF());
+                int teacherId = in.readInt();
+                Teacher teacher = (teacherId == ReplicationPrimary.NO_TEACHER)
+                        ? null : gradebook.findTeacherById(teacherId);
+                if (course != null && course.getTeacher() != teacher) {
+                    if (teacher != null) {
+                        course.assignTeacher(teacher);
+                    } else {
+                        course.setTeacher(null);
+                    }
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_ENROLL:
+            case ReplicationPrimary.OP_UNENROLL: {
+                Student student = gradebook.findStudentById(in.readInt());
+                Course course = gradebook.findCourseByCode(in.readUTF());
+                if (student == null || course == null) {
+                    break;
+                }
+                boolean enrolled = course.getEnrolledStudents().contains(student);
+                if (op == ReplicationPrimary.OP_ENROLL && !enrolled) {
+                    course.enrollStudent(student);
+                } else if (op == ReplicationPrimary.OP_UNENROLL && enrolled) {
+                    course.removeStudent(student);
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_SET_GRADE: {
+                Student student = gradebook.findStudentById(in.readInt());
+                Course course = gradebook.findCourseByCode(in.readUTF());
+                double score = in.readDouble();
+                if (student == null || course == null) {
+                    break;
+                }
+                if (gradebook.getGrade(student, course) == null) {
+                    gradebook.addGrade(student, course, score);
+                } else {
+                    gradebook.updateGrade(student, course, score);
+                }
+                break;
+            }
+            case ReplicationPrimary.OP_REMOVE_GRADE: {
+                Student student = gradebook.findStudentById(in.readInt());
+                Course course = gradebook.findCourseByCode(in.readUTF());
+                if (student != null && course != null) {
+                    gradebook.removeGrade(student, course);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown record opcode " + op);
+        }
+    }
+
+    // STATIC METHOD: The primary sends null strings as ""
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    // ==================== READS ====================
+
+    @Override
+    public synchronized boolean hasStudent(String studentNumber) {
+        return copy.hasStudent(studentNumber);
+    }
+
+    @Override
+    public synchronized String[] getStudentRecord(String studentNumber) {
+        return copy.getStudentRecord(studentNumber);
+    }
+
+    @Override
+    public synchronized boolean hasCourse(String courseCode) {
+        return copy.hasCourse(courseCode);
+    }
+
+    @Override
+    public synchronized double[] studentGradePoints(String studentNumber) {
+        return copy.studentGradePoints(studentNumber);
+    }
+
+    @Override
+    public synchronized double[] courseScoreTotals(String courseCode) {
+        return copy.courseScoreTotals(courseCode);
+    }
+
+    @Override
+    public synchronized int[] counts() {
+        return copy.counts();
+    }
+
+    // ==================== WRITES (REFUSED) ====================
+
+    @Override
+    public void addStudent(String name, String email, String password,
+                           String studentNumber, int enrollmentYear) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addCourse(String courseCode, String courseName, int credits) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean enrollStudent(String studentNumber, String courseCode) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addGrade(String studentNumber, String courseCode, double score) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean updateGrade(String studentNumber, String courseCode, double newScore) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Read-only replica: send writes to the primary");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // ==================== REPLICA PROCESS ====================
+
+    public static void main(String[] args) throws IOException {
+        String primary = "localhost:7201";
+        int port = 7202;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--primary": primary = parts[1]; break;
+                case "--port": port = Integer.parseInt(parts[1]); break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+        String[] hostPort = primary.split(":", 2);
+        GradebookReplica replica = new GradebookReplica(hostPort[0], Integer.parseInt(hostPort[1]));
+        System.out.println("Replica of " + primary + " serving reads on port " + port);
+        // The gradebook prints a line per applied operation; keep the replica quiet
+        QuietConsole.mute();
+        replica.start();
+
+        Thread reporter = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                System.err.println("Replica: " + replica.lagReport());
+            }
+        }, "replica-lag-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+
+        new ShardServer(replica, port).serve();
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * GradebookShard.java
+ *
+ * INTERFACE DEMONSTRATION
+ * One partition of a PartitionedGradebook. Operations are addressed by
+ * stable keys (student number, course code) instead of object references,
+ * so the same interface works for a partition in this JVM (LocalShard)
+ * and for one running in another process (RemoteShard).
+ */
+public interface GradebookShard extends AutoCloseable {
+
+    // Student records. The password is null for a copy of a student whose
+    // home is another shard; such a copy cannot log in.
+    void addStudent(String name, String email, String password,
+                    String studentNumber, int enrollmentYear);
+
+    boolean hasStudent(String studentNumber);
+
+    // Returns {name, email, enrollmentYear} or null if the student is unknown.
+    // Credentials are never part of the record, so they stay on the home shard.
+    String[] getStudentRecord(String studentNumber);
+
+    // Course records
+    void addCourse(String courseCode, String courseName, int credits);
+
+    boolean hasCourse(String courseCode);
+
+    // Enrollment and grades - the student must already exist on this shard
+    boolean enrollStudent(String studentNumber, String courseCode);
+
+    boolean addGrade(String studentNumber, String courseCode, double score);
+
+    boolean updateGrade(String studentNumber, String courseCode, double newScore);
+
+    // Partial aggregates used by the router's scatter-gather
+    // Returns {gradePoints, gradeCount} for the grades held on this shard
+    double[] studentGradePoints(String studentNumber);
+
+    // Returns {scoreSum, gradeCount} for the course if it lives on this shard
+    double[] courseScoreTotals(String courseCode);
+
+    // Returns {students, courses, grades}
+    int[] counts();
+
+    @Override
+    void close();
+}
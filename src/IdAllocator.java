@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdAllocator.java
+ *
+ * Hands out unique, increasing IDs to many threads without a shared lock.
+ *
+ * How it works:
+ * - A single AtomicLong holds the next ID that no thread has reserved yet.
+ * - Each thread reserves a block of IDs with one compare-and-set and then
+ *   hands them out from a ThreadLocal without touching shared state, so
+ *   threads only meet once per block.
+ * - When persisted, a "lease" ceiling is written to a small file before any
+ *   ID below it is handed out. After a restart the allocator continues from
+ *   the stored ceiling, so IDs never go backwards. IDs between the last one
+ *   used and the ceiling are skipped, which is the price of writing the file
+ *   only once per lease instead of once per ID.
+ * - On a normal shutdown the file is rewritten with the high-water mark
+ *   (the first ID not reserved by any thread), so only a crash skips the
+ *   rest of the lease. What is still skipped is the unused tail of each
+ *   thread's current block.
+ *
+ * IDs are unique across threads and increase within each thread. Across
+ * threads they are only roughly ordered, since each thread works through
+ * its own block.
+ *
+ * Sequences used by the application are available as USER_IDS and
+ * COURSE_NUMBERS. They are persisted in the directory named by the system
+ * property gradebook.idDir, or kept in memory only if it is not set.
+ * Course numbers are visible in generated course codes and allocated
+ * rarely, so they use blocks of one and a short lease: codes stay
+ * consecutive across restarts, and a crash skips at most a few.
+ */
+public class IdAllocator {
+
+    // STATIC VARIABLES: Shared sequences for User IDs and Course numbers
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+    private static final int DEFAULT_LEASE_SIZE = 1 << 16;
+    private static final int COURSE_LEASE_SIZE = 16;
+
+    public static final IdAllocator USER_IDS = forSequence("user", 1000, DEFAULT_BLOCK_SIZE, DEFAULT_LEASE_SIZE);
+    public static final IdAllocator COURSE_NUMBERS = forSequence("course", 100, 1, COURSE_LEASE_SIZE);
+
+    // First ID not yet reserved by any thread
+    private final AtomicLong nextUnreserved;
+
+    // Highest ID (exclusive) covered by the persisted lease
+    private volatile long leaseCeiling;
+
+    private final Path file;        // null when not persisted
+    private final int blockSize;
+    private final int leaseSize;
+
+    // Per thread: {next ID to hand out, end of the reserved block (exclusive)}
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[2]);
+
+    public IdAllocator(long firstId) {
+        this(firstId, null, DEFAULT_BLOCK_SIZE, DEFAULT_LEASE_SIZE);
+    }
+
+    /**
+     * @param firstId First ID handed out when the file does not exist yet
+     * @param file File holding the lease ceiling, or null to keep IDs in memory
+     * @param blockSize IDs reserved by a thread at a time
+     * @param leaseSize IDs covered by one write of the file
+     */
+    public IdAllocator(long firstId, Path file, int blockSize, int leaseSize) {
+        if (blockSize <= 0 || leaseSize < blockSize) {
+            throw new IllegalArgumentException("Need 0 < blockSize <= leaseSize");
+        }
+        this.file = file;
+        this.blockSize = blockSize;
+        this.leaseSize = leaseSize;
+        long start = Math.max(firstId, readCeiling(file));
+        this.nextUnreserved = new AtomicLong(start);
+        this.leaseCeiling = (file == null) ? Long.MAX_VALUE : start;
+    }
+
+    // STATIC METHOD: Allocator for a named sequence, persisted if gradebook.idDir is set
+    private static IdAllocator forSequence(String name, long firstId, int blockSize, int leaseSize) {
+        String directory = System.getProperty("gradebook.idDir");
+        Path file = (directory == null) ? null : Paths.get(directory, name + ".id");
+        IdAllocator allocator = new IdAllocator(firstId, file, blockSize, leaseSize);
+        if (file != null) {
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(allocator::persistHighWaterMark, "id-allocator-" + name));
+        }
+        return allocator;
+    }
+
+    // ==================== ALLOCATION ====================
+
+    // Next ID for the calling thread
+    public long next() {
+        long[] local = block.get();
+        if (local[0] == local[1]) {
+            local[0] = reserveBlock();
+            local[1] = local[0] + blockSize;
+        }
+        return local[0]++;
+    }
+
+    // Next ID as an int, for fields that are ints
+    public int nextInt() {
+        long id = next();
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("ID sequence exhausted: " + id);
+        }
+        return (int) id;
+    }
+
+    // The ID the calling thread would get from next()
+    public long peek() {
+        long[] local = block.get();
+        return (local[0] < local[1]) ? local[0] : nextUnreserved.get();
+    }
+
+    /**
+     * Make sure an ID that already exists (for example one read back from
+     * storage) is never handed out. Blocks reserved earlier by other threads
+     * are not revisited, so load stored entities before creating new ones in
+     * parallel.
+     */
+    public void reserveThrough(long id) {
+        long[] local = block.get();
+        if (local[0] <= id && id < local[1]) {
+            local[0] = id + 1;
+        }
+        while (true) {
+            long current = nextUnreserved.get();
+            if (current > id) {
+                return;
+            }
+            if (id + 1 > leaseCeiling) {
+                extendLease(id + 1);
+            }
+            if (nextUnreserved.compareAndSet(current, id + 1)) {
+                coverReserved(id + 1);
+                return;
+            }
+        }
+    }
+
+    // Reserve a block with one CAS; returns its first ID
+    private long reserveBlock() {
+        while (true) {
+            long start = nextUnreserved.get();
+            long end = start + blockSize;
+            if (end > leaseCeiling) {
+                extendLease(end);
+                continue;
+            }
+            if (nextUnreserved.compareAndSet(start, end)) {
+                coverReserved(end);
+                return start;
+            }
+        }
+    }
+
+    // After a successful reservation: if persistHighWaterMark() lowered the
+    // ceiling in the meantime, extend it again so the reserved IDs are covered
+    private void coverReserved(long end) {
+        if (end > leaseCeiling) {
+            extendLease(end);
+        }
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    // Persist a new ceiling covering at least the given ID (exclusive).
+    // Rare, so a lock is fine here.
+    private synchronized void extendLease(long needed) {
+        if (needed <= leaseCeiling) {
+            return;
+        }
+        long ceiling = needed + leaseSize;
+        writeCeiling(ceiling);
+        leaseCeiling = ceiling;
+    }
+
+    /**
+     * Shrink the persisted lease to the high-water mark, so that the next
+     * run continues right after the IDs reserved in this one. Run from a
+     * shutdown hook for the shared sequences. A reservation made while this
+     * runs extends the lease again, so no ID is ever handed out twice.
+     */
+    public synchronized void persistHighWaterMark() {
+        if (file == null) {
+            return;
+        }
+        // Lower the ceiling before reading the mark: a thread reserving after
+        // the read then sees the lower ceiling and waits to extend it
+        leaseCeiling = nextUnreserved.get();
+        long mark = nextUnreserved.get();
+        writeCeiling(mark);
+        leaseCeiling = mark;
+    }
+
+    private void writeCeiling(long ceiling) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            Files.write(temp, Long.toString(ceiling).getBytes(StandardCharsets.US_ASCII));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot persist ID lease to " + file, e);
+        }
+    }
+
+    private static long readCeiling(Path file) {
+        if (file == null || !Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read ID lease from " + file, e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * JfrSummary.java
+ *
+ * Summarizes the Gradebook events (see GradebookEvents) in a Flight
+ * Recorder file, recorded for example with the shipped profile:
+ *
+ *   java -XX:StartFlightRecording=settings=gradebook.jfc,filename=gradebook.jfr Main
+ *   java JfrSummary gradebook.jfr [--top=10]
+ *
+ * Prints:
+ * - per operation: count, total time, p50/p99/max latency and rows scanned
+ * - the keys (courses, students) where the most time went
+ * - writes that did not go through (conflicts, missing grades, ...)
+ * - the slowest single events, with their fields
+ * - GC pauses over the same recording, to tell data-driven slowness from
+ *   the JVM stopping the world
+ */
+public class JfrSummary {
+
+    private static final String PREFIX = "gradebook.";
+
+    // Latencies and rows of one operation
+    private static class OperationStats {
+        long[] nanos = new long[64];
+        int count;
+        long totalNanos;
+        long totalRows;
+        long maxRows;
+
+        void add(long duration, long rows) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = duration;
+            totalNanos += duration;
+            totalRows += rows;
+            maxRows = Math.max(maxRows, rows);
+        }
+
+        long percentile(long[] sorted, double p) {
+            return sorted[Math.min(count - 1, (int) Math.floor(p * count))];
+        }
+    }
+
+    // COLLECTIONS: Sorted by name, so the report reads the same every time
+    private final TreeMap<String, OperationStats> operations = new TreeMap<>();
+    private final HashMap<String, long[]> keys = new HashMap<>();  // key -> {count, nanos}
+    private final TreeMap<String, Integer> failedWrites = new TreeMap<>();
+    private final PriorityQueue<RecordedEvent> slowest;
+    private final int top;
+
+    private long gcCount;
+    private long gcPauseNanos;
+    private long gcLongestPauseNanos;
+
+    public JfrSummary(int top) {
+        this.top = top;
+        this.slowest = new PriorityQueue<>(top + 1,
+                (a, b) -> a.getDuration().compareTo(b.getDuration()));
+    }
+
+    // Read every event of a recording
+    public void read(Path recording) {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                accept(file.readEvent());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read recording " + recording, e);
+        }
+    }
+
+    private void accept(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        if (type.equals("jdk.GarbageCollection")) {
+            gcCount++;
+            gcPauseNanos += event.getDuration("sumOfPauses").toNanos();
+            gcLongestPauseNanos = Math.max(gcLongestPauseNanos, event.getDuration("longestPause").toNanos());
+            return;
+        }
+        if (!type.startsWith(PREFIX)) {
+            return;
+        }
+        long duration = event.getDuration().toNanos();
+        String operation = type.substring(PREFIX.length()) + " " + text(event, "operation", "report");
+        operations.computeIfAbsent(operation, name -> new OperationStats())
+                  .add(duration, number(event, "rowsScanned", "rows", "rosterSize"));
+
+        String key = text(event, "courseCode", "key");
+        if (key != null) {
+            long[] totals = keys.computeIfAbsent(key, k -> new long[2]);
+            totals[0]++;
+            totals[1] += duration;
+        }
+        String outcome = text(event, "outcome");
+        if (outcome != null && !outcome.equals("ok")) {
+            failedWrites.merge(operation + " " + outcome, 1, Integer::sum);
+        }
+        slowest.add(event);
+        if (slowest.size() > top) {
+            slowest.poll();
+        }
+    }
+
+    // ==================== REPORT ====================
+
+    public void print() {
+        System.out.println("========== GRADEBOOK OPERATIONS ==========");
+        System.out.printf("%-36s %9s %10s %9s %9s %9s %11s %8s%n",
+                "Operation", "Count", "Total ms", "p50 us", "p99 us", "Max us", "Avg rows", "Max rows");
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            OperationStats stats = entry.getValue();
+            long[] sorted = Arrays.copyOf(stats.nanos, stats.count);
+            Arrays.sort(sorted);
+            System.out.printf("%-36s %,9d %,10.1f %,9.1f %,9.1f %,9.1f %,11.1f %,8d%n",
+                    entry.getKey(), stats.count, stats.totalNanos / 1e6,
+                    stats.percentile(sorted, 0.50) / 1e3, stats.percentile(sorted, 0.99) / 1e3,
+                    sorted[stats.count - 1] / 1e3, (double) stats.totalRows / stats.count, stats.maxRows);
+        }
+        if (operations.isEmpty()) {
+            System.out.println("No Gradebook events. Was the recording made with gradebook.jfc?");
+        }
+
+        System.out.println("\n========== HOT KEYS (by total time) ==========");
+        List<Map.Entry<String, long[]>> hot = new ArrayList<>(keys.entrySet());
+        hot.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+        for (Map.Entry<String, long[]> entry : hot.subList(0, Math.min(top, hot.size()))) {
+            System.out.printf("%-24s %,9d events %,10.1f ms%n",
+                    entry.getKey(), entry.getValue()[0], entry.getValue()[1] / 1e6);
+        }
+
+        if (!failedWrites.isEmpty()) {
+            System.out.println("\n========== WRITES NOT APPLIED ==========");
+            for (Map.Entry<String, Integer> entry : failedWrites.entrySet()) {
+                System.out.printf("%-48s %,9d%n", entry.getKey(), entry.getValue());
+            }
+        }
+
+        System.out.println("\n========== SLOWEST EVENTS ==========");
+        List<RecordedEvent> events = new ArrayList<>(slowest);
+        events.sort((a, b) -> b.getDuration().compareTo(a.getDuration()));
+        for (RecordedEvent event : events) {
+            System.out.printf("%,10.1f us  %s  %s%n", event.getDuration().toNanos() / 1e3,
+                    event.getEventType().getName().substring(PREFIX.length()), fields(event));
+        }
+
+        System.out.println("\n========== GC ==========");
+        System.out.printf("%,d collections, %,.1f ms paused in total, longest pause %,.1f ms%n",
+                gcCount, gcPauseNanos / 1e6, gcLongestPauseNanos / 1e6);
+    }
+
+    // STATIC METHOD: The first of the named string fields that the event has, or null
+    private static String text(RecordedEvent event, String... names) {
+        for (String name : names) {
+            if (event.hasField(name)) {
+                return event.getString(name);
+            }
+        }
+        return null;
+    }
+
+    // STATIC METHOD: The first of the named int fields that the event has, or 0
+    private static long number(RecordedEvent event, String... names) {
+        for (String name : names) {
+            if (event.hasField(name)) {
+                return event.getInt(name);
+            }
+        }
+        return 0;
+    }
+
+    // STATIC METHOD: The event's own fields as name=value
+    private static String fields(RecordedEvent event) {
+        StringBuilder text = new StringBuilder();
+        event.getFields().forEach(field -> {
+            String name = field.getName();
+            if (!name.equals("startTime") && !name.equals("duration") && !name.equals("eventThread")
+                    && !name.equals("stackTrace")) {
+                Object value = event.getValue(name);
+                text.append(name).append('=').append(value).append(' ');
+            }
+        });
+        return text.toString().trim();
+    }
+
+    public static void main(String[] args) {
+        Path recording = null;
+        int top = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else {
+                recording = Paths.get(arg);
+            }
+        }
+        if (recording == null) {
+            System.out.println("Usage: java JfrSummary <recording.jfr> [--top=10]");
+            return;
+        }
+        JfrSummary summary = new JfrSummary(top);
+        summary.read(recording);
+        summary.print();
+    }
+}
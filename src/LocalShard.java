@@ -0,0 +1,125 @@
+/**
+ * LocalShard.java
+ *
+ * A GradebookShard backed by its own Gradebook partition in this JVM.
+ * ShardServer also wraps a LocalShard to serve it to other processes.
+ *
+ * OOP Concepts demonstrated:
+ * - Interfaces: Implements GradebookShard
+ * - Composition: A LocalShard HAS-A Gradebook
+ */
+public class LocalShard implements GradebookShard {
+
+    private final Gradebook gradebook;
+
+    public LocalShard() {
+        this.gradebook = Gradebook.createPartition();
+    }
+
+    // METHOD OVERLOADING: Wrap an existing gradebook
+    public LocalShard(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
+    public Gradebook getGradebook() {
+        return gradebook;
+    }
+
+    @Override
+    public void addStudent(String name, String email, String password,
+                           String studentNumber, int enrollmentYear) {
+        if (gradebook.findStudentByNumber(studentNumber) == null) {
+            gradebook.addStudent(new Student(name, email, password, studentNumber, enrollmentYear));
+        }
+    }
+
+    @Override
+    public boolean hasStudent(String studentNumber) {
+        return gradebook.findStudentByNumber(studentNumber) != null;
+    }
+
+    @Override
+    public String[] getStudentRecord(String studentNumber) {
+        Student student = gradebook.findStudentByNumber(studentNumber);
+        if (student == null) {
+            return null;
+        }
+        return new String[] {student.getName(), student.getEmail(),
+                             String.valueOf(student.getEnrollmentYear())};
+    }
+
+    @Override
+    public void addCourse(String courseCode, String courseName, int credits) {
+        if (gradebook.findCourseByCode(courseCode) == null) {
+            gradebook.addCourse(new Course(courseCode, courseName, credits));
+        }
+    }
+
+    @Override
+    public boolean hasCourse(String courseCode) {
+        return gradebook.findCourseByCode(courseCode) != null;
+    }
+
+    @Override
+    public boolean enrollStudent(String studentNumber, String courseCode) {
+        Student student = gradebook.findStudentByNumber(studentNumber);
+        Course course = gradebook.findCourseByCode(courseCode);
+        if (student == null || course == null || course.getEnrolledStudents().contains(student)) {
+            return false;
+        }
+        course.enrollStudent(student);
+        return true;
+    }
+
+    @Override
+    public boolean addGrade(String studentNumber, String courseCode, double score) {
+        Student student = gradebook.findStudentByNumber(studentNumber);
+        Course course = gradebook.findCourseByCode(courseCode);
+        if (student == null || course == null || gradebook.getGrade(student, course) != null
+                || !course.getEnrolledStudents().contains(student)) {
+            return false;
+        }
+        gradebook.addGrade(student, course, score);
+        return true;
+    }
+
+    @Override
+    public boolean updateGrade(String studentNumber, String courseCode, double newScore) {
+        Student student = gradebook.findStudentByNumber(studentNumber);
+        Course course = gradebook.findCourseByCode(courseCode);
+        if (student == null || course == null || gradebook.getGrade(student, course) == null) {
+            return false;
+        }
+        gradebook.updateGrade(student, course, newScore);
+        return true;
+    }
+
+    @Override
+    public double[] studentGradePoints(String studentNumber) {
+        Student student = gradebook.findStudentByNumber(studentNumber);
+        if (student == null) {
+            return new double[] {0, 0};
+        }
+        return gradebook.calculateStudentGradePoints(student);
+    }
+
+    @Override
+    public double[] courseScoreTotals(String courseCode) {
+        Course course = gradebook.findCourseByCode(courseCode);
+        if (course == null) {
+            return new double[] {0, 0};
+        }
+        return gradebook.calculateCourseScoreTotals(course);
+    }
+
+    @Override
+    public int[] counts() {
+        return new int[] {gradebook.getStudents().size(), gradebook.getCourses().size(),
+                          gradebook.getGrades().size()};
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release for an in-process partition
+    }
+}
@@ -1,3 +1,12 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -10,6 +19,10 @@ import java.util.Scanner;
  * - Program flow control
  * - User input handling
  * - Integration of all OOP components
+ *
+ * Scripted use (see BatchCommands for the command format):
+ *   java Main --batch=commands.txt [--out=results.txt]
+ *   java Main --batch=- < commands.txt
  */
 public class Main {
     
@@ -19,10 +32,19 @@ public class Main {
     // Reference to the gradebook instance
     private static Gradebook gradebook = Gradebook.getInstance();
     
+    // Rendered grade pages, reused until the grades behind them change
+    private static ReportCache reportCache = ReportCache.attach(gradebook, 1000, 4_000_000);
+    
     /**
      * Main method - Entry point of the application
      */
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--batch=")) {
+                System.exit(runBatch(args));
+            }
+        }
+        
         System.out.println("============================================");
         System.out.println("   Welcome to " + Gradebook.getSchoolName());
         System.out.println("       School Gradebook System");
@@ -56,6 +78,12 @@ public class Main {
                 case 6:
                     displaySystemStatistics();
                     break;
+                case 7:
+                    displayPerformanceMetrics();
+                    break;
+                case 8:
+                    exportData();
+                    break;
                 case 0:
                     running = false;
                     System.out.println("\nThank you for using the School Gradebook System!");
@@ -80,6 +108,8 @@ public class Main {
         System.out.println("4. Grade Management");
         System.out.println("5. Demonstrate Polymorphism");
         System.out.println("6. System Statistics");
+        System.out.println("7. Performance Metrics");
+        System.out.println("8. Export Data");
         System.out.println("0. Exit");
         System.out.println("====================================");
     }
@@ -153,9 +183,7 @@ public class Main {
         Student student = gradebook.findStudentByNumber(studentNumber);
         
         if (student != null) {
-            gradebook.displayStudentGrades(student);
-            System.out.println("Student GPA: " + 
-                               String.format("%.2f", gradebook.calculateStudentGPA(student)));
+            System.out.print(reportCache.studentReport(student));
         } else {
             System.out.println("Student not found.");
         }
@@ -171,7 +199,7 @@ public class Main {
         String name = getStringInput("Enter student name to search: ");
         
         // GENERICS: Using generic method findByName<T>()
-        // T is inferred as Student because we pass ArrayList<Student>
+        // T is inferred as Student because we pass List<Student>
         Student found = gradebook.findByName(gradebook.getStudents(), name);
         
         if (found != null) {
@@ -277,7 +305,7 @@ public class Main {
         String name = getStringInput("Enter teacher name to search: ");
         
         // GENERICS: Using generic method findByName<T>()
-        // T is inferred as Teacher because we pass ArrayList<Teacher>
+        // T is inferred as Teacher because we pass List<Teacher>
         Teacher found = gradebook.findByName(gradebook.getTeachers(), name);
         
         if (found != null) {
@@ -377,9 +405,7 @@ public class Main {
         Course course = gradebook.findCourseByCode(courseCode);
         
         if (course != null) {
-            gradebook.displayCourseGrades(course);
-            double avg = gradebook.calculateCourseAverage(course);
-            System.out.println("Course Average: " + String.format("%.2f", avg));
+            System.out.print(reportCache.courseReport(course));
         } else {
             System.out.println("Course not found.");
         }
@@ -395,6 +421,7 @@ public class Main {
             System.out.println("2. Update Grade");
             System.out.println("3. View Student Grades");
             System.out.println("4. View Course Grades");
+            System.out.println("5. Generate Transcripts");
             System.out.println("0. Back to Main Menu");
             System.out.println("===================================");
             
@@ -413,6 +440,9 @@ public class Main {
                 case 4:
                     viewCourseGrades();
                     break;
+                case 5:
+                    generateTranscripts();
+                    break;
                 case 0:
                     inMenu = false;
                     break;
@@ -468,6 +498,23 @@ public class Main {
         gradebook.updateGrade(student, course, newScore);
     }
     
+    // Term-end batch: one transcript per student, rendered in parallel
+    private static void generateTranscripts() {
+        System.out.println("\n--- Generate Transcripts ---");
+        String directory = getStringInput("Enter output directory: ");
+        boolean archive = getStringInput("One combined archive instead of one file per student? (y/n): ")
+                .equalsIgnoreCase("y");
+        boolean resume = getStringInput("Resume an interrupted run? (y/n): ").equalsIgnoreCase("y");
+        TranscriptJob job = new TranscriptJob(gradebook, Paths.get(directory));
+        job.setOutput(archive ? TranscriptJob.Output.ARCHIVE : TranscriptJob.Output.FILES);
+        job.setResume(resume);
+        try {
+            job.run();
+        } catch (IOException e) {
+            System.out.println("Transcript generation failed: " + e.getMessage());
+        }
+    }
+    
     // ==================== POLYMORPHISM DEMONSTRATION ====================
     
     /**
@@ -526,6 +573,40 @@ public class Main {
         System.out.println("=============================================");
     }
     
+    // Dump call counts and latency percentiles for every instrumented operation.
+    // The same numbers are available live over JMX (domain "gradebook").
+    private static void displayPerformanceMetrics() {
+        System.out.println("\n============ PERFORMANCE METRICS ============");
+        System.out.print(OperationMetrics.dump());
+        System.out.println("=============================================");
+    }
+    
+    // ==================== EXPORT ====================
+    
+    // Write students, teachers, courses, enrollments and grades to a directory
+    private static void exportData() {
+        String directory = getStringInput("Enter output directory: ");
+        String format = getStringInput("Enter format (csv/json): ");
+        GradebookExporter exporter;
+        if (format.equalsIgnoreCase("csv")) {
+            exporter = new GradebookExporter(GradebookExporter.Format.CSV);
+        } else if (format.equalsIgnoreCase("json")) {
+            exporter = new GradebookExporter(GradebookExporter.Format.JSON);
+        } else {
+            System.out.println("Unknown format: " + format);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long rows = exporter.exportAll(gradebook, Paths.get(directory));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Exported %d rows (%.1f KB) to %s in %.3f s%n",
+                    rows, exporter.getBytesWritten() / 1024.0, directory, seconds);
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage());
+        }
+    }
+    
     // ==================== SAMPLE DATA INITIALIZATION ====================
     
     /**
@@ -595,6 +676,43 @@ public class Main {
         System.out.println("You can now explore the system.\n");
     }
     
+    // ==================== BATCH MODE ====================
+    
+    // Run a command file (or stdin for "-") without the menu; returns the exit status
+    private static int runBatch(String[] args) {
+        String input = null;
+        String output = null;
+        for (String arg : args) {
+            if (arg.startsWith("--batch=")) {
+                input = arg.substring("--batch=".length());
+            } else if (arg.startsWith("--out=")) {
+                output = arg.substring("--out=".length());
+            } else {
+                System.err.println("Unknown option: " + arg);
+                return 2;
+            }
+        }
+        
+        long start = System.nanoTime();
+        try (BufferedReader in = input.equals("-")
+                     ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                     : Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+             Writer out = (output == null)
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                     : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            BatchCommands batch = new BatchCommands(gradebook, out);
+            batch.run(in);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%,d commands, %,d errors in %.2f s (%,.0f commands/s)%n",
+                              batch.getExecuted(), batch.getErrors(), seconds,
+                              batch.getExecuted() / Math.max(seconds, 1e-9));
+            return (batch.getErrors() == 0) ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return 2;
+        }
+    }
+    
     // ==================== INPUT HELPER METHODS ====================
     
     private static int getIntInput(String prompt) {
@@ -0,0 +1,502 @@
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * OffHeapGradeStore.java
+ *
+ * Keeps grade records outside the Java heap, so that tens of millions of
+ * grades do not make every full GC walk tens of millions of Grade objects.
+ *
+ * Every grade is one fixed-size record in direct ByteBuffers, allocated in
+ * chunks of CHUNK_RECORDS:
+ *
+ *   offset  size  field
+ *        0     4  student id
+ *        4     4  course index (position in the store's course table)
+ *        8     8  score (double)
+ *       16     8  version
+ *       24     4  letter grade (StringDictionary.LETTER_GRADES code)
+ *       28     4  flags (LIVE, REPORTED, or 0 for a removed grade)
+ *       32     4  next record of the same student, or NONE
+ *       36     4  next record of the same course, or NONE
+ *
+ * The heap holds only the chunk buffers, an int-to-int hash table of the
+ * first record per student, and the student and course tables (references
+ * to the entities, so a course's records can be loaded even for students
+ * the Gradebook has not registered). The per-student and
+ * per-course lists are chained through the records themselves. Removed
+ * records stay in their chains and are skipped. Adding the same grade
+ * again reuses its record.
+ *
+ * attach() copies the grades of a Gradebook into the store and plugs the
+ * store in as the Gradebook's EntityLoader and as a listener. From then on:
+ * - grades are loaded into the Gradebook as Grade objects the first time a
+ *   student's or course's grades are used, like any lazily loaded grades
+ * - every add, update and removal made through the Gradebook is written
+ *   through to the record, so the store is always current
+ * - Gradebook.releaseGrades() drops the Grade objects again, e.g. after
+ *   each step of term-end processing, so the heap holds only the grades
+ *   in use. Their records are flagged REPORTED, so loading them again is
+ *   not reported to listeners as new grades
+ *
+ * Entities and relationships are taken from the loader the Gradebook had
+ * before, if any; grades stored there are copied in on first use.
+ *
+ * The records are written with absolute puts under the store's lock, as
+ * versioned updates may call the listener from several grader threads.
+ *
+ * Java 17's MemorySegment/Arena (Foreign Memory API) is still an incubator
+ * module, so direct ByteBuffers are used for the memory; their total is
+ * limited by -XX:MaxDirectMemorySize, which defaults to the maximum heap.
+ *
+ * Usage (heap and GC pause comparison):
+ *   java OffHeapGradeStore --students=300000
+ */
+public class OffHeapGradeStore implements EntityLoader, GradebookListener {
+
+    // STATIC VARIABLES: Record layout
+    static final int RECORD_SIZE = 40;
+    private static final int STUDENT_ID = 0;
+    private static final int COURSE_INDEX = 4;
+    private static final int SCORE = 8;
+    private static final int VERSION = 16;
+    private static final int LETTER = 24;
+    private static final int FLAGS = 28;
+    private static final int NEXT_FOR_STUDENT = 32;
+    private static final int NEXT_FOR_COURSE = 36;
+
+    private static final int LIVE = 1;
+    private static final int REPORTED = 2;  // Released by the Gradebook after its listeners saw it
+    private static final int NONE = -1;
+
+    // Records per direct buffer (40 MB)
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+
+    private final EntityLoader delegate;  // Entities and relationships, or null
+
+    // OFF-HEAP: Record chunks
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int recordCount;
+    private int liveCount;
+
+    // Chain heads: first record per student id, and per course index
+    private final IntTable studentHeads = new IntTable();
+    private int[] courseHeads = new int[64];
+
+    // COLLECTIONS: Course table (courses are few compared to grades)
+    private final HashMap<String, Integer> courseIndexes = new HashMap<>();
+    private final ArrayList<Course> courseTable = new ArrayList<>();
+
+    // COLLECTIONS: Student of every student id with a record
+    private final HashMap<Integer, Student> studentTable = new HashMap<>();
+
+    // Students and courses whose grades in the delegate were copied in
+    private final HashSet<Integer> importedStudents = new HashSet<>();
+    private final HashSet<String> importedCourses = new HashSet<>();
+
+    private OffHeapGradeStore(EntityLoader delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Move the grades of a gradebook off the heap and keep them there.
+     * The gradebook's current loader becomes the store's delegate.
+     */
+    public static OffHeapGradeStore attach(Gradebook gradebook) {
+        OffHeapGradeStore store = new OffHeapGradeStore(gradebook.getEntityLoader());
+        synchronized (store) {
+            for (Grade grade : gradebook.getGrades().values()) {
+                store.write(grade);
+            }
+        }
+        gradebook.setEntityLoader(store);
+        gradebook.addListener(store);
+        gradebook.releaseGrades();
+        return store;
+    }
+
+    // ==================== RECORDS ====================
+
+    private ByteBuffer chunk(int record) {
+        return chunks[record >>> CHUNK_SHIFT];
+    }
+
+    // STATIC METHOD: Byte offset of a record within its chunk
+    private static int offset(int record) {
+        return (record & (CHUNK_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    private int readInt(int record, int field) {
+        return chunk(record).getInt(offset(record) + field);
+    }
+
+    private void writeInt(int record, int field, int value) {
+        chunk(record).putInt(offset(record) + field, value);
+    }
+
+    private int newRecord() {
+        int chunkIndex = recordCount >>> CHUNK_SHIFT;
+        if (chunkIndex == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunkIndex] == null) {
+            chunks[chunkIndex] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE)
+                                           .order(ByteOrder.nativeOrder());
+        }
+        return recordCount++;
+    }
+
+    private int courseIndex(Course course) {
+        Integer index = courseIndexes.get(course.getCourseCode());
+        if (index == null) {
+            index = courseTable.size();
+            courseIndexes.put(course.getCourseCode(), index);
+            courseTable.add(course);
+            if (index == courseHeads.length) {
+                courseHeads = Arrays.copyOf(courseHeads, index * 2);
+            }
+            courseHeads[index] = NONE;
+        }
+        return index;
+    }
+
+    // The record of a student's grade in a course (live or removed), or NONE
+    private int find(int studentId, int courseIndex) {
+        int record = studentHeads.get(studentId, NONE);
+        while (record != NONE && readInt(record, COURSE_INDEX) != courseIndex) {
+            record = readInt(record, NEXT_FOR_STUDENT);
+        }
+        return record;
+    }
+
+    // Write the current value of a grade into its record, creating it if needed
+    private void write(Grade grade) {
+        int studentId = grade.getStudent().getId();
+        int courseIndex = courseIndex(grade.getCourse());
+        studentTable.putIfAbsent(studentId, grade.getStudent());
+        int record = find(studentId, courseIndex);
+        if (record == NONE) {
+            record = newRecord();
+            writeInt(record, STUDENT_ID, studentId);
+            writeInt(record, COURSE_INDEX, courseIndex);
+            writeInt(record, FLAGS, 0);
+            writeInt(record, NEXT_FOR_STUDENT, studentHeads.get(studentId, NONE));
+            writeInt(record, NEXT_FOR_COURSE, courseHeads[courseIndex]);
+            studentHeads.put(studentId, record);
+            courseHeads[courseIndex] = record;
+        }
+        if (!isLive(record)) {
+            writeInt(record, FLAGS, LIVE);  // A new or re-added grade has not been reported
+            liveCount++;
+        }
+        ByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        chunk.putDouble(offset + SCORE, grade.getScore());
+        chunk.putLong(offset + VERSION, grade.getVersion());
+        chunk.putInt(offset + LETTER, grade.getLetterCode());
+    }
+
+    private void remove(Grade grade) {
+        int record = find(grade);
+        if (record != NONE && isLive(record)) {
+            writeInt(record, FLAGS, 0);
+            liveCount--;
+        }
+    }
+
+    // METHOD OVERLOADING: The record of a grade (live or removed), or NONE
+    private int find(Grade grade) {
+        Integer courseIndex = courseIndexes.get(grade.getCourse().getCourseCode());
+        return (courseIndex == null) ? NONE : find(grade.getStudent().getId(), courseIndex);
+    }
+
+    private boolean isLive(int record) {
+        return (readInt(record, FLAGS) & LIVE) != 0;
+    }
+
+    // A Grade object for a live record
+    private Grade materialize(int record, Student student, Course course) {
+        ByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        return new Grade(student, course, chunk.getDouble(offset + SCORE),
+                         chunk.getInt(offset + LETTER), chunk.getLong(offset + VERSION));
+    }
+
+    // ==================== GRADES ====================
+
+    @Override
+    public synchronized List<Grade> loadGrades(Student student) {
+        if (delegate != null && importedStudents.add(student.getId())) {
+            importAbsent(delegate.loadGrades(student));
+        }
+        List<Grade> loaded = new ArrayList<>();
+        for (int record = studentHeads.get(student.getId(), NONE); record != NONE;
+             record = readInt(record, NEXT_FOR_STUDENT)) {
+            if (isLive(record)) {
+                loaded.add(materialize(record, student, courseTable.get(readInt(record, COURSE_INDEX))));
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public synchronized List<Grade> loadGrades(Course course) {
+        if (delegate != null && importedCourses.add(course.getCourseCode())) {
+            importAbsent(delegate.loadGrades(course));
+        }
+        List<Grade> loaded = new ArrayList<>();
+        Integer courseIndex = courseIndexes.get(course.getCourseCode());
+        if (courseIndex == null) {
+            return loaded;
+        }
+        courseTable.set(courseIndex, course);
+        for (int record = courseHeads[courseIndex]; record != NONE;
+             record = readInt(record, NEXT_FOR_COURSE)) {
+            if (isLive(record)) {
+                Student student = studentTable.get(readInt(record, STUDENT_ID));
+                loaded.add(materialize(record, student, course));
+            }
+        }
+        return loaded;
+    }
+
+    // Copy grades from the delegate unless the store already has a record for them
+    private void importAbsent(List<Grade> stored) {
+        for (Grade grade : stored) {
+            if (find(grade) == NONE) {
+                write(grade);
+            }
+        }
+    }
+
+    // ==================== RELEASED GRADES ====================
+
+    @Override
+    public synchronized boolean releaseGrades(Collection<Grade> grades) {
+        for (Grade grade : grades) {
+            int record = find(grade);
+            if (record != NONE && isLive(record)) {
+                writeInt(record, FLAGS, LIVE | REPORTED);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean wasReleased(Grade grade) {
+        int record = find(grade);
+        return record != NONE && (readInt(record, FLAGS) & REPORTED) != 0;
+    }
+
+    // ==================== WRITE-THROUGH ====================
+    // Grades loaded from the store the first time are reported as added
+    // too; writing them again only rewrites the same values.
+
+    @Override
+    public synchronized void gradeAdded(Grade grade) {
+        write(grade);
+    }
+
+    @Override
+    public synchronized void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        write(grade);
+    }
+
+    @Override
+    public synchronized void gradeRemoved(Grade grade) {
+        remove(grade);
+    }
+
+    // ==================== ENTITIES (from the delegate) ====================
+
+    @Override
+    public void setGradebook(Gradebook gradebook) {
+        if (delegate != null) {
+            delegate.setGradebook(gradebook);
+        }
+    }
+
+    @Override
+    public Student loadStudent(String studentNumber) {
+        return (delegate == null) ? null : delegate.loadStudent(studentNumber);
+    }
+
+    @Override
+    public Course loadCourse(String courseCode) {
+        return (delegate == null) ? null : delegate.loadCourse(courseCode);
+    }
+
+    @Override
+    public Teacher loadTeacher(int teacherId) {
+        return (delegate == null) ? null : delegate.loadTeacher(teacherId);
+    }
+
+    @Override
+    public List<Course> loadEnrolledCourses(Student student) {
+        return (delegate == null) ? new ArrayList<>() : delegate.loadEnrolledCourses(student);
+    }
+
+    @Override
+    public List<Student> loadEnrolledStudents(Course course) {
+        return (delegate == null) ? new ArrayList<>() : delegate.loadEnrolledStudents(course);
+    }
+
+    @Override
+    public Teacher loadCourseTeacher(Course course) {
+        return (delegate == null) ? null : delegate.loadCourseTeacher(course);
+    }
+
+    @Override
+    public List<Course> loadTaughtCourses(Teacher teacher) {
+        return (delegate == null) ? new ArrayList<>() : delegate.loadTaughtCourses(teacher);
+    }
+
+    // ==================== STATISTICS ====================
+
+    public synchronized int getGradeCount() {
+        return liveCount;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    // Bytes of direct memory allocated for records
+    public synchronized long getOffHeapBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                bytes += chunk.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    // ==================== INT TABLE ====================
+
+    // Open-addressing int-to-int hash table, so chain heads need no boxed entries
+    private static final class IntTable {
+        private int[] keys = new int[1024];
+        private int[] values = new int[1024];
+        private boolean[] used = new boolean[1024];
+        private int size;
+
+        int get(int key, int missing) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return missing;
+        }
+
+        void put(int key, int value) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        // STATIC METHOD: Spread sequential ids over the table
+        private static int hash(int key) {
+            return key * 0x9E3779B1;
+        }
+    }
+
+    // ==================== BENCHMARK ====================
+
+    public static void main(String[] args) {
+        int students = 300_000;
+        for (String arg : args) {
+            if (arg.startsWith("--students=")) {
+                students = Integer.parseInt(arg.substring("--students=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        Gradebook gradebook = Gradebook.createPartition();
+        WorkloadGenerator generator = new WorkloadGenerator(42);
+        generator.setStudentCount(students);
+        generator.setGradedFraction(1.0);
+        generator.populate(gradebook);
+        int gradeCount = gradebook.getGrades().size();
+        System.out.printf("%,d students, %,d grades%n", gradebook.getStudents().size(), gradeCount);
+
+        System.out.printf("On heap:  %s%n", heapAndPause());
+        long start = System.nanoTime();
+        OffHeapGradeStore store = attach(gradebook);
+        System.out.printf("Attached in %.0f ms: %,d grades, %,d MB off heap%n",
+                (System.nanoTime() - start) / 1e6, store.getGradeCount(), store.getOffHeapBytes() >> 20);
+        System.out.printf("Off heap: %s%n", heapAndPause());
+
+        // A pass over every course, releasing the loaded grades after each one
+        PrintStream original = QuietConsole.mute();
+        double check = 0;
+        start = System.nanoTime();
+        try {
+            for (Course course : gradebook.getCourses()) {
+                check += gradebook.calculateCourseAverage(course);
+                gradebook.releaseGrades();
+            }
+        } finally {
+            QuietConsole.restore(original);
+        }
+        System.out.printf("Course averages from the store: %.0f ms (check %.1f)%n",
+                (System.nanoTime() - start) / 1e6, check);
+    }
+
+    // STATIC METHOD: Live heap after a full GC, and how long that GC took
+    private static String heapAndPause() {
+        long gcMillis = totalGcMillis();
+        long start = System.nanoTime();
+        System.gc();
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        return String.format("%,d MB live heap, full GC %d ms (collector time %d ms)",
+                WorkloadDriver.usedHeap() >> 20, wallMillis, totalGcMillis() - gcMillis);
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+}
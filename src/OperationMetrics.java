@@ -0,0 +1,117 @@
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * OperationMetrics.java
+ *
+ * Registry of OperationTimers for the Gradebook, Course and User classes.
+ * Every timer is also published as a JMX MBean named
+ *   gradebook:type=Operation,name=<Class.method>
+ * so it can be watched live from JConsole or any JMX client.
+ *
+ * Metrics are on by default; start the JVM with -Dgradebook.metrics=false
+ * or call setEnabled(false) to turn them off. Latency is timed on one call
+ * in every -Dgradebook.metrics.samplePeriod calls (default 8, rounded up
+ * to a power of two); call counts are always exact.
+ */
+public final class OperationMetrics {
+
+    // STATIC VARIABLE: Read on every instrumented call, so kept as a plain volatile flag
+    static volatile boolean enabled =
+            !"false".equalsIgnoreCase(System.getProperty("gradebook.metrics"));
+
+    // STATIC VARIABLE: A call is timed when (random & sampleMask) == 0
+    static volatile int sampleMask =
+            toMask(Integer.getInteger("gradebook.metrics.samplePeriod", 8));
+
+    // COLLECTIONS: Timers sorted by name for a stable dump order
+    private static final Map<String, OperationTimer> TIMERS = new ConcurrentSkipListMap<>();
+
+    // Utility class - no instances
+    private OperationMetrics() {
+    }
+
+    // STATIC METHOD: Get (or create and register) the timer for an operation
+    public static OperationTimer timer(String name) {
+        return TIMERS.computeIfAbsent(name, key -> {
+            OperationTimer timer = new OperationTimer(key);
+            register(timer);
+            return timer;
+        });
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static int getSamplePeriod() {
+        return sampleMask + 1;
+    }
+
+    // Time one call in every 'period' calls; 1 times every call
+    public static void setSamplePeriod(int period) {
+        sampleMask = toMask(period);
+    }
+
+    // STATIC METHOD: Round a period up to a power of two and turn it into a bit mask
+    private static int toMask(int period) {
+        if (period <= 1) {
+            return 0;
+        }
+        return Integer.highestOneBit(period - 1) * 2 - 1;
+    }
+
+    // Clear all counters and histograms
+    public static void reset() {
+        for (OperationTimer timer : TIMERS.values()) {
+            timer.reset();
+        }
+    }
+
+    // Text report of every operation that has been called at least once
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-36s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Calls", "Mean(us)", "P50(us)", "P90(us)", "P99(us)", "Max(us)"));
+        for (OperationTimer timer : TIMERS.values()) {
+            long calls = timer.getCount();
+            if (calls == 0) {
+                continue;
+            }
+            sb.append(String.format("%-36s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    timer.getName(), calls,
+                    timer.getMeanNanos() / 1000.0,
+                    timer.getP50Nanos() / 1000.0,
+                    timer.getP90Nanos() / 1000.0,
+                    timer.getP99Nanos() / 1000.0,
+                    timer.getMaxNanos() / 1000.0));
+        }
+        if (!enabled) {
+            sb.append("(metrics are currently disabled)").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    // Publish a timer through the platform MBean server
+    private static void register(OperationTimer timer) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("gradebook:type=Operation,name="
+                    + ObjectName.quote(timer.getName()));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(timer, objectName);
+            }
+        } catch (JMException e) {
+            // Metrics still work through dump() without JMX
+            System.err.println("Could not register MBean for " + timer.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OperationTimer.java
+ *
+ * Counts calls to one operation and keeps a latency histogram for it.
+ *
+ * Typical use inside an instrumented method:
+ *   long start = TIMER.start();
+ *   try { ... } finally { TIMER.stop(start); }
+ *
+ * Every call is counted exactly with a LongAdder. Latency is measured on
+ * a random sample of calls (1 in OperationMetrics.getSamplePeriod()),
+ * because System.nanoTime() itself costs 20-50ns on common hardware and
+ * timing every call would blow the overhead budget. Sampled calls update
+ * a LongAdder, a max accumulator and one histogram bucket - no locks and
+ * no allocation. When metrics are disabled start() returns 0 and stop()
+ * does nothing.
+ *
+ * Histogram layout: log-linear buckets, four per power of two, so every
+ * percentile is reported with at most 25% error over the full long range.
+ */
+public class OperationTimer implements OperationTimerMBean {
+
+    // STATIC VARIABLES: Histogram geometry
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sampledCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    // Package-private: timers are created through OperationMetrics.timer()
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    // Counts the call and returns a start timestamp if this call is sampled,
+    // or 0 if it is not sampled or metrics are disabled
+    public long start() {
+        if (!OperationMetrics.enabled) {
+            return 0L;
+        }
+        count.increment();
+        if ((ThreadLocalRandom.current().nextInt() & OperationMetrics.sampleMask) != 0) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    // Records the time elapsed since start() (ignored if start was 0)
+    public void stop(long start) {
+        if (start != 0L) {
+            recordSample(System.nanoTime() - start);
+        }
+    }
+
+    // Records one call, measured elsewhere, that took the given number of nanoseconds
+    public void record(long nanos) {
+        count.increment();
+        recordSample(nanos);
+    }
+
+    private void recordSample(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        sampledCount.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(bucketIndex(nanos));
+    }
+
+    // STATIC METHOD: Histogram bucket for a value
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // STATIC METHOD: Largest value that falls into a bucket
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub + 1) * width) - 1;
+    }
+
+    // Latency (in nanoseconds) below which the given fraction of sampled calls fall
+    public long getPercentileNanos(double fraction) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    // ==================== MBEAN ATTRIBUTES ====================
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getSampledCount() {
+        return sampledCount.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        long samples = sampledCount.sum();
+        return (samples == 0) ? 0 : (double) totalNanos.sum() / samples;
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return getPercentileNanos(0.50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return getPercentileNanos(0.90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return getPercentileNanos(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return getPercentileNanos(0.999);
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        sampledCount.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+    }
+}
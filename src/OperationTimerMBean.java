@@ -0,0 +1,29 @@
+/**
+ * OperationTimerMBean.java
+ *
+ * JMX management interface for one OperationTimer. The JMX naming rule
+ * (class name + "MBean") lets the platform MBean server discover these
+ * getters as read-only attributes, e.g. in JConsole or VisualVM.
+ */
+public interface OperationTimerMBean {
+
+    String getName();
+
+    long getCount();
+
+    long getSampledCount();
+
+    double getMeanNanos();
+
+    long getMaxNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    void reset();
+}
@@ -0,0 +1,85 @@
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * PageCursor.java
+ *
+ * A cursor that walks over a list one page at a time.
+ * Each page is a read-only view (subList) of the underlying list,
+ * so no elements are copied and callers cannot modify the source.
+ *
+ * OOP Concepts demonstrated:
+ * - Generics: Works for any element type (Student, Teacher, Course, ...)
+ * - Interfaces: Implements Iterator so it can be used in loops
+ * - Encapsulation: The source list is never exposed for modification
+ *
+ * @param <T> The type of elements in the list
+ */
+public class PageCursor<T> implements Iterator<List<T>> {
+
+    // ENCAPSULATION: Private fields
+    private final List<T> source;
+    private final int pageSize;
+    private int position;
+    private int pageNumber;
+
+    /**
+     * Constructor for PageCursor class
+     *
+     * @param source The list to page through (should already be read-only)
+     * @param pageSize Maximum number of elements per page
+     */
+    public PageCursor(List<T> source, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.position = 0;
+        this.pageNumber = 0;
+    }
+
+    // METHOD OVERLOADING: Constructor that starts from a given page
+    public PageCursor(List<T> source, int pageSize, int startPage) {
+        this(source, pageSize);
+        if (startPage < 0) {
+            throw new IllegalArgumentException("Start page must not be negative: " + startPage);
+        }
+        this.position = (int) Math.min((long) startPage * pageSize, source.size());
+        this.pageNumber = startPage;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < source.size();
+    }
+
+    // Returns the next page as a read-only view of the source list
+    @Override
+    public List<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more pages");
+        }
+        int end = Math.min(position + pageSize, source.size());
+        List<T> page = Collections.unmodifiableList(source.subList(position, end));
+        position = end;
+        pageNumber++;
+        return page;
+    }
+
+    // Getter methods
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Number of pages returned so far (also the index of the next page)
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public int getTotalPages() {
+        return (source.size() + pageSize - 1) / pageSize;
+    }
+}
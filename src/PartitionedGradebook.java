@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * PartitionedGradebook.java
+ *
+ * Routing layer over several independent Gradebook partitions (shards).
+ *
+ * Placement rules:
+ * - A course, its roster and all of its grades live on the shard chosen by
+ *   the course code, so every grade write touches exactly one shard.
+ * - A student has a home shard chosen by the student number. When the
+ *   student enrolls in a course on another shard, the student record is
+ *   copied there as well, without the password.
+ *
+ * Point operations (enroll, add/update grade, course average) go to one
+ * shard. Student-wide aggregates such as GPA are scatter-gathered: every
+ * shard returns its partial {points, count} and the router adds them up.
+ * The shards are asked in parallel on the router's own threads, one per
+ * shard, since a RemoteShard call blocks on its socket and must not tie
+ * up the common ForkJoin pool.
+ *
+ * Routing uses String.hashCode(), whose value is fixed by the Java
+ * specification, so the same key maps to the same shard in every process.
+ */
+public class PartitionedGradebook implements AutoCloseable {
+
+    // COLLECTIONS: The shards, indexed by partition number
+    private final List<GradebookShard> shards;
+
+    // Threads for scatter-gather calls, one per shard
+    private final ExecutorService scatterPool;
+
+    public PartitionedGradebook(List<GradebookShard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = new ArrayList<>(shards);
+        this.scatterPool = Executors.newFixedThreadPool(shards.size(), task -> {
+            Thread thread = new Thread(task, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // STATIC METHOD: Router over the given number of in-process partitions
+    public static PartitionedGradebook inProcess(int shardCount) {
+        List<GradebookShard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new LocalShard());
+        }
+        return new PartitionedGradebook(shards);
+    }
+
+    // STATIC METHOD: Router over shard processes started with ShardServer,
+    // given as "host:port" strings
+    public static PartitionedGradebook connect(List<String> addresses) {
+        List<GradebookShard> shards = new ArrayList<>();
+        for (String address : addresses) {
+            int colon = address.lastIndexOf(':');
+            shards.add(new RemoteShard(address.substring(0, colon),
+                                       Integer.parseInt(address.substring(colon + 1))));
+        }
+        return new PartitionedGradebook(shards);
+    }
+
+    // ==================== ROUTING ====================
+
+    public int shardForCourse(String courseCode) {
+        return Math.floorMod(courseCode.hashCode(), shards.size());
+    }
+
+    public int shardForStudent(String studentNumber) {
+        return Math.floorMod(studentNumber.hashCode(), shards.size());
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<GradebookShard> getShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    // ==================== POINT OPERATIONS ====================
+
+    public void addStudent(String name, String email, String password,
+                           String studentNumber, int enrollmentYear) {
+        shards.get(shardForStudent(studentNumber))
+              .addStudent(name, email, password, studentNumber, enrollmentYear);
+    }
+
+    public void addCourse(String courseCode, String courseName, int credits) {
+        shards.get(shardForCourse(courseCode)).addCourse(courseCode, courseName, credits);
+    }
+
+    // Enroll a student, copying the student record to the course's shard if needed
+    public boolean enrollStudent(String studentNumber, String courseCode) {
+        GradebookShard courseShard = shards.get(shardForCourse(courseCode));
+        if (!courseShard.hasStudent(studentNumber)) {
+            String[] record = shards.get(shardForStudent(studentNumber)).getStudentRecord(studentNumber);
+            if (record == null) {
+                System.out.println("Student not found: " + studentNumber);
+                return false;
+            }
+            courseShard.addStudent(record[0], record[1], null, studentNumber,
+                                   Integer.parseInt(record[2]));
+        }
+        return courseShard.enrollStudent(studentNumber, courseCode);
+    }
+
+    public boolean addGrade(String studentNumber, String courseCode, double score) {
+        return shards.get(shardForCourse(courseCode)).addGrade(studentNumber, courseCode, score);
+    }
+
+    public boolean updateGrade(String studentNumber, String courseCode, double newScore) {
+        return shards.get(shardForCourse(courseCode)).updateGrade(studentNumber, courseCode, newScore);
+    }
+
+    public double calculateCourseAverage(String courseCode) {
+        double[] totals = shards.get(shardForCourse(courseCode)).courseScoreTotals(courseCode);
+        return (totals[1] == 0) ? 0 : totals[0] / totals[1];
+    }
+
+    // ==================== SCATTER-GATHER AGGREGATES ====================
+
+    // GPA across every shard holding grades for the student
+    public double calculateStudentGPA(String studentNumber) {
+        double points = 0;
+        double count = 0;
+        for (double[] partial : scatter(shard -> shard.studentGradePoints(studentNumber))) {
+            points += partial[0];
+            count += partial[1];
+        }
+        return (count == 0) ? 0 : points / count;
+    }
+
+    // Total {students, courses, grades}. Students copied to several shards
+    // are counted once per shard that holds them.
+    public int[] counts() {
+        int[] totals = new int[3];
+        for (int[] partial : scatter(GradebookShard::counts)) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += partial[i];
+            }
+        }
+        return totals;
+    }
+
+    // Run a call on every shard at once and collect the results in shard order
+    private <T> List<T> scatter(Function<GradebookShard, T> call) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (GradebookShard shard : shards) {
+            futures.add(scatterPool.submit(() -> call.apply(shard)));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        scatterPool.shutdownNow();
+        for (GradebookShard shard : shards) {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * QueryPlan.java
+ *
+ * Plan shared by GradeQuery, CourseQuery and StudentQuery.
+ *
+ * A plan has a list of candidate access paths (an index lookup or a scan),
+ * each with an estimated number of rows it would produce, and a filter made
+ * of every predicate of the query. The planner picks the candidate with the
+ * smallest estimate; the filter is then applied to each row it produces, so
+ * an index only narrows the rows and never changes the answer.
+ *
+ * Estimates are exact row counts of the index entry where that is cheap to
+ * know (the size of a roster or of a course's grade list), so the choice is
+ * not a guess. Grades an EntityLoader has not loaded yet are estimated by
+ * enrollment counts instead. Only the chosen candidate produces its rows,
+ * so planning itself never loads grades.
+ */
+class QueryPlan<T> {
+
+    // Scans of at least this many rows run as a parallel stream
+    static final int PARALLEL_THRESHOLD = 10_000;
+
+    // One way of producing candidate rows
+    static final class Access<T> {
+        final String description;
+        final long estimate;
+        final Supplier<Collection<T>> rows;
+        final boolean parallel;
+
+        Access(String description, long estimate, Supplier<Collection<T>> rows, boolean parallel) {
+            this.description = description;
+            this.estimate = estimate;
+            this.rows = rows;
+            this.parallel = parallel;
+        }
+    }
+
+    private final String target;
+    private final List<Access<T>> candidates = new ArrayList<>();
+    private final List<String> conditions = new ArrayList<>();
+    private Predicate<T> filter = row -> true;
+
+    QueryPlan(String target) {
+        this.target = target;
+    }
+
+    void addIndex(String description, long estimate, Supplier<Collection<T>> rows) {
+        candidates.add(new Access<>("index " + description, estimate, rows, false));
+    }
+
+    // A scan runs in parallel when it is large and safe (no lazy loading on the way)
+    void addScan(Collection<T> rows, boolean parallelAllowed) {
+        boolean parallel = parallelAllowed && rows.size() >= PARALLEL_THRESHOLD;
+        candidates.add(new Access<>(parallel ? "parallel scan" : "scan", rows.size(), () -> rows, parallel));
+    }
+
+    void addCondition(String description, Predicate<T> predicate) {
+        conditions.add(description);
+        filter = filter.and(predicate);
+    }
+
+    // The candidate with the smallest estimate (the first one added on ties, so an index beats the scan)
+    Access<T> chosen() {
+        Access<T> best = null;
+        for (Access<T> access : candidates) {
+            if (best == null || access.estimate < best.estimate) {
+                best = access;
+            }
+        }
+        return best;
+    }
+
+    List<T> execute() {
+        Access<T> access = chosen();
+        Collection<T> rows = access.rows.get();
+        return (access.parallel ? rows.parallelStream() : rows.stream())
+                .filter(filter)
+                .collect(Collectors.toList());
+    }
+
+    String explain() {
+        StringBuilder text = new StringBuilder();
+        text.append("QUERY ").append(target);
+        if (!conditions.isEmpty()) {
+            text.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        text.append('\n').append("  candidates:\n");
+        Access<T> best = chosen();
+        for (Access<T> access : candidates) {
+            text.append(access == best ? "  * " : "    ")
+                .append(String.format("%-50s est. %,d rows%n", access.description, access.estimate));
+        }
+        text.append("  chosen: ").append(best.description).append('\n');
+        text.append("  filter: ")
+            .append(conditions.isEmpty() ? "none" : "every condition re-checked on each row")
+            .append('\n');
+        return text.toString();
+    }
+}
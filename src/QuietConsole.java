@@ -0,0 +1,36 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * QuietConsole.java
+ *
+ * The domain classes report every action with System.out.println, which is
+ * helpful in the interactive menu but far too slow when a server or a batch
+ * job performs millions of operations. This helper temporarily replaces
+ * System.out with a stream that discards everything.
+ *
+ * Usage:
+ *   PrintStream original = QuietConsole.mute();
+ *   try { ... } finally { QuietConsole.restore(original); }
+ */
+public final class QuietConsole {
+
+    // STATIC VARIABLE: A single stream that throws away all output
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    // Utility class - no instances
+    private QuietConsole() {
+    }
+
+    // STATIC METHOD: Silence System.out and return the stream that was active
+    public static PrintStream mute() {
+        PrintStream original = System.out;
+        System.setOut(DISCARD);
+        return original;
+    }
+
+    // STATIC METHOD: Put back the stream returned by mute()
+    public static void restore(PrintStream original) {
+        System.setOut(original);
+    }
+}
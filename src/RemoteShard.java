@@ -0,0 +1,192 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+
+/**
+ * RemoteShard.java
+ *
+ * A GradebookShard that forwards every call to a ShardServer running in
+ * another local process. Calls on one RemoteShard are serialized over a
+ * single connection; use one RemoteShard per shard process.
+ *
+ * OOP Concepts demonstrated:
+ * - Interfaces: Same GradebookShard contract as LocalShard
+ * - Encapsulation: Socket handling is hidden from the router
+ */
+public class RemoteShard implements GradebookShard {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public RemoteShard(String host, int port) {
+        try {
+            this.socket = new Socket(host, port);
+            this.socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot connect to shard at " + host + ":" + port, e);
+        }
+    }
+
+    @Override
+    public synchronized void addStudent(String name, String email, String password,
+                                        String studentNumber, int enrollmentYear) {
+        try {
+            out.writeByte(ShardServer.OP_ADD_STUDENT);
+            out.writeUTF(name);
+            out.writeUTF(email);
+            out.writeUTF((password == null) ? "" : password);  // "" = no password
+            out.writeUTF(studentNumber);
+            out.writeInt(enrollmentYear);
+            send();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasStudent(String studentNumber) {
+        return keyQuery(ShardServer.OP_HAS_STUDENT, studentNumber);
+    }
+
+    @Override
+    public synchronized String[] getStudentRecord(String studentNumber) {
+        try {
+            out.writeByte(ShardServer.OP_GET_STUDENT);
+            out.writeUTF(studentNumber);
+            send();
+            if (!in.readBoolean()) {
+                return null;
+            }
+            String[] record = new String[3];
+            for (int i = 0; i < record.length; i++) {
+                record[i] = in.readUTF();
+            }
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void addCourse(String courseCode, String courseName, int credits) {
+        try {
+            out.writeByte(ShardServer.OP_ADD_COURSE);
+            out.writeUTF(courseCode);
+            out.writeUTF(courseName);
+            out.writeInt(credits);
+            send();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasCourse(String courseCode) {
+        return keyQuery(ShardServer.OP_HAS_COURSE, courseCode);
+    }
+
+    @Override
+    public synchronized boolean enrollStudent(String studentNumber, String courseCode) {
+        try {
+            out.writeByte(ShardServer.OP_ENROLL);
+            out.writeUTF(studentNumber);
+            out.writeUTF(courseCode);
+            send();
+            return in.readBoolean();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean addGrade(String studentNumber, String courseCode, double score) {
+        return gradeWrite(ShardServer.OP_ADD_GRADE, studentNumber, courseCode, score);
+    }
+
+    @Override
+    public synchronized boolean updateGrade(String studentNumber, String courseCode, double newScore) {
+        return gradeWrite(ShardServer.OP_UPDATE_GRADE, studentNumber, courseCode, newScore);
+    }
+
+    @Override
+    public synchronized double[] studentGradePoints(String studentNumber) {
+        return totalsQuery(ShardServer.OP_STUDENT_POINTS, studentNumber);
+    }
+
+    @Override
+    public synchronized double[] courseScoreTotals(String courseCode) {
+        return totalsQuery(ShardServer.OP_COURSE_TOTALS, courseCode);
+    }
+
+    @Override
+    public synchronized int[] counts() {
+        try {
+            out.writeByte(ShardServer.OP_COUNTS);
+            send();
+            return new int[] {in.readInt(), in.readInt(), in.readInt()};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    // Flush the request and check the status flag of the reply
+    private void send() throws IOException {
+        out.flush();
+        if (!in.readBoolean()) {
+            throw new IllegalStateException("Shard error: " + in.readUTF());
+        }
+    }
+
+    private boolean keyQuery(byte op, String key) {
+        try {
+            out.writeByte(op);
+            out.writeUTF(key);
+            send();
+            return in.readBoolean();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean gradeWrite(byte op, String studentNumber, String courseCode, double score) {
+        try {
+            out.writeByte(op);
+            out.writeUTF(studentNumber);
+            out.writeUTF(courseCode);
+            out.writeDouble(score);
+            send();
+            return in.readBoolean();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private double[] totalsQuery(byte op, String key) {
+        try {
+            out.writeByte(op);
+            out.writeUTF(key);
+            send();
+            return new double[] {in.readDouble(), in.readDouble()};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * ReplicationPrimary.java
+ *
+ * Log-shipping replication from the Gradebook that takes the writes (the
+ * primary) to read-only replicas in other local processes (see
+ * GradebookReplica).
+ *
+ * The primary is a GradebookListener. Every mutation event is encoded
+ * once into a compact binary record (opcode, int IDs, course code, score)
+ * with a sequence number and the commit time, and appended to an
+ * in-memory log. Each replica connection has its own sender thread that
+ * reads the log from the replica's position, so a slow replica never
+ * holds up grade entry or the other replicas.
+ *
+ * Catch-up: a replica connects with the run ID of the primary it was
+ * following and the sequence number it has applied. The run ID is drawn
+ * at random by every primary process, since sequences start again at 1
+ * when a primary restarts. If the run ID matches and the log still holds
+ * everything after the sequence, the replica is sent the tail. Otherwise
+ * (a new replica, one that followed another run, or one that fell too far
+ * behind) it is sent a snapshot of the whole gradebook taken at a known sequence
+ * number, followed by the records after it. Replicas apply records
+ * idempotently, so replaying a record already contained in the snapshot
+ * is harmless.
+ *
+ * Replicas are served on the loopback interface only: the stream carries
+ * the whole gradebook and is not authenticated.
+ *
+ * Rosters of stub courses are replicated when they are loaded
+ * (rosterLoaded), not when the course is registered.
+ *
+ * Snapshots read the gradebook from the sender thread under the gradebook
+ * lock, which every change but a score update holds (see Gradebook). A
+ * score a snapshot sees before its update is logged is set again when the
+ * replica applies the log, which changes nothing.
+ *
+ * Start a primary fed by batch commands on stdin with:
+ *   java ReplicationPrimary --port=7201 [--students=N --seed=S] < commands.txt
+ */
+public class ReplicationPrimary implements GradebookListener, AutoCloseable {
+
+    // STATIC VARIABLES: Message types on the replication stream
+    static final byte MSG_RECORD = 1;      // seq, commit time, record
+    static final byte MSG_SNAPSHOT = 2;    // seq, run ID, primary time, records..., OP_END
+    static final byte MSG_HEARTBEAT = 3;   // last seq, primary time
+
+    // STATIC VARIABLES: Record opcodes (students and teachers by ID, courses by code)
+    static final byte OP_END = 0;
+    static final byte OP_ADD_STUDENT = 1;
+    static final byte OP_REMOVE_STUDENT = 2;
+    static final byte OP_ADD_TEACHER = 3;
+    static final byte OP_REMOVE_TEACHER = 4;
+    static final byte OP_ADD_COURSE = 5;
+    static final byte OP_REMOVE_COURSE = 6;
+    static final byte OP_COURSE_TEACHER = 7;
+    static final byte OP_ENROLL = 8;
+    static final byte OP_UNENROLL = 9;
+    static final byte OP_SET_GRADE = 10;
+    static final byte OP_REMOVE_GRADE = 11;
+
+    // Teacher ID sent for "no teacher"
+    static final int NO_TEACHER = -1;
+
+    // Run ID sent by a replica that has not followed any primary yet
+    static final long NO_RUN = 0;
+
+    // A heartbeat is sent when a replica has had nothing else for this long
+    static final int HEARTBEAT_MILLIS = 100;
+
+    // Records copied out of the log per lock acquisition by a sender
+    private static final int SEND_BATCH = 256;
+
+    private final Gradebook gradebook;
+
+    // Identifies this primary process to its replicas; never NO_RUN
+    private final long runId;
+
+    // LOG: Ring of encoded MSG_RECORD messages; sequence n is at n % log.length.
+    // It holds sequences firstSequence..lastSequence, at most log.length of them.
+    private final byte[][] log;
+    private long firstSequence = 1;
+    private long lastSequence = 0;
+
+    // Reused by the listener methods, which run one at a time under the log lock
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(64);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+    private ServerSocket server;
+    private volatile boolean closed;
+
+    private ReplicationPrimary(Gradebook gradebook, int retainedRecords) {
+        this.gradebook = gradebook;
+        this.log = new byte[retainedRecords][];
+        long id;
+        do {
+            id = new SecureRandom().nextLong();
+        } while (id == NO_RUN);
+        this.runId = id;
+    }
+
+    // STATIC METHOD: Start logging the gradebook's mutations (replicas are served after listen())
+    public static ReplicationPrimary attach(Gradebook gradebook, int retainedRecords) {
+        ReplicationPrimary primary = new ReplicationPrimary(gradebook, retainedRecords);
+        gradebook.addListener(primary);
+        return primary;
+    }
+
+    // Accept replica connections from this machine on a background thread
+    public void listen(int port) throws IOException {
+        server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (!closed) {
+                try {
+                    Socket socket = server.accept();
+                    Thread sender = new Thread(() -> serve(socket), "replica-" + socket.getPort());
+                    sender.setDaemon(true);
+                    sender.start();
+                } catch (IOException e) {
+                    if (!closed) {
+                        System.err.println("Replication accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        }, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public long getRunId() {
+        return runId;
+    }
+
+    public long getLastSequence() {
+        synchronized (log) {
+            return lastSequence;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        gradebook.removeListener(this);
+        synchronized (log) {
+            log.notifyAll();
+        }
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // ==================== LOGGING ====================
+
+    @Override
+    public void studentAdded(Student student) {
+        synchronized (log) {
+            encodeStudent(record, student);
+            append();
+        }
+    }
+
+    @Override
+    public void studentRemoved(Student student) {
+        appendIdRecord(OP_REMOVE_STUDENT, student.getId());
+    }
+
+    @Override
+    public void teacherAdded(Teacher teacher) {
+        synchronized (log) {
+            encodeTeacher(record, teacher);
+            append();
+        }
+    }
+
+    @Override
+    public void teacherRemoved(Teacher teacher) {
+        appendIdRecord(OP_REMOVE_TEACHER, teacher.getId());
+    }
+
+    // A course may be registered with a teacher and a roster already set
+    @Override
+    public void courseAdded(Course course) {
+        synchronized (log) {
+            encodeCourse(record, course);
+            append();
+            Teacher teacher = course.getTeacher();
+            if (teacher != null) {
+                courseTeacherChanged(course, null, teacher);
+            }
+            if (course.isRosterLoaded()) {
+                rosterLoaded(course);
+            }
+        }
+    }
+
+    @Override
+    public void rosterLoaded(Course course) {
+        synchronized (log) {
+            for (Student student : course.getEnrolledStudents()) {
+                studentEnrolled(student, course);
+            }
+        }
+    }
+
+    @Override
+    public void courseRemoved(Course course) {
+        synchronized (log) {
+            try {
+                record.writeByte(OP_REMOVE_COURSE);
+                record.writeUTF(course.getCourseCode());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            append();
+        }
+    }
+
+    @Override
+    public void courseTeacherChanged(Course course, Teacher oldTeacher, Teacher newTeacher) {
+        synchronized (log) {
+            encodeCourseTeacher(record, course, newTeacher);
+            append();
+        }
+    }
+
+    @Override
+    public void studentEnrolled(Student student, Course course) {
+        synchronized (log) {
+            encodeEnrollment(record, OP_ENROLL, student, course);
+            append();
+        }
+    }
+
+    @Override
+    public void studentUnenrolled(Student student, Course course) {
+        synchronized (log) {
+            encodeEnrollment(record, OP_UNENROLL, student, course);
+            append();
+        }
+    }
+
+    @Override
+    public void gradeAdded(Grade grade) {
+        synchronized (log) {
+            encodeGrade(record, grade, grade.getScore());
+            append();
+        }
+    }
+
+    @Override
+    public void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        synchronized (log) {
+            encodeGrade(record, grade, newScore);  // Both are "set the score"
+            append();
+        }
+    }
+
+    @Override
+    public void gradeRemoved(Grade grade) {
+        synchronized (log) {
+            encodeEnrollment(record, OP_REMOVE_GRADE, grade.getStudent(), grade.getCourse());
+            append();
+        }
+    }
+
+    private void appendIdRecord(byte op, int id) {
+        synchronized (log) {
+            try {
+                record.writeByte(op);
+                record.writeInt(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            append();
+        }
+    }
+
+    // Frame the record in recordBytes as the next MSG_RECORD and wake the senders
+    private void append() {
+        byte[] body = recordBytes.toByteArray();
+        recordBytes.reset();
+        long sequence = ++lastSequence;
+        try {
+            record.writeByte(MSG_RECORD);
+            record.writeLong(sequence);
+            record.writeLong(System.currentTimeMillis());
+            record.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log[(int) (sequence % log.length)] = recordBytes.toByteArray();
+        recordBytes.reset();
+        if (sequence - firstSequence >= log.length) {
+            firstSequence++;  // The oldest record was just overwritten
+        }
+        log.notifyAll();
+    }
+
+    // ==================== RECORD ENCODING ====================
+    // Shared by the live log and by snapshots
+
+    private static void encodeStudent(DataOutputStream out, Student student) {
+        try {
+            out.writeByte(OP_ADD_STUDENT);
+            out.writeInt(student.getId());
+            out.writeUTF(student.getName());
+            out.writeUTF(student.getEmail());
+            out.writeUTF(student.getStudentNumber());
+            out.writeShort(student.getEnrollmentYear());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void encodeTeacher(DataOutputStream out, Teacher teacher) {
+        try {
+            out.writeByte(OP_ADD_TEACHER);
+            out.writeInt(teacher.getId());
+            out.writeUTF(teacher.getName());
+            out.writeUTF(teacher.getEmail());
+            out.writeUTF(nullToEmpty(teacher.getDepartment()));
+            out.writeUTF(nullToEmpty(teacher.getTitle()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void encodeCourse(DataOutputStream out, Course course) {
+        try {
+            out.writeByte(OP_ADD_COURSE);
+            out.writeUTF(course.getCourseCode());
+            out.writeUTF(course.getCourseName());
+            out.writeShort(course.getCredits());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // STATIC METHOD: writeUTF cannot write null; replicas read "" back as null
+    private static String nullToEmpty(String value) {
+        return (value == null) ? "" : value;
+    }
+
+    private static void encodeCourseTeacher(DataOutputStream out, Course course, Teacher teacher) {
+        try {
+            out.writeByte(OP_COURSE_TEACHER);
+            out.writeUTF(course.getCourseCode());
+            out.writeInt((teacher == null) ? NO_TEACHER : teacher.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void encodeEnrollment(DataOutputStream out, byte op, Student student, Course course) {
+        try {
+            out.writeByte(op);
+            out.writeInt(student.getId());
+            out.writeUTF(course.getCourseCode());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void encodeGrade(DataOutputStream out, Grade grade, double score) {
+        try {
+            out.writeByte(OP_SET_GRADE);
+            out.writeInt(grade.getStudent().getId());
+            out.writeUTF(grade.getCourse().getCourseCode());
+            out.writeDouble(score);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The whole gradebook as records: teachers, students, courses, enrollments, grades
+    private byte[] encodeSnapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Teacher teacher : gradebook.getTeachers()) {
+            encodeTeacher(out, teacher);
+        }
+        for (Student student : gradebook.getStudents()) {
+            encodeStudent(out, student);
+        }
+        for (Course course : gradebook.getCourses()) {
+            encodeCourse(out, course);
+            Teacher teacher = course.getTeacher();
+            if (teacher != null) {
+                encodeCourseTeacher(out, course, teacher);
+            }
+            if (course.isRosterLoaded()) {
+                for (Student student : course.getEnrolledStudents()) {
+                    encodeEnrollment(out, OP_ENROLL, student, course);
+                }
+            }
+            for (Grade grade : gradebook.gradesOf(course)) {
+                encodeGrade(out, grade, grade.getScore());
+            }
+        }
+        try {
+            out.writeByte(OP_END);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // ==================== SENDING ====================
+
+    // One replica connection: catch it up, then stream the log until it disconnects
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 1 << 16))) {
+            s.setTcpNoDelay(true);
+            long replicaRunId = in.readLong();
+            long applied = in.readLong();
+            long next = catchUp(replicaRunId, applied, out);
+            byte[][] batch = new byte[SEND_BATCH][];
+            while (!closed) {
+                int count;
+                long last;
+                synchronized (log) {
+                    if (next > lastSequence) {
+                        log.wait(HEARTBEAT_MILLIS);
+                    }
+                    if (next < firstSequence) {
+                        // Fell out of the retained log; the replica reconnects and gets a snapshot
+                        throw new IOException("Replica fell behind the retained log at " + next);
+                    }
+                    last = lastSequence;
+                    count = (int) Math.min(SEND_BATCH, last - next + 1);
+                    for (int i = 0; i < count; i++) {
+                        batch[i] = log[(int) ((next + i) % log.length)];
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    out.write(batch[i]);
+                    batch[i] = null;
+                }
+                next += count;
+                if (count == 0) {
+                    out.writeByte(MSG_HEARTBEAT);
+                    out.writeLong(last);
+                    out.writeLong(System.currentTimeMillis());
+                }
+                if (count < SEND_BATCH) {
+                    out.flush();  // Caught up: push out what is buffered (never under the log lock)
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Replica disconnected: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Send what the replica is missing up to now; returns the next sequence to send
+    private long catchUp(long replicaRunId, long applied, DataOutputStream out) throws IOException {
+        synchronized (log) {
+            if (replicaRunId == runId && applied >= 0
+                    && applied + 1 >= firstSequence && applied <= lastSequence) {
+                return applied + 1;  // The tail is still in the log
+            }
+        }
+        long sequence;
+        byte[] snapshot;
+        synchronized (gradebook) {
+            synchronized (log) {
+                sequence = lastSequence;
+            }
+            snapshot = encodeSnapshot();
+        }
+        out.writeByte(MSG_SNAPSHOT);
+        out.writeLong(sequence);
+        out.writeLong(runId);
+        out.writeLong(System.currentTimeMillis());
+        out.write(snapshot);
+        out.flush();
+        System.err.printf("Sent a snapshot at sequence %,d (%,d bytes)%n", sequence, snapshot.length);
+        return sequence + 1;
+    }
+
+    // ==================== PRIMARY PROCESS ====================
+
+    public static void main(String[] args) throws IOException {
+        int port = 7201;
+        int students = 0;
+        long seed = 42;
+        int retained = 1_000_000;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--port": port = Integer.parseInt(parts[1]); break;
+                case "--students": students = Integer.parseInt(parts[1]); break;
+                case "--seed": seed = Long.parseLong(parts[1]); break;
+                case "--retain": retained = Integer.parseInt(parts[1]); break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        Gradebook gradebook = Gradebook.createPartition();
+        if (students > 0) {
+            WorkloadGenerator generator = new WorkloadGenerator(seed);
+            generator.setStudentCount(students);
+            generator.populate(gradebook);
+        }
+        ReplicationPrimary primary = attach(gradebook, retained);
+        primary.listen(port);
+        System.err.println("Replication primary listening on port " + port);
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        BatchCommands batch = new BatchCommands(gradebook, out);
+        batch.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16));
+        System.err.printf("%,d commands applied, last sequence %,d; serving replicas until killed%n",
+                          batch.getExecuted(), primary.getLastSequence());
+        try {
+            Thread.currentThread().join();  // Keep serving snapshots and heartbeats
+        } catch (InterruptedException e) {
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ReportCache.java
+ *
+ * Bounded cache of the rendered grade reports shown by Main: a student's
+ * grades with their GPA, and a course's grades with its average.
+ *
+ * Around grade release the same pages are refreshed again and again, and
+ * each refresh re-renders every grade and re-scans them for the GPA or
+ * average. The cache keeps the finished text instead, keyed by the Student
+ * or Course object, so a repeat read is a single map lookup.
+ *
+ * Entries are dropped exactly when their text could change, from the
+ * GradebookListener events:
+ * - a grade added, updated or removed: its student and its course
+ * - a student enrolled or unenrolled: that student and that course
+ * - a course's teacher changed, or the student or course removed
+ * Name changes made through setters after registration are not events,
+ * so call invalidateAll() after renaming.
+ *
+ * The cache is bounded by entry count and by total weight (characters of
+ * cached text), and evicts the least recently used entries to fit.
+ * All methods are synchronized: rendering happens under the lock, so an
+ * invalidation can never be overwritten by a report rendered before it.
+ */
+public class ReportCache implements GradebookListener {
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer STUDENT_REPORT_TIMER =
+            OperationMetrics.timer("ReportCache.studentReport");
+    private static final OperationTimer COURSE_REPORT_TIMER =
+            OperationMetrics.timer("ReportCache.courseReport");
+
+    private final Gradebook gradebook;
+    private final int maxEntries;
+    private final long maxWeight;
+
+    // COLLECTIONS: Rendered text by Student or Course, in access order (eldest first)
+    private final LinkedHashMap<Object, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private ReportCache(Gradebook gradebook, int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.gradebook = gradebook;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    // STATIC METHOD: Create an empty cache and keep it in step with the gradebook
+    public static ReportCache attach(Gradebook gradebook, int maxEntries, long maxWeight) {
+        ReportCache cache = new ReportCache(gradebook, maxEntries, maxWeight);
+        gradebook.addListener(cache);
+        return cache;
+    }
+
+    // ==================== READS ====================
+
+    // The student's grades followed by their GPA
+    public synchronized String studentReport(Student student) {
+        long start = STUDENT_REPORT_TIMER.start();
+        try {
+            String text = lookup(student);
+            if (text == null) {
+                text = gradebook.renderStudentGrades(student)
+                        + "Student GPA: " + String.format("%.2f", gradebook.calculateStudentGPA(student)) + "\n";
+                store(student, text);
+            }
+            return text;
+        } finally {
+            STUDENT_REPORT_TIMER.stop(start);
+        }
+    }
+
+    // The course's grades followed by its average
+    public synchronized String courseReport(Course course) {
+        long start = COURSE_REPORT_TIMER.start();
+        try {
+            String text = lookup(course);
+            if (text == null) {
+                text = gradebook.renderCourseGrades(course)
+                        + "Course Average: " + String.format("%.2f", gradebook.calculateCourseAverage(course)) + "\n";
+                store(course, text);
+            }
+            return text;
+        } finally {
+            COURSE_REPORT_TIMER.stop(start);
+        }
+    }
+
+    private String lookup(Object key) {
+        String text = entries.get(key);
+        if (text == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return text;
+    }
+
+    private void store(Object key, String text) {
+        if (text.length() > maxWeight) {
+            return;  // Would evict everything and still not fit
+        }
+        entries.put(key, text);
+        weight += text.length();
+        Iterator<String> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= eldest.next().length();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // ==================== INVALIDATION ====================
+
+    public synchronized void invalidate(Object studentOrCourse) {
+        String text = entries.remove(studentOrCourse);
+        if (text != null) {
+            weight -= text.length();
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+        weight = 0;
+    }
+
+    @Override
+    public void gradeAdded(Grade grade) {
+        invalidate(grade.getStudent());
+        invalidate(grade.getCourse());
+    }
+
+    @Override
+    public void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        invalidate(grade.getStudent());
+        invalidate(grade.getCourse());
+    }
+
+    @Override
+    public void gradeRemoved(Grade grade) {
+        invalidate(grade.getStudent());
+        invalidate(grade.getCourse());
+    }
+
+    @Override
+    public void studentRemoved(Student student) {
+        invalidate(student);
+    }
+
+    @Override
+    public void studentEnrolled(Student student, Course course) {
+        invalidate(student);
+        invalidate(course);
+    }
+
+    @Override
+    public void studentUnenrolled(Student student, Course course) {
+        invalidate(student);
+        invalidate(course);
+    }
+
+    @Override
+    public void courseRemoved(Course course) {
+        invalidate(course);
+    }
+
+    @Override
+    public void courseTeacherChanged(Course course, Teacher oldTeacher, Teacher newTeacher) {
+        invalidate(course);
+    }
+
+    // ==================== STATISTICS ====================
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Characters of cached text
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized String summary() {
+        long reads = hits + misses;
+        return String.format("%d entries, %,d chars, %d hits / %d reads (%.1f%%), %d evictions, %d invalidations",
+                entries.size(), weight, hits, reads, (reads == 0) ? 0.0 : 100.0 * hits / reads,
+                evictions, invalidations);
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * ScoreIndex.java
+ *
+ * Sorted index of grades by score, kept up to date by listening to a
+ * Gradebook (see Gradebook.enableScoreIndex()).
+ *
+ * Grades are grouped into buckets of equal score, and the buckets are kept
+ * in a TreeMap. Scores are usually whole or half points, so there are only
+ * a few hundred buckets however many grades there are. A range query finds
+ * the first bucket in O(log n) and then walks only the matching buckets,
+ * so it costs O(log n + k) for k results.
+ *
+ * The index also maintains the at-risk set: the students with at least one
+ * failing grade (below Grade.PASSING_SCORE). It is updated only when a
+ * score crosses the pass line, and getAtRiskStudents() is a live view.
+ *
+ * Like Gradebook, the index is not thread-safe: with parallel graders,
+ * query it under the gradebook lock (see GradebookListener).
+ */
+public class ScoreIndex implements GradebookListener {
+
+    // COLLECTIONS: score -> grades with exactly that score
+    private final TreeMap<Double, LinkedHashSet<Grade>> buckets = new TreeMap<>();
+    private int size;
+
+    // At-risk students and their number of failing grades
+    private final HashMap<Student, Integer> failingCounts = new HashMap<>();
+    private final Set<Student> atRiskView = Collections.unmodifiableSet(failingCounts.keySet());
+
+    // Package-private: created by Gradebook.enableScoreIndex()
+    ScoreIndex(Collection<Grade> existing) {
+        for (Grade grade : existing) {
+            gradeAdded(grade);
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    // Grades with low <= score <= high, in ascending score order
+    public List<Grade> between(double low, double high) {
+        return collect(range(low, true, high, true));
+    }
+
+    // Grades with score < limit
+    public List<Grade> below(double limit) {
+        return collect(buckets.headMap(limit, false));
+    }
+
+    // Grades with score >= limit
+    public List<Grade> atLeast(double limit) {
+        return collect(buckets.tailMap(limit, true));
+    }
+
+    // Every failing grade
+    public List<Grade> failing() {
+        return below(Grade.PASSING_SCORE);
+    }
+
+    // Number of grades in a range, walking buckets only (no grades are touched)
+    public int countBetween(double low, boolean lowInclusive, double high, boolean highInclusive) {
+        int count = 0;
+        for (LinkedHashSet<Grade> bucket : range(low, lowInclusive, high, highInclusive).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    // Grades in a range with either end open or closed
+    public List<Grade> inRange(double low, boolean lowInclusive, double high, boolean highInclusive) {
+        return collect(range(low, lowInclusive, high, highInclusive));
+    }
+
+    // Live, read-only set of students with at least one failing grade
+    public Set<Student> getAtRiskStudents() {
+        return atRiskView;
+    }
+
+    public int getFailingCount(Student student) {
+        return failingCounts.getOrDefault(student, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private NavigableMap<Double, LinkedHashSet<Grade>> range(double low, boolean lowInclusive,
+                                                             double high, boolean highInclusive) {
+        if (low > high || (low == high && !(lowInclusive && highInclusive))) {
+            return Collections.emptyNavigableMap();
+        }
+        return buckets.subMap(low, lowInclusive, high, highInclusive);
+    }
+
+    private static List<Grade> collect(Map<Double, LinkedHashSet<Grade>> range) {
+        List<Grade> result = new ArrayList<>();
+        for (LinkedHashSet<Grade> bucket : range.values()) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    @Override
+    public void gradeAdded(Grade grade) {
+        insert(grade, grade.getScore());
+        if (!grade.isPassing()) {
+            changeFailing(grade.getStudent(), 1);
+        }
+    }
+
+    @Override
+    public void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        remove(grade, oldScore);
+        insert(grade, newScore);
+        boolean wasPassing = oldScore >= Grade.PASSING_SCORE;
+        if (wasPassing != (newScore >= Grade.PASSING_SCORE)) {
+            changeFailing(grade.getStudent(), wasPassing ? 1 : -1);
+        }
+    }
+
+    @Override
+    public void gradeRemoved(Grade grade) {
+        remove(grade, grade.getScore());
+        if (!grade.isPassing()) {
+            changeFailing(grade.getStudent(), -1);
+        }
+    }
+
+    private void insert(Grade grade, double score) {
+        if (buckets.computeIfAbsent(score, s -> new LinkedHashSet<>()).add(grade)) {
+            size++;
+        }
+    }
+
+    private void remove(Grade grade, double score) {
+        LinkedHashSet<Grade> bucket = buckets.get(score);
+        if (bucket != null && bucket.remove(grade)) {
+            size--;
+            if (bucket.isEmpty()) {
+                buckets.remove(score);
+            }
+        }
+    }
+
+    private void changeFailing(Student student, int delta) {
+        int count = failingCounts.getOrDefault(student, 0) + delta;
+        if (count > 0) {
+            failingCounts.put(student, count);
+        } else {
+            failingCounts.remove(student);
+        }
+    }
+}
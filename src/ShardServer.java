@@ -0,0 +1,196 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * ShardServer.java
+ *
+ * Runs one Gradebook partition as a separate local process so that a
+ * PartitionedGradebook can spread its data over several JVMs.
+ *
+ * Start a shard with:
+ *   java ShardServer 7101
+ * and connect to it with new RemoteShard("localhost", 7101). The server
+ * only listens on the loopback interface: the protocol has no
+ * authentication, so it must not be reachable from other hosts.
+ *
+ * Protocol: every request is one opcode byte followed by its arguments
+ * (DataOutputStream encoding). Every reply starts with a boolean; true is
+ * followed by the result, false by an error message. A request that fails
+ * (a write refused by a read-only replica, a bad argument) gets an error
+ * reply and the connection stays open.
+ *
+ * Any GradebookShard can be served, including a read-only GradebookReplica,
+ * which refuses writes with an error reply.
+ */
+public class ShardServer {
+
+    // STATIC VARIABLES: Opcodes shared with RemoteShard
+    static final byte OP_ADD_STUDENT = 1;
+    static final byte OP_HAS_STUDENT = 2;
+    static final byte OP_GET_STUDENT = 3;
+    static final byte OP_ADD_COURSE = 4;
+    static final byte OP_HAS_COURSE = 5;
+    static final byte OP_ENROLL = 6;
+    static final byte OP_ADD_GRADE = 7;
+    static final byte OP_UPDATE_GRADE = 8;
+    static final byte OP_STUDENT_POINTS = 9;
+    static final byte OP_COURSE_TOTALS = 10;
+    static final byte OP_COUNTS = 11;
+
+    private final GradebookShard shard;
+    private final int port;
+
+    public ShardServer(GradebookShard shard, int port) {
+        this.shard = shard;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7101;
+        System.out.println("Gradebook shard listening on port " + port);
+        // The gradebook prints a line per operation; keep the server quiet
+        QuietConsole.mute();
+        new ShardServer(new LocalShard(), port).serve();
+    }
+
+    // Accept connections forever, one thread per client
+    public void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            while (true) {
+                Socket socket = server.accept();
+                Thread worker = new Thread(() -> handle(socket), "shard-client-" + socket.getPort());
+                worker.setDaemon(true);
+                worker.start();
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            s.setTcpNoDelay(true);
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return;  // Client closed the connection
+                }
+                // Gradebook is not thread-safe: one request at a time per shard
+                synchronized (shard) {
+                    try {
+                        dispatch(op, in, out);
+                    } catch (RuntimeException e) {
+                        // e.g. a write sent to a read-only replica. The arguments were
+                        // already read and nothing was written yet, so the stream is intact.
+                        out.writeBoolean(false);
+                        out.writeUTF(e.getClass().getSimpleName() + ": " + e.getMessage());
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Shard connection closed: " + e.getMessage());
+        }
+    }
+
+    // Every case reads all its arguments and does its work before writing
+    // the reply, so a RuntimeException never leaves half a reply behind
+    private void dispatch(byte op, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (op) {
+            case OP_ADD_STUDENT: {
+                String name = in.readUTF();
+                String email = in.readUTF();
+                String password = in.readUTF();
+                if (password.isEmpty()) {
+                    password = null;  // A copy of a student from another shard
+                }
+                String number = in.readUTF();
+                int year = in.readInt();
+                shard.addStudent(name, email, password, number, year);
+                out.writeBoolean(true);
+                break;
+            }
+            case OP_HAS_STUDENT:
+                out.writeBoolean(true);
+                out.writeBoolean(shard.hasStudent(in.readUTF()));
+                break;
+            case OP_GET_STUDENT: {
+                String[] record = shard.getStudentRecord(in.readUTF());
+                out.writeBoolean(true);
+                out.writeBoolean(record != null);
+                if (record != null) {
+                    for (String field : record) {
+                        out.writeUTF(field);
+                    }
+                }
+                break;
+            }
+            case OP_ADD_COURSE: {
+                String code = in.readUTF();
+                String name = in.readUTF();
+                int credits = in.readInt();
+                shard.addCourse(code, name, credits);
+                out.writeBoolean(true);
+                break;
+            }
+            case OP_HAS_COURSE:
+                out.writeBoolean(true);
+                out.writeBoolean(shard.hasCourse(in.readUTF()));
+                break;
+            case OP_ENROLL: {
+                String number = in.readUTF();
+                String code = in.readUTF();
+                boolean enrolled = shard.enrollStudent(number, code);
+                out.writeBoolean(true);
+                out.writeBoolean(enrolled);
+                break;
+            }
+            case OP_ADD_GRADE:
+            case OP_UPDATE_GRADE: {
+                String number = in.readUTF();
+                String code = in.readUTF();
+                double score = in.readDouble();
+                boolean done = (op == OP_ADD_GRADE)
+                        ? shard.addGrade(number, code, score)
+                        : shard.updateGrade(number, code, score);
+                out.writeBoolean(true);
+                out.writeBoolean(done);
+                break;
+            }
+            case OP_STUDENT_POINTS:
+            case OP_COURSE_TOTALS: {
+                String key = in.readUTF();
+                double[] totals = (op == OP_STUDENT_POINTS)
+                        ? shard.studentGradePoints(key)
+                        : shard.courseScoreTotals(key);
+                out.writeBoolean(true);
+                out.writeDouble(totals[0]);
+                out.writeDouble(totals[1]);
+                break;
+            }
+            case OP_COUNTS: {
+                int[] counts = shard.counts();
+                out.writeBoolean(true);
+                out.writeInt(counts[0]);
+                out.writeInt(counts[1]);
+                out.writeInt(counts[2]);
+                break;
+            }
+            default:
+                // Unknown opcode: the stream can no longer be trusted
+                out.writeBoolean(false);
+                out.writeUTF("Unknown opcode " + op);
+                out.flush();
+                throw new IOException("Unknown opcode " + op);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary.java
+ *
+ * Dictionary encoding for attributes that take only a few distinct values,
+ * such as departments, titles, access levels and letter grades.
+ *
+ * Each distinct string is stored once and given a small int code. Objects
+ * keep the code instead of their own String, and the string is looked up
+ * again only when it is displayed. Besides saving one String copy per
+ * object, this turns equality filters into int comparisons:
+ *
+ *   int cs = StringDictionary.DEPARTMENTS.codeOf("Computer Science");
+ *   if (teacher.getDepartmentCode() == cs) { ... }
+ *
+ * Codes are never reused or removed, so they stay valid for the lifetime of
+ * the process. They are not stable across processes and must not be saved.
+ */
+public final class StringDictionary {
+
+    // STATIC VARIABLES: Shared dictionaries, one per attribute
+    public static final StringDictionary DEPARTMENTS = new StringDictionary("department");
+    public static final StringDictionary TITLES = new StringDictionary("title");
+    public static final StringDictionary ACCESS_LEVELS = new StringDictionary("accessLevel");
+    public static final StringDictionary LETTER_GRADES = new StringDictionary("letterGrade");
+    public static final StringDictionary COURSE_PREFIXES = new StringDictionary("coursePrefix");
+
+    // Code of null, so that unset attributes need no special case
+    public static final int NULL_CODE = 0;
+
+    // Returned by codeOf() for a string that was never encoded; matches nothing
+    public static final int NOT_FOUND = -1;
+
+    private final String name;
+
+    // COLLECTIONS: String to code, and code to string (index = code)
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size = 1;  // Slot 0 is NULL_CODE
+
+    public StringDictionary(String name) {
+        this.name = name;
+    }
+
+    // Code for the value, adding it to the dictionary if it is new
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = value;
+            values = current;  // Publish the slot before the code can be seen
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    // The string for a code returned by encode()
+    public String decode(int code) {
+        return values[code];
+    }
+
+    // Code for an existing value without adding it: NOT_FOUND if it was never encoded
+    public int codeOf(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return (code == null) ? NOT_FOUND : code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Number of distinct non-null values
+    public int size() {
+        return codes.size();
+    }
+
+    // The distinct values in code order
+    public List<String> values() {
+        String[] current = values;
+        List<String> result = new ArrayList<>();
+        for (int code = 1; code < current.length && current[code] != null; code++) {
+            result.add(current[code]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Student.java
@@ -19,7 +21,18 @@ public class Student extends User {
     private int enrollmentYear;
 
     // COLLECTIONS: ArrayList to store courses the student is enrolled in
+    // LAZY LOADING: null for a stub until the courses are first needed
     private ArrayList<Course> enrolledCourses;
+    private List<Course> enrolledCoursesView;  // Created with the list
+    private EntityLoader loader;
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer DISPLAY_INFO_TIMER =
+            OperationMetrics.timer("Student.displayInfo");
+    private static final OperationTimer ENROLL_IN_COURSE_TIMER =
+            OperationMetrics.timer("Student.enrollInCourse");
+    private static final OperationTimer DROP_COURSE_TIMER =
+            OperationMetrics.timer("Student.dropCourse");
 
     /**
      * Constructor for Student class
@@ -37,21 +50,56 @@ public class Student extends User {
         super(name, email, password);
         this.studentNumber = studentNumber;
         this.enrollmentYear = enrollmentYear;
-        this.enrolledCourses = new ArrayList<>();
+        setCourses(new ArrayList<>());
+    }
+
+    // CONSTRUCTOR OVERLOADING: Stub created by an EntityLoader. Only the ID and
+    // key fields are set; enrolled courses are loaded on first access.
+    public Student(int id, String name, String email, String studentNumber,
+                   int enrollmentYear, EntityLoader loader) {
+        super(id, name, email, null);
+        this.studentNumber = studentNumber;
+        this.enrollmentYear = enrollmentYear;
+        this.enrolledCourses = null;
+        this.loader = loader;
+    }
+
+    // LAZY LOADING: Returns the course list, fetching it from the loader once
+    private ArrayList<Course> courses() {
+        if (enrolledCourses == null) {
+            setCourses(new ArrayList<>(loader.loadEnrolledCourses(this)));
+        }
+        return enrolledCourses;
+    }
+
+    // The course list and its read-only view are created together, once
+    private void setCourses(ArrayList<Course> courses) {
+        this.enrolledCourses = courses;
+        this.enrolledCoursesView = Collections.unmodifiableList(courses);
+    }
+
+    // True if the enrolled courses are in memory (always true for non-stubs)
+    public boolean isLoaded() {
+        return enrolledCourses != null;
     }
 
     // METHOD OVERRIDING: Provides Student-specific implementation
     // The @Override annotation ensures we're actually overriding a parent method
     @Override
     public void displayInfo() {
-        System.out.println("========== STUDENT INFORMATION ==========");
-        System.out.println("User ID: " + getId());
-        System.out.println("Student Number: " + studentNumber);
-        System.out.println("Name: " + getName());
-        System.out.println("Email: " + getEmail());
-        System.out.println("Enrollment Year: " + enrollmentYear);
-        System.out.println("Enrolled Courses: " + enrolledCourses.size());
-        System.out.println("==========================================");
+        long start = DISPLAY_INFO_TIMER.start();
+        try {
+            System.out.println("========== STUDENT INFORMATION ==========");
+            System.out.println("User ID: " + getId());
+            System.out.println("Student Number: " + studentNumber);
+            System.out.println("Name: " + getName());
+            System.out.println("Email: " + getEmail());
+            System.out.println("Enrollment Year: " + enrollmentYear);
+            System.out.println("Enrolled Courses: " + courses().size());
+            System.out.println("==========================================");
+        } finally {
+            DISPLAY_INFO_TIMER.stop(start);
+        }
     }
 
     // METHOD OVERRIDING: Returns "Student" as the role
@@ -62,20 +110,30 @@ public class Student extends User {
 
     // Method to enroll in a course
     public void enrollInCourse(Course course) {
-        if (!enrolledCourses.contains(course)) {
-            enrolledCourses.add(course);
-            System.out.println(getName() + " enrolled in " + course.getCourseName());
-        } else {
-            System.out.println(getName() + " is already enrolled in " + course.getCourseName());
+        long start = ENROLL_IN_COURSE_TIMER.start();
+        try {
+            if (!courses().contains(course)) {
+                courses().add(course);
+                System.out.println(getName() + " enrolled in " + course.getCourseName());
+            } else {
+                System.out.println(getName() + " is already enrolled in " + course.getCourseName());
+            }
+        } finally {
+            ENROLL_IN_COURSE_TIMER.stop(start);
         }
     }
 
     // Method to drop a course
     public void dropCourse(Course course) {
-        if (enrolledCourses.remove(course)) {
-            System.out.println(getName() + " dropped " + course.getCourseName());
-        } else {
-            System.out.println(getName() + " is not enrolled in " + course.getCourseName());
+        long start = DROP_COURSE_TIMER.start();
+        try {
+            if (courses().remove(course)) {
+                System.out.println(getName() + " dropped " + course.getCourseName());
+            } else {
+                System.out.println(getName() + " is not enrolled in " + course.getCourseName());
+            }
+        } finally {
+            DROP_COURSE_TIMER.stop(start);
         }
     }
 
@@ -88,8 +146,12 @@ public class Student extends User {
         return enrollmentYear;
     }
 
-    public ArrayList<Course> getEnrolledCourses() {
-        return enrolledCourses;
+    // Returns a read-only view of the student's courses, which follows later
+    // changes; enroll or remove the student through Course.enrollStudent()
+    // and Course.removeStudent(), which keep both sides in step
+    public List<Course> getEnrolledCourses() {
+        courses();
+        return enrolledCoursesView;
     }
 
     // Setter methods
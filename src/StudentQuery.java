@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * StudentQuery.java
+ *
+ * Ad hoc queries over the students of a Gradebook, for example
+ * "2024 enrollees in OOP101 with a GPA below 2.0":
+ *
+ *   List<Student> students = StudentQuery.on(gradebook)
+ *           .course(course)
+ *           .enrollmentYear(2024)
+ *           .gpaBelow(2.0)
+ *           .list();
+ *
+ * Conditions are combined with AND. The planner reads students through the
+ * course roster when a course is given, and otherwise scans all students
+ * (see QueryPlan). GPAs use the per-student grade index. With an
+ * EntityLoader set, a scan only sees the students loaded so far.
+ */
+public class StudentQuery {
+
+    private final Gradebook gradebook;
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<Predicate<Student>> predicates = new ArrayList<>();
+
+    // Index hint recorded from the conditions
+    private Course course;
+
+    private StudentQuery(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
+    // STATIC METHOD: Start a query
+    public static StudentQuery on(Gradebook gradebook) {
+        return new StudentQuery(gradebook);
+    }
+
+    // ==================== CONDITIONS ====================
+
+    // Students enrolled in the course
+    public StudentQuery course(Course course) {
+        this.course = course;
+        return where("enrolled in " + course.getCourseCode(),
+                     s -> course.getEnrolledStudents().contains(s));
+    }
+
+    public StudentQuery enrollmentYear(int year) {
+        return where("enrollmentYear = " + year, s -> s.getEnrollmentYear() == year);
+    }
+
+    public StudentQuery gpaBelow(double limit) {
+        return where("gpa < " + limit, s -> gradebook.calculateStudentGPA(s) < limit);
+    }
+
+    public StudentQuery gpaAtLeast(double limit) {
+        return where("gpa >= " + limit, s -> gradebook.calculateStudentGPA(s) >= limit);
+    }
+
+    private StudentQuery where(String description, Predicate<Student> predicate) {
+        descriptions.add(description);
+        predicates.add(predicate);
+        return this;
+    }
+
+    // ==================== EXECUTION ====================
+
+    public List<Student> list() {
+        return plan().execute();
+    }
+
+    public String explain() {
+        return plan().explain();
+    }
+
+    QueryPlan<Student> plan() {
+        QueryPlan<Student> plan = new QueryPlan<>("students");
+        if (course != null) {
+            Set<Student> rows = course.getEnrolledStudents();
+            plan.addIndex("roster " + course.getCourseCode(), rows.size(), () -> rows);
+        }
+        plan.addScan(gradebook.getStudents(), gradebook.getEntityLoader() == null);
+        for (int i = 0; i < predicates.size(); i++) {
+            plan.addCondition(descriptions.get(i), predicates.get(i));
+        }
+        return plan;
+    }
+}
@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Teacher.java
@@ -15,11 +17,24 @@ import java.util.ArrayList;
 public class Teacher extends User {
 
     // Teacher-specific fields
-    private String department;
-    private String title;  // e.g., "Professor", "Assistant Professor"
+    // DICTIONARY ENCODING: Stored as StringDictionary codes, since thousands
+    // of teachers share a handful of departments and titles
+    private int departmentCode;
+    private int titleCode;  // e.g., "Professor", "Assistant Professor"
 
     // COLLECTIONS: ArrayList to store courses the teacher teaches
+    // LAZY LOADING: null for a stub until the courses are first needed
     private ArrayList<Course> taughtCourses;
+    private List<Course> taughtCoursesView;  // Created with the list
+    private EntityLoader loader;
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer DISPLAY_INFO_TIMER =
+            OperationMetrics.timer("Teacher.displayInfo");
+    private static final OperationTimer ASSIGN_COURSE_TIMER =
+            OperationMetrics.timer("Teacher.assignCourse");
+    private static final OperationTimer REMOVE_COURSE_TIMER =
+            OperationMetrics.timer("Teacher.removeCourse");
 
     /**
      * Constructor for Teacher class
@@ -35,21 +50,56 @@ public class Teacher extends User {
                    String department, String title) {
         // Call parent class constructor
         super(name, email, password);
-        this.department = department;
-        this.title = title;
-        this.taughtCourses = new ArrayList<>();
+        setDepartment(department);
+        setTitle(title);
+        setCourses(new ArrayList<>());
+    }
+
+    // CONSTRUCTOR OVERLOADING: Stub created by an EntityLoader. Taught
+    // courses are loaded on first access.
+    public Teacher(int id, String name, String email, String department,
+                   String title, EntityLoader loader) {
+        super(id, name, email, null);
+        setDepartment(department);
+        setTitle(title);
+        this.taughtCourses = null;
+        this.loader = loader;
+    }
+
+    // LAZY LOADING: Returns the course list, fetching it from the loader once
+    private ArrayList<Course> courses() {
+        if (taughtCourses == null) {
+            setCourses(new ArrayList<>(loader.loadTaughtCourses(this)));
+        }
+        return taughtCourses;
+    }
+
+    // The course list and its read-only view are created together, once
+    private void setCourses(ArrayList<Course> courses) {
+        this.taughtCourses = courses;
+        this.taughtCoursesView = Collections.unmodifiableList(courses);
+    }
+
+    // True if the taught courses are in memory (always true for non-stubs)
+    public boolean isLoaded() {
+        return taughtCourses != null;
     }
 
     // METHOD OVERRIDING: Provides Teacher-specific implementation
     @Override
     public void displayInfo() {
-        System.out.println("========== TEACHER INFORMATION ==========");
-        System.out.println("User ID: " + getId());
-        System.out.println("Name: " + title + " " + getName());
-        System.out.println("Email: " + getEmail());
-        System.out.println("Department: " + department);
-        System.out.println("Courses Teaching: " + taughtCourses.size());
-        System.out.println("==========================================");
+        long start = DISPLAY_INFO_TIMER.start();
+        try {
+            System.out.println("========== TEACHER INFORMATION ==========");
+            System.out.println("User ID: " + getId());
+            System.out.println("Name: " + getTitle() + " " + getName());
+            System.out.println("Email: " + getEmail());
+            System.out.println("Department: " + getDepartment());
+            System.out.println("Courses Teaching: " + courses().size());
+            System.out.println("==========================================");
+        } finally {
+            DISPLAY_INFO_TIMER.stop(start);
+        }
     }
 
     // METHOD OVERRIDING: Returns "Teacher" as the role
@@ -58,44 +108,80 @@ public class Teacher extends User {
         return "Teacher";
     }
 
-    // Method to assign a course to teach
+    // Method to assign a course to teach (the course's teacher changes too)
     public void assignCourse(Course course) {
-        if (!taughtCourses.contains(course)) {
-            taughtCourses.add(course);
-            System.out.println(getName() + " is now teaching " + course.getCourseName());
-        } else {
-            System.out.println(getName() + " is already teaching " + course.getCourseName());
+        long start = ASSIGN_COURSE_TIMER.start();
+        try {
+            if (course.getTeacher() != this) {
+                course.setTeacher(this);  // Also adds it to this teacher's list
+                System.out.println(getName() + " is now teaching " + course.getCourseName());
+            } else {
+                System.out.println(getName() + " is already teaching " + course.getCourseName());
+            }
+        } finally {
+            ASSIGN_COURSE_TIMER.stop(start);
         }
     }
 
-    // Method to remove a course from teaching
+    // Method to remove a course from teaching (the course is left without a teacher)
     public void removeCourse(Course course) {
-        if (taughtCourses.remove(course)) {
-            System.out.println(getName() + " is no longer teaching " + course.getCourseName());
-        } else {
-            System.out.println(getName() + " was not teaching " + course.getCourseName());
+        long start = REMOVE_COURSE_TIMER.start();
+        try {
+            if (course.getTeacher() == this) {
+                course.setTeacher(null);  // Also drops it from this teacher's list
+                System.out.println(getName() + " is no longer teaching " + course.getCourseName());
+            } else {
+                System.out.println(getName() + " was not teaching " + course.getCourseName());
+            }
+        } finally {
+            REMOVE_COURSE_TIMER.stop(start);
+        }
+    }
+
+    // Package-private: called by Course when its teacher changes, so the
+    // list always holds exactly the courses whose teacher this is
+    void addTaughtCourse(Course course) {
+        if (!courses().contains(course)) {
+            courses().add(course);
         }
     }
 
+    void removeTaughtCourse(Course course) {
+        courses().remove(course);
+    }
+
     // Getter methods for Teacher-specific fields
     public String getDepartment() {
-        return department;
+        return StringDictionary.DEPARTMENTS.decode(departmentCode);
     }
 
     public String getTitle() {
-        return title;
+        return StringDictionary.TITLES.decode(titleCode);
     }
 
-    public ArrayList<Course> getTaughtCourses() {
-        return taughtCourses;
+    // Dictionary codes, for fast equality filters
+    public int getDepartmentCode() {
+        return departmentCode;
+    }
+
+    public int getTitleCode() {
+        return titleCode;
+    }
+
+    // Returns a read-only view of the courses taught, which follows later
+    // changes; change it with assignCourse() and removeCourse() here, or
+    // Course.setTeacher()
+    public List<Course> getTaughtCourses() {
+        courses();
+        return taughtCoursesView;
     }
 
     // Setter methods
     public void setDepartment(String department) {
-        this.department = department;
+        this.departmentCode = StringDictionary.DEPARTMENTS.encode(department);
     }
 
     public void setTitle(String title) {
-        this.title = title;
+        this.titleCode = StringDictionary.TITLES.encode(title);
     }
 }
\ No newline at end of file
@@ -0,0 +1,311 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TermArchive.java
+ *
+ * Splits grades by term: the current term lives in the Gradebook's mutable
+ * in-heap structures as before, and every closed term is sealed into an
+ * immutable TermSegment file that stays queryable.
+ *
+ * Closing a term (closeTerm):
+ * 1. every grade of the current term - those of the registered courses,
+ *    stored grades included, and any other grade held in the gradebook -
+ *    is written to a new segment file, named "<sequence>_<term>.grades"
+ *    so that terms keep their order, with its student map beside it (see
+ *    TermSegment)
+ * 2. every roster is emptied and every grade removed from the Gradebook,
+ *    through the normal removal methods, so listeners and indexes follow
+ * 3. the next term becomes current, starting with no enrollments
+ *
+ * Live operations (lookups, averages, enrollment checks) then only ever
+ * see the current term, however many years of history are archived.
+ * Transcripts and cumulative GPAs combine the segments with the current
+ * term. The Gradebook is locked while a term is closed, like any other
+ * batch of changes.
+ *
+ * Closed terms are looked up by student number, not student ID, since
+ * IDs are handed out again by every process that loads the students.
+ *
+ * Enrollments that never got a grade are not archived. A closed term's
+ * roster is the set of students with a grade in it.
+ *
+ * Usage (close several synthetic terms and compare with keeping them all):
+ *   java TermArchive --dir=terms --students=50000 --terms=6
+ */
+public class TermArchive {
+
+    private static final String SUFFIX = ".grades";
+
+    private final Gradebook gradebook;
+    private final Path directory;
+    private String currentTerm;
+
+    // COLLECTIONS: Closed terms, oldest first, and by term name
+    private final ArrayList<TermSegment> segments = new ArrayList<>();
+    private final HashMap<String, TermSegment> segmentsByTerm = new HashMap<>();
+
+    private TermArchive(Gradebook gradebook, Path directory, String currentTerm) {
+        this.gradebook = gradebook;
+        this.directory = directory;
+        this.currentTerm = checkTermName(currentTerm);
+    }
+
+    /**
+     * Open the archive in a directory, mapping the segments of every term
+     * closed before, with currentTerm as the term held in the gradebook.
+     */
+    public static TermArchive open(Gradebook gradebook, Path directory, String currentTerm) throws IOException {
+        Files.createDirectories(directory);
+        TermArchive archive = new TermArchive(gradebook, directory, currentTerm);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing(Path::toString));  // Zero-padded sequence first
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String term = name.substring(name.indexOf('_') + 1, name.length() - SUFFIX.length());
+            archive.add(TermSegment.open(term, file));
+        }
+        if (archive.segmentsByTerm.containsKey(currentTerm)) {
+            throw new IllegalArgumentException("Term " + currentTerm + " is already closed");
+        }
+        return archive;
+    }
+
+    // STATIC METHOD: Term names become part of file names
+    private static String checkTermName(String term) {
+        if (!term.matches("[A-Za-z0-9.-]+")) {
+            throw new IllegalArgumentException("Term names may only use letters, digits, '.' and '-': " + term);
+        }
+        return term;
+    }
+
+    private void add(TermSegment segment) {
+        segments.add(segment);
+        segmentsByTerm.put(segment.getTerm(), segment);
+    }
+
+    // ==================== CLOSING A TERM ====================
+
+    /**
+     * Seal the current term and start nextTerm with empty rosters.
+     * Returns the new segment. If writing the segment fails, the gradebook
+     * is left unchanged.
+     */
+    public TermSegment closeTerm(String nextTerm) throws IOException {
+        checkTermName(nextTerm);
+        synchronized (gradebook) {
+            if (nextTerm.equals(currentTerm) || segmentsByTerm.containsKey(nextTerm)) {
+                throw new IllegalArgumentException("Term " + nextTerm + " was used before");
+            }
+            List<Course> courses = new ArrayList<>(gradebook.getCourses());
+            LinkedHashSet<Grade> grades = new LinkedHashSet<>();
+            for (Course course : courses) {
+                grades.addAll(gradebook.gradesOf(course));  // Also loads stored grades
+            }
+            // Grades in courses that were never registered with the gradebook
+            List<Grade> unregistered = new ArrayList<>();
+            for (Grade grade : gradebook.getGrades().values()) {
+                if (grades.add(grade)) {
+                    unregistered.add(grade);
+                }
+            }
+
+            String fileName = String.format("%04d_%s%s", segments.size() + 1, currentTerm, SUFFIX);
+            TermSegment segment = TermSegment.seal(currentTerm, directory.resolve(fileName), grades);
+
+            PrintStream original = QuietConsole.mute();
+            try {
+                for (Course course : courses) {
+                    for (Student student : new ArrayList<>(course.getEnrolledStudents())) {
+                        course.removeStudent(student);  // Also removes the grade
+                    }
+                    for (Grade grade : new ArrayList<>(gradebook.gradesOf(course))) {
+                        gradebook.removeGrade(grade.getStudent(), course);
+                    }
+                }
+                for (Grade grade : unregistered) {
+                    gradebook.removeGrade(grade.getStudent(), grade.getCourse());
+                }
+            } finally {
+                QuietConsole.restore(original);
+            }
+            add(segment);
+            currentTerm = nextTerm;
+            return segment;
+        }
+    }
+
+    // ==================== QUERIES ACROSS TERMS ====================
+
+    // Grade points and grade count over every closed term plus the current one, as {points, count}
+    public double[] calculateCumulativeGradePoints(Student student) {
+        double[] totals = gradebook.calculateStudentGradePoints(student);
+        for (TermSegment segment : segments) {
+            double[] term = segment.studentGradePoints(student.getStudentNumber());
+            totals[0] += term[0];
+            totals[1] += term[1];
+        }
+        return totals;
+    }
+
+    public double calculateCumulativeGPA(Student student) {
+        double[] totals = calculateCumulativeGradePoints(student);
+        return (totals[1] == 0) ? 0 : totals[0] / totals[1];
+    }
+
+    // Average score of a course in one term, closed or current
+    public double calculateCourseAverage(String term, Course course) {
+        double[] totals;
+        if (term.equals(currentTerm)) {
+            totals = gradebook.calculateCourseScoreTotals(course);
+        } else {
+            TermSegment segment = segmentsByTerm.get(term);
+            if (segment == null) {
+                return 0;
+            }
+            totals = segment.courseScoreTotals(course.getCourseCode());
+        }
+        return (totals[1] == 0) ? 0 : totals[0] / totals[1];
+    }
+
+    // Full transcript: one section per term, oldest first, then the cumulative GPA
+    public String renderTranscript(Student student) {
+        StringBuilder text = new StringBuilder();
+        text.append("================ TRANSCRIPT ================\n");
+        text.append("Student: ").append(student.getName())
+            .append(" (").append(student.getStudentNumber()).append(")\n");
+        for (TermSegment segment : segments) {
+            List<TermSegment.ArchivedGrade> grades = segment.gradesOf(student.getStudentNumber());
+            if (grades.isEmpty()) {
+                continue;
+            }
+            text.append("--- ").append(segment.getTerm()).append(" ---\n");
+            double points = 0;
+            for (TermSegment.ArchivedGrade grade : grades) {
+                Course course = gradebook.findCourseByCode(grade.getCourseCode());
+                appendLine(text, grade.getCourseCode(), (course == null) ? "" : course.getCourseName(),
+                           grade.getScore(), grade.getLetterGrade(), grade.getGradePoints());
+                points += grade.getGradePoints();
+            }
+            text.append(String.format("Term GPA: %.2f%n", points / grades.size()));
+        }
+
+        List<Grade> current = new ArrayList<>(gradebook.gradesOf(student));
+        if (!current.isEmpty()) {
+            current.sort(Comparator.comparing(g -> g.getCourse().getCourseCode()));
+            text.append("--- ").append(currentTerm).append(" (in progress) ---\n");
+            for (Grade grade : current) {
+                appendLine(text, grade.getCourse().getCourseCode(), grade.getCourse().getCourseName(),
+                           grade.getScore(), grade.getLetterGrade(), grade.getGradePoints());
+            }
+        }
+        text.append(String.format("Cumulative GPA: %.2f%n", calculateCumulativeGPA(student)));
+        text.append("============================================\n\n");
+        return text.toString();
+    }
+
+    private static void appendLine(StringBuilder text, String code, String name,
+                                   double score, String letter, double points) {
+        text.append(String.format("%-10s %-30s %6.1f %5s %6.1f%n", code, name, score, letter, points));
+    }
+
+    // ==================== GETTERS ====================
+
+    public String getCurrentTerm() {
+        return currentTerm;
+    }
+
+    // Closed terms, oldest first
+    public List<TermSegment> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    // The segment of a closed term, or null
+    public TermSegment getSegment(String term) {
+        return segmentsByTerm.get(term);
+    }
+
+    // ==================== DEMO ====================
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get("terms");
+        int students = 50_000;
+        int terms = 6;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--dir": directory = Paths.get(parts[1]); break;
+                case "--students": students = Integer.parseInt(parts[1]); break;
+                case "--terms": terms = Integer.parseInt(parts[1]); break;
+                default: System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        Gradebook gradebook = Gradebook.createPartition();
+        WorkloadGenerator generator = new WorkloadGenerator(42);
+        generator.setStudentCount(students);
+        generator.setGradedFraction(1.0);
+        generator.populate(gradebook);
+        // Continue the numbering of terms closed by earlier runs
+        int closedBefore = 0;
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path ignored : stream) {
+                    closedBefore++;
+                }
+            }
+        }
+        TermArchive archive = open(gradebook, directory, "term-" + (closedBefore + 1));
+
+        // Every closed term gets a new random set of enrollments and grades
+        Random random = new Random(7);
+        List<Student> all = new ArrayList<>(gradebook.getStudents());
+        for (int t = 0; t < terms; t++) {
+            String next = "term-" + (closedBefore + t + 2);
+            long start = System.nanoTime();
+            TermSegment segment = archive.closeTerm(next);
+            System.out.printf("Closed %-16s %,9d grades, %,7d KB on disk, %.0f ms%n", segment.getTerm(),
+                    segment.getGradeCount(), segment.getEncodedBytes() >> 10, (System.nanoTime() - start) / 1e6);
+            PrintStream original = QuietConsole.mute();
+            try {
+                for (Student student : all) {
+                    for (int c = 0; c < 4; c++) {
+                        Course course = gradebook.getCourses().get(random.nextInt(gradebook.getCourses().size()));
+                        course.enrollStudent(student);
+                        if (gradebook.getGrade(student, course) == null) {
+                            gradebook.addGrade(student, course, random.nextInt(81) + 20);
+                        }
+                    }
+                }
+            } finally {
+                QuietConsole.restore(original);
+            }
+        }
+
+        long start = System.nanoTime();
+        double check = 0;
+        for (Student student : all) {
+            check += archive.calculateCumulativeGPA(student);
+        }
+        System.out.printf("Cumulative GPA of %,d students over %d closed terms: %.0f ms (mean %.3f)%n",
+                all.size(), archive.getSegments().size(), (System.nanoTime() - start) / 1e6, check / all.size());
+        System.out.printf("Live grades in the gradebook: %,d%n", gradebook.getGrades().size());
+        System.out.print(archive.renderTranscript(all.get(0)));
+    }
+}
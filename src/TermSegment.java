@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TermSegment.java
+ *
+ * The grades of one closed term, sealed into an immutable archive file of
+ * GradeBlocks and memory-mapped for reading.
+ *
+ * The blocks are in student ID order, so the grades of one student are in
+ * one block (or two, at a boundary), found by binary search over the block
+ * headers. No grade is decoded up front. Reading a transcript or a GPA
+ * decodes only the keys of those blocks, and the pages come from the OS
+ * page cache, not the Java heap.
+ *
+ * Student IDs are only handed out for the life of one process (see
+ * IdAllocator), so the blocks are keyed by the IDs of the process that
+ * sealed the segment, and a student map written beside the segment file
+ * ("<file>.students", one "id<TAB>student number" line per student) turns
+ * a student number into that ID again. The map is the one part of a
+ * segment read into the heap when it is opened.
+ *
+ * Scores are kept to hundredths (see GradeBlock). The letter grade of each
+ * grade is stored beside its score, so an archived grade keeps the letter
+ * it had when the term closed, whether set with the score or on its own.
+ *
+ * Safe to read from any number of threads: nothing in it changes after
+ * it is opened.
+ */
+public final class TermSegment {
+
+    // Grades of one student in one term rarely come close to this
+    private static final int EXPECTED_GRADES_PER_STUDENT = 32;
+
+    private static final String STUDENTS_SUFFIX = ".students";
+
+    private final String term;
+    private final Path file;
+    private final List<GradeBlock> blocks;
+    private final int[] blockMaxStudentIds;  // For binary search, in block order
+    private final int gradeCount;
+    private final HashMap<String, Integer> archivedIds;  // Student number -> ID in the blocks
+
+    // One archived grade, as read from a segment
+    public static final class ArchivedGrade {
+        private final String term;
+        private final String studentNumber;
+        private final String courseCode;
+        private final double score;
+        private final String letterGrade;
+
+        ArchivedGrade(String term, String studentNumber, String courseCode, double score, String letterGrade) {
+            this.term = term;
+            this.studentNumber = studentNumber;
+            this.courseCode = courseCode;
+            this.score = score;
+            this.letterGrade = letterGrade;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public String getStudentNumber() {
+            return studentNumber;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public String getLetterGrade() {
+            return letterGrade;
+        }
+
+        public double getGradePoints() {
+            return Grade.letterToGradePoints(letterGrade);
+        }
+
+        public boolean isPassing() {
+            return score >= Grade.PASSING_SCORE;
+        }
+    }
+
+    private TermSegment(String term, Path file, List<GradeBlock> blocks,
+                        HashMap<String, Integer> archivedIds) {
+        this.term = term;
+        this.file = file;
+        this.blocks = blocks;
+        this.archivedIds = archivedIds;
+        this.blockMaxStudentIds = new int[blocks.size()];
+        int total = 0;
+        for (int b = 0; b < blocks.size(); b++) {
+            blockMaxStudentIds[b] = blocks.get(b).getMaxStudentId();
+            total += blocks.get(b).size();
+        }
+        this.gradeCount = total;
+    }
+
+    /**
+     * Write the grades and the student map to the files and open them. Each
+     * file is written under a temporary name and renamed, the student map
+     * first, so a segment file that exists is complete and has its map.
+     */
+    public static TermSegment seal(String term, Path file, Collection<Grade> grades) throws IOException {
+        LinkedHashMap<Integer, String> numbers = new LinkedHashMap<>();
+        for (Grade grade : grades) {
+            numbers.put(grade.getStudent().getId(), grade.getStudent().getStudentNumber());
+        }
+        StringBuilder map = new StringBuilder();
+        for (Map.Entry<Integer, String> entry : numbers.entrySet()) {
+            map.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+        }
+        Path students = studentsFile(file);
+        Path temp = students.resolveSibling(students.getFileName() + ".tmp");
+        Files.write(temp, map.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, students, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        temp = file.resolveSibling(file.getFileName() + ".tmp");
+        GradeBlock.writeArchive(temp, GradeBlock.encodeAll(grades, GradeBlock.DEFAULT_GRADES));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(term, file);
+    }
+
+    // STATIC METHOD: Map an existing segment file and read its student map
+    public static TermSegment open(String term, Path file) throws IOException {
+        Path students = studentsFile(file);
+        if (!Files.exists(students)) {
+            throw new IOException("Segment " + file + " has no student map " + students.getFileName());
+        }
+        HashMap<String, Integer> archivedIds = new HashMap<>();
+        for (String line : Files.readAllLines(students, StandardCharsets.UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab < 0) {
+                throw new IOException("Malformed line in " + students + ": " + line);
+            }
+            try {
+                archivedIds.put(line.substring(tab + 1), Integer.parseInt(line.substring(0, tab)));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed line in " + students + ": " + line, e);
+            }
+        }
+        return new TermSegment(term, file, GradeBlock.readArchive(file), archivedIds);
+    }
+
+    // STATIC METHOD: The student map that belongs to a segment file
+    public static Path studentsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + STUDENTS_SUFFIX);
+    }
+
+    // ==================== QUERIES ====================
+
+    // All grades of a student (by student number) in this term, in course code order
+    public List<ArchivedGrade> gradesOf(String studentNumber) {
+        List<ArchivedGrade> result = new ArrayList<>();
+        Integer archivedId = archivedIds.get(studentNumber);
+        if (archivedId == null) {
+            return result;
+        }
+        int studentId = archivedId;
+        int[] courseIndexes = new int[EXPECTED_GRADES_PER_STUDENT];
+        double[] scores = new double[EXPECTED_GRADES_PER_STUDENT];
+        String[] letters = new String[EXPECTED_GRADES_PER_STUDENT];
+        for (int b = firstBlock(studentId); b < blocks.size(); b++) {
+            GradeBlock block = blocks.get(b);
+            if (block.getMinStudentId() > studentId) {
+                break;
+            }
+            int found = block.studentGrades(studentId, courseIndexes, scores, letters);
+            if (found > courseIndexes.length) {
+                courseIndexes = new int[found];
+                scores = new double[found];
+                letters = new String[found];
+                block.studentGrades(studentId, courseIndexes, scores, letters);
+            }
+            for (int i = 0; i < found; i++) {
+                result.add(new ArchivedGrade(term, studentNumber, block.courseCode(courseIndexes[i]),
+                                             scores[i], letters[i]));
+            }
+        }
+        return result;
+    }
+
+    // Sum of grade points and number of grades for a student, as {points, count}
+    public double[] studentGradePoints(String studentNumber) {
+        double points = 0;
+        int count = 0;
+        for (ArchivedGrade grade : gradesOf(studentNumber)) {
+            points += grade.getGradePoints();
+            count++;
+        }
+        return new double[] {points, count};
+    }
+
+    // Sum of scores and number of grades for a course, as {sum, count}
+    public double[] courseScoreTotals(String courseCode) {
+        double sum = 0;
+        int count = 0;
+        for (GradeBlock block : blocks) {
+            double[] totals = block.courseScoreTotals(courseCode);
+            sum += totals[0];
+            count += (int) totals[1];
+        }
+        return new double[] {sum, count};
+    }
+
+    // First block whose largest student ID is not below the given one
+    private int firstBlock(int studentId) {
+        int low = 0;
+        int high = blockMaxStudentIds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockMaxStudentIds[middle] < studentId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // ==================== GETTERS ====================
+
+    public String getTerm() {
+        return term;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getGradeCount() {
+        return gradeCount;
+    }
+
+    public long getEncodedBytes() {
+        long bytes = 0;
+        for (GradeBlock block : blocks) {
+            bytes += block.getEncodedBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,384 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * TranscriptJob.java
+ *
+ * Term-end batch job that writes a transcript for every student: each
+ * course with its credits, score, letter grade and grade points, followed
+ * by credits attempted/earned and the GPA (as Gradebook.calculateStudentGPA
+ * computes it).
+ *
+ * How it runs:
+ * - One pass over all grades groups them by student, instead of one full
+ *   scan per student.
+ * - Transcripts are rendered in parallel on a fixed thread pool.
+ * - Output is either one file per student (FILES) or a single combined
+ *   archive file with the transcripts in student number order (ARCHIVE).
+ *
+ * Resuming after a crash (setResume(true)):
+ * - FILES: each file is written to a temporary name and atomically renamed,
+ *   so a file that exists is complete and is skipped.
+ * - ARCHIVE: every chunk of transcripts is forced to disk and a checkpoint
+ *   file records the archive length and the last student number written.
+ *   A resumed run cuts the archive back to the checkpoint and continues
+ *   with the next student number. The order of the gradebook's student
+ *   list is not used: it differs between runs and changes on removals.
+ * Without resume, the job starts over and replaces earlier output.
+ */
+public class TranscriptJob {
+
+    public enum Output { FILES, ARCHIVE }
+
+    private static final String ARCHIVE_NAME = "transcripts.txt";
+    private static final String CHECKPOINT_NAME = "transcripts.checkpoint";
+
+    private final Gradebook gradebook;
+    private final Path directory;
+    private Output output = Output.FILES;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int checkpointInterval = 1000;
+    private boolean resume;
+
+    public TranscriptJob(Gradebook gradebook, Path directory) {
+        this.gradebook = gradebook;
+        this.directory = directory;
+    }
+
+    // ==================== RUN ====================
+
+    /**
+     * Write all transcripts and print a throughput summary.
+     * Returns the number of transcripts written by this run.
+     */
+    public int run() throws IOException {
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+
+        List<Student> students = new ArrayList<>(gradebook.getStudents());
+        students.sort(Comparator.comparing(Student::getStudentNumber));  // Stable across runs
+        Map<Student, List<Grade>> gradesByStudent = groupByStudent(gradebook.getGrades().values());
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long[] bytes = new long[1];
+        int skipped;
+        try {
+            skipped = (output == Output.FILES)
+                    ? writeFiles(students, gradesByStudent, pool, bytes)
+                    : writeArchive(students, gradesByStudent, pool, bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Transcript job interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int written = students.size() - skipped;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Transcripts: %d written, %d already done, %.1f MB in %.2f s "
+                          + "(%.0f transcripts/s, %.1f MB/s, %d threads)%n",
+                written, skipped, bytes[0] / 1e6, seconds,
+                written / seconds, bytes[0] / 1e6 / seconds, threads);
+        return written;
+    }
+
+    // STATIC METHOD: One pass over the grades, in course code order per student
+    private static Map<Student, List<Grade>> groupByStudent(Collection<Grade> grades) {
+        Map<Student, List<Grade>> result = new HashMap<>();
+        for (Grade grade : grades) {
+            result.computeIfAbsent(grade.getStudent(), s -> new ArrayList<>()).add(grade);
+        }
+        Comparator<Grade> byCourse = Comparator.comparing(g -> g.getCourse().getCourseCode());
+        for (List<Grade> list : result.values()) {
+            list.sort(byCourse);
+        }
+        return result;
+    }
+
+    // ==================== PER-STUDENT FILES ====================
+
+    // Returns the number of students skipped because their file already existed
+    private int writeFiles(List<Student> students, Map<Student, List<Grade>> gradesByStudent,
+                           ExecutorService pool, long[] bytes) throws IOException, InterruptedException {
+        deleteTemporaryFiles();
+        List<Future<Integer>> results = new ArrayList<>();
+        int skipped = 0;
+        for (Student student : students) {
+            Path target = directory.resolve(fileName(student));
+            if (resume && Files.exists(target)) {
+                skipped++;
+                continue;
+            }
+            List<Grade> grades = gradesByStudent.getOrDefault(student, List.of());
+            results.add(pool.submit(() -> writeAtomically(target, render(student, grades))));
+        }
+        for (Future<Integer> result : results) {
+            bytes[0] += await(result);
+        }
+        return skipped;
+    }
+
+    private static int writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return content.length;
+    }
+
+    // Leftovers of a crashed run
+    private void deleteTemporaryFiles() throws IOException {
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.txt.tmp")) {
+            for (Path leftover : leftovers) {
+                Files.delete(leftover);
+            }
+        }
+    }
+
+    // Student numbers are used as file names, minus anything unsafe in a path
+    private static String fileName(Student student) {
+        return student.getStudentNumber().replaceAll("[^A-Za-z0-9._-]", "_") + ".txt";
+    }
+
+    // ==================== COMBINED ARCHIVE ====================
+
+    // Returns the number of students skipped because an earlier run wrote them
+    private int writeArchive(List<Student> students, Map<Student, List<Grade>> gradesByStudent,
+                             ExecutorService pool, long[] bytes) throws IOException, InterruptedException {
+        Path checkpoint = directory.resolve(CHECKPOINT_NAME);
+        Checkpoint done = resume ? readCheckpoint(checkpoint) : Checkpoint.START;
+        int first = firstAfter(students, done.lastStudentNumber);
+
+        try (FileChannel archive = FileChannel.open(directory.resolve(ARCHIVE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            archive.truncate(done.offset);
+            archive.position(done.offset);
+
+            // Render ahead on the pool, write in order on this thread
+            ArrayDeque<Future<byte[]>> window = new ArrayDeque<>();
+            int next = first;
+            int written = first;
+            while (written < students.size()) {
+                while (next < students.size() && window.size() < threads * 8) {
+                    Student student = students.get(next++);
+                    List<Grade> grades = gradesByStudent.getOrDefault(student, List.of());
+                    window.add(pool.submit(() -> render(student, grades)));
+                }
+                ByteBuffer content = ByteBuffer.wrap(await(window.poll()));
+                bytes[0] += content.remaining();
+                while (content.hasRemaining()) {
+                    archive.write(content);
+                }
+                written++;
+                if (written % checkpointInterval == 0 || written == students.size()) {
+                    archive.force(false);
+                    writeCheckpoint(checkpoint, new Checkpoint(archive.position(),
+                            students.get(written - 1).getStudentNumber()));
+                }
+            }
+            if (students.isEmpty()) {
+                writeCheckpoint(checkpoint, Checkpoint.START);
+            }
+        }
+        return first;
+    }
+
+    // Archive length and the student number of the last transcript in it ("" = none)
+    private static final class Checkpoint {
+        static final Checkpoint START = new Checkpoint(0, "");
+
+        final long offset;
+        final String lastStudentNumber;
+
+        Checkpoint(long offset, String lastStudentNumber) {
+            this.offset = offset;
+            this.lastStudentNumber = lastStudentNumber;
+        }
+    }
+
+    // STATIC METHOD: Position of the first student whose number sorts after the given one
+    private static int firstAfter(List<Student> students, String studentNumber) {
+        int low = 0;
+        int high = students.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (students.get(middle).getStudentNumber().compareTo(studentNumber) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Two lines: archive length, last student number; START if there is no checkpoint
+    private static Checkpoint readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return Checkpoint.START;
+        }
+        String[] lines = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).split("\n", -1);
+        try {
+            return new Checkpoint(Long.parseLong(lines[0].trim()), (lines.length > 1) ? lines[1] : "");
+        } catch (NumberFormatException e) {
+            throw new IOException("Unrecognized transcript checkpoint " + checkpoint
+                                  + "; run again without resume", e);
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpoint, Checkpoint done) throws IOException {
+        writeAtomically(checkpoint, (done.offset + "\n" + done.lastStudentNumber + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ==================== RENDERING ====================
+
+    // STATIC METHOD: Plain-text transcript, safe to call from any thread
+    static byte[] render(Student student, List<Grade> grades) {
+        StringBuilder text = new StringBuilder(256 + grades.size() * 80);
+        text.append("================ TRANSCRIPT ================\n");
+        text.append("Student: ").append(student.getName())
+            .append(" (").append(student.getStudentNumber()).append(")\n");
+        text.append("Enrollment Year: ").append(student.getEnrollmentYear()).append('\n');
+        text.append("Code       Course                         Credits  Score Grade Points\n");
+
+        int attempted = 0;
+        int earned = 0;
+        double points = 0;
+        for (Grade grade : grades) {
+            Course course = grade.getCourse();
+            // Same layout as "%-10s %-30s %7d %6.1f %5s %6.1f", without the cost of String.format
+            padRight(text, course.getCourseCode(), 10).append(' ');
+            padRight(text, course.getCourseName(), 30).append(' ');
+            padLeft(text, Integer.toString(course.getCredits()), 7).append(' ');
+            padLeft(text, oneDecimal(grade.getScore()), 6).append(' ');
+            padLeft(text, grade.getLetterGrade(), 5).append(' ');
+            padLeft(text, oneDecimal(grade.getGradePoints()), 6).append('\n');
+            attempted += course.getCredits();
+            if (grade.isPassing()) {
+                earned += course.getCredits();
+            }
+            points += grade.getGradePoints();
+        }
+        double gpa = grades.isEmpty() ? 0 : points / grades.size();
+        text.append(String.format("Credits Attempted: %d  Credits Earned: %d  GPA: %.2f%n",
+                attempted, earned, gpa));
+        text.append("============================================\n\n");
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder padRight(StringBuilder text, String value, int width) {
+        text.append(value);
+        for (int i = value.length(); i < width; i++) {
+            text.append(' ');
+        }
+        return text;
+    }
+
+    private static StringBuilder padLeft(StringBuilder text, String value, int width) {
+        for (int i = value.length(); i < width; i++) {
+            text.append(' ');
+        }
+        return text.append(value);
+    }
+
+    // STATIC METHOD: Rounded to one decimal, half up (scores are at most 100)
+    private static String oneDecimal(double value) {
+        long tenths = Math.round(value * 10);
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+
+    // Result of a task, with its IOException rethrown as is
+    private static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IllegalStateException("Transcript rendering failed", cause);
+        }
+    }
+
+    // ==================== SETTINGS ====================
+
+    public void setOutput(Output output) {
+        this.output = output;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    // Archive only: students written between checkpoints
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    // ==================== COMMAND LINE ====================
+
+    /**
+     * Generate transcripts for a synthetic population (see WorkloadGenerator).
+     *
+     * Usage:
+     *   java TranscriptJob --out=transcripts --students=100000 --seed=42
+     *                      [--archive] [--threads=8] [--resume]
+     */
+    public static void main(String[] args) throws IOException {
+        String out = "transcripts";
+        long seed = 42;
+        int students = 100_000;
+        Output output = Output.FILES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean resume = false;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            switch (parts[0]) {
+                case "--out": out = parts[1]; break;
+                case "--seed": seed = Long.parseLong(parts[1]); break;
+                case "--students": students = Integer.parseInt(parts[1]); break;
+                case "--threads": threads = Integer.parseInt(parts[1]); break;
+                case "--archive": output = Output.ARCHIVE; break;
+                case "--resume": resume = true; break;
+                default: System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        generator.setStudentCount(students);
+        Gradebook gradebook = Gradebook.createPartition();
+        generator.populate(gradebook);
+
+        TranscriptJob job = new TranscriptJob(gradebook, Paths.get(out));
+        job.setOutput(output);
+        job.setThreads(threads);
+        job.setResume(resume);
+        job.run();
+    }
+}
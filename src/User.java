@@ -8,7 +8,7 @@
  * OOP Concepts demonstrated:
  * - Abstraction: Defines a template for all user types
  * - Encapsulation: Private fields with public getters/setters
- * - Static members: idCounter for generating unique IDs
+ * - Static members: shared IdAllocator for generating unique IDs
  */
 public abstract class User {
 
@@ -19,19 +19,33 @@ public abstract class User {
     private String password;
 
     // STATIC VARIABLE: Shared across all User instances
-    // Used to generate unique IDs for each user
-    private static int idCounter = 1000;
+    // Used to generate unique IDs for each user, safely from many threads
+    private static final IdAllocator ID_ALLOCATOR = IdAllocator.USER_IDS;
+
+    // METRICS: Call counts and latency histograms (see OperationMetrics)
+    private static final OperationTimer LOGIN_TIMER =
+            OperationMetrics.timer("User.login");
 
     /**
      * Constructor for User class
-     * Automatically assigns a unique ID using static counter
+     * Automatically assigns a unique ID from the shared allocator
      *
      * @param name User's full name
      * @param email User's email address
      * @param password User's password
      */
     public User(String name, String email, String password) {
-        this.id = idCounter++;  // Assign current counter value and increment
+        this.id = ID_ALLOCATOR.nextInt();  // Take the next ID from this thread's block
+        this.name = name;
+        this.email = email;
+        this.password = password;
+    }
+
+    // CONSTRUCTOR OVERLOADING: Recreate a stored user with its original ID.
+    // The allocator is moved past that ID so new users never reuse it.
+    protected User(int id, String name, String email, String password) {
+        this.id = id;
+        ID_ALLOCATOR.reserveThrough(id);
         this.name = name;
         this.email = email;
         this.password = password;
@@ -47,12 +61,19 @@ public abstract class User {
     // CONCRETE METHOD: Same login logic for all user types
     // This is a non-abstract method in abstract class
     public boolean login(String email, String password) {
-        return this.email.equals(email) && this.password.equals(password);
+        long start = LOGIN_TIMER.start();
+        try {
+            // A lazily loaded stub may not carry a password; it can never log in
+            return this.password != null
+                    && this.email.equals(email) && this.password.equals(password);
+        } finally {
+            LOGIN_TIMER.stop(start);
+        }
     }
 
     // STATIC METHOD: Utility method to get the next ID that will be assigned
     public static int getNextId() {
-        return idCounter;
+        return (int) ID_ALLOCATOR.peek();
     }
 
     // ENCAPSULATION: Getter methods - controlled access to private fields
@@ -0,0 +1,165 @@
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * WorkloadDriver.java
+ *
+ * Builds a synthetic population with WorkloadGenerator, replays a mixed
+ * operation script against a fresh Gradebook partition and reports
+ * throughput and heap usage.
+ *
+ * Usage (all options optional):
+ *   java WorkloadDriver --seed=42 --students=100000 --courses=2000
+ *                       --teachers=500 --max-course-size=400 --ops=100000
+ *                       --mix=30,20,10,10,15,15
+ *
+ * --mix gives relative weights for lookup, gpa, average, enroll,
+ * addGrade and updateGrade. The same seed and options always produce the
+ * same population and the same script.
+ */
+public class WorkloadDriver {
+
+    public static void main(String[] args) {
+        long seed = 42;
+        int students = 100_000;
+        int courses = 2_000;
+        int teachers = 500;
+        int maxCourseSize = 400;
+        int operations = 100_000;
+        int[] mix = null;
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                System.out.println("Ignoring argument: " + arg);
+                continue;
+            }
+            switch (parts[0]) {
+                case "--seed": seed = Long.parseLong(parts[1]); break;
+                case "--students": students = Integer.parseInt(parts[1]); break;
+                case "--courses": courses = Integer.parseInt(parts[1]); break;
+                case "--teachers": teachers = Integer.parseInt(parts[1]); break;
+                case "--max-course-size": maxCourseSize = Integer.parseInt(parts[1]); break;
+                case "--ops": operations = Integer.parseInt(parts[1]); break;
+                case "--mix": mix = parseMix(parts[1]); break;
+                default: System.out.println("Unknown option: " + parts[0]);
+            }
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        generator.setStudentCount(students);
+        generator.setCourseCount(courses);
+        generator.setTeacherCount(teachers);
+        generator.setMaxCourseSize(maxCourseSize);
+        if (mix != null) {
+            generator.setOperationMix(mix);
+        }
+
+        run(generator, operations);
+    }
+
+    // Populate, replay and print a report
+    public static void run(WorkloadGenerator generator, int operations) {
+        System.out.println("============ WORKLOAD RUN (seed " + generator.getSeed() + ") ============");
+        Gradebook gradebook = Gradebook.createPartition();
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        generator.populate(gradebook);
+        long populateNanos = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+
+        System.out.println("Population: " + gradebook.getStudents().size() + " students, "
+                + gradebook.getCourses().size() + " courses, "
+                + gradebook.getTeachers().size() + " teachers, "
+                + generator.getEnrollmentCount() + " enrollments, "
+                + generator.getGradeCount() + " grades");
+        System.out.printf("Populate time: %.2f s%n", populateNanos / 1e9);
+        System.out.printf("Heap used by population: %.1f MB (%.0f bytes per student)%n",
+                (heapAfter - heapBefore) / 1e6,
+                (double) (heapAfter - heapBefore) / Math.max(1, gradebook.getStudents().size()));
+
+        WorkloadScript script = generator.generateScript(operations);
+        long[] nanosByType = new long[WorkloadScript.OPERATION_NAMES.length];
+        long total = replay(gradebook, generator, script, nanosByType);
+
+        int[] counts = script.countByType();
+        System.out.printf("Replayed %d operations in %.2f s (%.0f ops/s)%n",
+                script.size(), total / 1e9, script.size() / (total / 1e9));
+        for (int type = 0; type < counts.length; type++) {
+            if (counts[type] == 0) {
+                continue;
+            }
+            System.out.printf("  %-12s %10d ops %12.0f ops/s %10.2f us/op%n",
+                    WorkloadScript.OPERATION_NAMES[type], counts[type],
+                    counts[type] / (nanosByType[type] / 1e9),
+                    nanosByType[type] / 1e3 / counts[type]);
+        }
+        System.out.printf("Heap used after replay: %.1f MB%n", usedHeap() / 1e6);
+        System.out.println("=====================================================");
+    }
+
+    // Execute every operation of the script; returns the total elapsed nanoseconds
+    public static long replay(Gradebook gradebook, WorkloadGenerator generator,
+                              WorkloadScript script, long[] nanosByType) {
+        List<Student> students = generator.getStudents();
+        List<Course> courses = generator.getCourses();
+
+        PrintStream original = QuietConsole.mute();
+        long begin = System.nanoTime();
+        try {
+            for (int i = 0; i < script.size(); i++) {
+                Student student = students.get(script.getStudentIndex(i));
+                Course course = courses.get(script.getCourseIndex(i));
+                byte type = script.getType(i);
+                long opStart = System.nanoTime();
+                switch (type) {
+                    case WorkloadScript.LOOKUP_STUDENT:
+                        gradebook.findStudentByNumber(student.getStudentNumber());
+                        break;
+                    case WorkloadScript.STUDENT_GPA:
+                        gradebook.calculateStudentGPA(student);
+                        break;
+                    case WorkloadScript.COURSE_AVERAGE:
+                        gradebook.calculateCourseAverage(course);
+                        break;
+                    case WorkloadScript.ENROLL:
+                        course.enrollStudent(student);
+                        break;
+                    case WorkloadScript.ADD_GRADE:
+                        gradebook.addGrade(student, course, script.getScore(i));
+                        break;
+                    case WorkloadScript.UPDATE_GRADE:
+                        gradebook.updateGrade(student, course, script.getScore(i));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown operation type " + type);
+                }
+                nanosByType[type] += System.nanoTime() - opStart;
+            }
+        } finally {
+            QuietConsole.restore(original);
+        }
+        return System.nanoTime() - begin;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static int[] parseMix(String value) {
+        String[] parts = value.split(",");
+        int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return weights;
+    }
+
+    // Heap in use after asking the JVM to collect garbage
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
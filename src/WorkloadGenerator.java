@@ -0,0 +1,325 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * WorkloadGenerator.java
+ *
+ * Builds a large, realistic school population inside a Gradebook and a
+ * matching script of mixed read/write operations for capacity planning.
+ *
+ * Everything is derived from a single seed, so two runs with the same seed
+ * and settings produce the same students, courses, enrollments, grades and
+ * operations (student numbers and course codes are generated, not taken
+ * from the global ID counters).
+ *
+ * Shape of the data:
+ * - Course popularity follows a Zipf distribution, so a few courses are
+ *   very large and most are small, up to a maximum roster size.
+ * - Each student enrolls in 3-7 courses.
+ * - Scores combine a per-course difficulty, a per-student ability and
+ *   noise, rounded to half points, so averages differ between courses.
+ */
+public class WorkloadGenerator {
+
+    // STATIC VARIABLES: Attribute values used for generated teachers
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Mathematics", "Physics", "Chemistry", "Biology",
+        "History", "Economics", "Literature", "Philosophy", "Engineering"
+    };
+    private static final String[] PREFIXES = {
+        "CS", "MATH", "PHYS", "CHEM", "BIO", "HIST", "ECON", "LIT", "PHIL", "ENG"
+    };
+    private static final String[] TITLES = {
+        "Professor", "Associate Professor", "Assistant Professor", "Dr.", "Lecturer"
+    };
+
+    private final long seed;
+    private final SplittableRandom random;
+
+    // Population settings (defaults describe a mid-sized university)
+    private int studentCount = 100_000;
+    private int courseCount = 2_000;
+    private int teacherCount = 500;
+    private int maxCourseSize = 400;
+    private double zipfExponent = 1.0;
+    private double gradedFraction = 0.8;
+    private int firstEnrollmentYear = 2018;
+    private int enrollmentYears = 8;
+
+    // Operation mix weights, indexed by WorkloadScript operation type
+    private int[] operationWeights = {30, 20, 10, 10, 15, 15};
+
+    // Generated population
+    private final List<Student> students = new ArrayList<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final List<Teacher> teachers = new ArrayList<>();
+    private double[] courseCumulative;
+    private int enrollmentCount;
+    private int gradeCount;
+
+    // (studentIndex << 32 | courseIndex) pairs used to generate grade writes
+    private long[] gradedPairs = new long[1024];
+    private int gradedSize;
+    private long[] ungradedPairs = new long[1024];
+    private int ungradedSize;
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    // ==================== POPULATION ====================
+
+    /**
+     * Create teachers, courses and students, enroll students in courses
+     * and record grades, adding everything to the given gradebook.
+     * Console output from the gradebook is muted while this runs.
+     */
+    public void populate(Gradebook gradebook) {
+        if (!students.isEmpty()) {
+            throw new IllegalStateException("Population already generated");
+        }
+        PrintStream original = QuietConsole.mute();
+        try {
+            createTeachers(gradebook);
+            double[] difficulty = createCourses(gradebook);
+            createStudents(gradebook, difficulty);
+        } finally {
+            QuietConsole.restore(original);
+        }
+    }
+
+    private void createTeachers(Gradebook gradebook) {
+        for (int i = 0; i < teacherCount; i++) {
+            int dept = random.nextInt(DEPARTMENTS.length);
+            Teacher teacher = new Teacher("Teacher " + i, "teacher" + i + "@university.edu", "pass",
+                                          DEPARTMENTS[dept], TITLES[random.nextInt(TITLES.length)]);
+            teachers.add(teacher);
+            gradebook.addTeacher(teacher);
+        }
+    }
+
+    // Returns the mean score of each course (its "difficulty")
+    private double[] createCourses(Gradebook gradebook) {
+        double[] difficulty = new double[courseCount];
+        courseCumulative = new double[courseCount];
+        double total = 0;
+        for (int i = 0; i < courseCount; i++) {
+            int dept = i % PREFIXES.length;
+            String code = PREFIXES[dept] + (1000 + i / PREFIXES.length);
+            Course course = new Course(code, DEPARTMENTS[dept] + " " + (i / PREFIXES.length), 2 + random.nextInt(4));
+            courses.add(course);
+            gradebook.addCourse(course);
+            if (!teachers.isEmpty()) {
+                course.assignTeacher(teachers.get(random.nextInt(teachers.size())));
+            }
+            difficulty[i] = clamp(75 + random.nextGaussian() * 6, 50, 95);
+            // Zipf weight: popularity rank is a random permutation of the course order
+            total += 1.0 / Math.pow(i + 1, zipfExponent);
+            courseCumulative[i] = total;
+        }
+        for (int i = 0; i < courseCount; i++) {
+            courseCumulative[i] /= total;
+        }
+        // Shuffle which course gets which popularity rank
+        Collections.shuffle(courses, new Random(random.nextLong()));
+        return difficulty;
+    }
+
+    private void createStudents(Gradebook gradebook, double[] difficulty) {
+        int[] rosterSizes = new int[courseCount];
+        for (int i = 0; i < studentCount; i++) {
+            int year = firstEnrollmentYear + random.nextInt(enrollmentYears);
+            String number = String.format("S%08d", i);
+            Student student = new Student("Student " + i, "s" + i + "@student.edu", "pass", number, year);
+            students.add(student);
+            gradebook.addStudent(student);
+
+            double ability = random.nextGaussian() * 8;
+            int wanted = 3 + random.nextInt(5);
+            int[] chosen = new int[wanted];
+            int enrolled = 0;
+            for (int attempt = 0; attempt < wanted * 4 && enrolled < wanted; attempt++) {
+                int c = sampleCourse();
+                if (rosterSizes[c] >= maxCourseSize || contains(chosen, enrolled, c)) {
+                    continue;
+                }
+                chosen[enrolled++] = c;
+                rosterSizes[c]++;
+                Course course = courses.get(c);
+                course.enrollStudent(student);
+                enrollmentCount++;
+                long pair = ((long) i << 32) | c;
+                if (random.nextDouble() < gradedFraction) {
+                    gradebook.addGrade(student, course, sampleScore(difficulty[c], ability));
+                    gradeCount++;
+                    gradedPairs = append(gradedPairs, gradedSize++, pair);
+                } else {
+                    ungradedPairs = append(ungradedPairs, ungradedSize++, pair);
+                }
+            }
+        }
+    }
+
+    // ==================== OPERATION SCRIPT ====================
+
+    /**
+     * Generate a script of mixed operations against the population.
+     * Grade writes target enrollments that exist in the population:
+     * addGrade uses enrollments that have no grade yet (falling back to
+     * updates once those run out), updateGrade uses graded enrollments.
+     */
+    public WorkloadScript generateScript(int operationCount) {
+        if (students.isEmpty() || courses.isEmpty()) {
+            throw new IllegalStateException("Call populate() before generateScript()");
+        }
+        int[] cumulative = new int[operationWeights.length];
+        int total = 0;
+        for (int i = 0; i < operationWeights.length; i++) {
+            total += operationWeights[i];
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalStateException("Operation mix has no positive weights");
+        }
+
+        WorkloadScript script = new WorkloadScript(operationCount);
+        for (int i = 0; i < operationCount; i++) {
+            int pick = random.nextInt(total);
+            byte type = 0;
+            while (pick >= cumulative[type]) {
+                type++;
+            }
+            int student = random.nextInt(students.size());
+            int course = sampleCourse();
+            float score = (float) sampleScore(75, 0);
+
+            if (type == WorkloadScript.ADD_GRADE && ungradedSize == 0) {
+                type = WorkloadScript.UPDATE_GRADE;
+            }
+            if (type == WorkloadScript.ADD_GRADE) {
+                // Take a random ungraded enrollment and move it to the graded list
+                int slot = random.nextInt(ungradedSize);
+                long pair = ungradedPairs[slot];
+                ungradedPairs[slot] = ungradedPairs[--ungradedSize];
+                gradedPairs = append(gradedPairs, gradedSize++, pair);
+                student = (int) (pair >>> 32);
+                course = (int) pair;
+            } else if (type == WorkloadScript.UPDATE_GRADE && gradedSize > 0) {
+                long pair = gradedPairs[random.nextInt(gradedSize)];
+                student = (int) (pair >>> 32);
+                course = (int) pair;
+            }
+            script.set(i, type, student, course, score);
+        }
+        return script;
+    }
+
+    // ==================== SAMPLING HELPERS ====================
+
+    // Pick a course index following the Zipf popularity distribution
+    private int sampleCourse() {
+        int index = Arrays.binarySearch(courseCumulative, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, courseCount - 1);
+    }
+
+    private double sampleScore(double courseMean, double ability) {
+        double score = clamp(courseMean + ability + random.nextGaussian() * 10, 0, 100);
+        return Math.round(score * 2) / 2.0;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] append(long[] array, int index, long value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    // ==================== SETTINGS ====================
+
+    public void setStudentCount(int studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public void setCourseCount(int courseCount) {
+        this.courseCount = courseCount;
+    }
+
+    public void setTeacherCount(int teacherCount) {
+        this.teacherCount = teacherCount;
+    }
+
+    public void setMaxCourseSize(int maxCourseSize) {
+        this.maxCourseSize = maxCourseSize;
+    }
+
+    public void setZipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public void setGradedFraction(double gradedFraction) {
+        this.gradedFraction = gradedFraction;
+    }
+
+    public void setEnrollmentYears(int firstEnrollmentYear, int enrollmentYears) {
+        this.firstEnrollmentYear = firstEnrollmentYear;
+        this.enrollmentYears = enrollmentYears;
+    }
+
+    // Relative weights for lookup, gpa, average, enroll, addGrade, updateGrade
+    public void setOperationMix(int... weights) {
+        if (weights.length != WorkloadScript.OPERATION_NAMES.length) {
+            throw new IllegalArgumentException("Expected " + WorkloadScript.OPERATION_NAMES.length
+                                               + " weights, got " + weights.length);
+        }
+        this.operationWeights = weights.clone();
+    }
+
+    // ==================== GETTERS ====================
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public List<Student> getStudents() {
+        return Collections.unmodifiableList(students);
+    }
+
+    public List<Course> getCourses() {
+        return Collections.unmodifiableList(courses);
+    }
+
+    public List<Teacher> getTeachers() {
+        return Collections.unmodifiableList(teachers);
+    }
+
+    public int getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    public int getGradeCount() {
+        return gradeCount;
+    }
+}
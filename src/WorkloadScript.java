@@ -0,0 +1,75 @@
+/**
+ * WorkloadScript.java
+ *
+ * A fixed list of operations produced by WorkloadGenerator and replayed by
+ * WorkloadDriver. Operations are kept in parallel primitive arrays rather
+ * than one object per operation so that a script of millions of steps
+ * costs only a few bytes per step.
+ */
+public class WorkloadScript {
+
+    // STATIC VARIABLES: Operation types
+    public static final byte LOOKUP_STUDENT = 0;
+    public static final byte STUDENT_GPA = 1;
+    public static final byte COURSE_AVERAGE = 2;
+    public static final byte ENROLL = 3;
+    public static final byte ADD_GRADE = 4;
+    public static final byte UPDATE_GRADE = 5;
+
+    // STATIC VARIABLE: Display names, indexed by operation type
+    public static final String[] OPERATION_NAMES = {
+        "lookup", "gpa", "average", "enroll", "addGrade", "updateGrade"
+    };
+
+    // ENCAPSULATION: Private arrays, one slot per operation
+    private final byte[] types;
+    private final int[] studentIndexes;
+    private final int[] courseIndexes;
+    private final float[] scores;
+
+    public WorkloadScript(int size) {
+        this.types = new byte[size];
+        this.studentIndexes = new int[size];
+        this.courseIndexes = new int[size];
+        this.scores = new float[size];
+    }
+
+    // Package-private: filled in by WorkloadGenerator
+    void set(int i, byte type, int studentIndex, int courseIndex, float score) {
+        types[i] = type;
+        studentIndexes[i] = studentIndex;
+        courseIndexes[i] = courseIndex;
+        scores[i] = score;
+    }
+
+    public int size() {
+        return types.length;
+    }
+
+    public byte getType(int i) {
+        return types[i];
+    }
+
+    // Index into WorkloadGenerator.getStudents()
+    public int getStudentIndex(int i) {
+        return studentIndexes[i];
+    }
+
+    // Index into WorkloadGenerator.getCourses()
+    public int getCourseIndex(int i) {
+        return courseIndexes[i];
+    }
+
+    public float getScore(int i) {
+        return scores[i];
+    }
+
+    // Number of operations of each type
+    public int[] countByType() {
+        int[] counts = new int[OPERATION_NAMES.length];
+        for (byte type : types) {
+            counts[type]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,261 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * WorkloadViews.java
+ *
+ * Materialized workload views per teacher and per department:
+ * - courses taught
+ * - students enrolled across those courses
+ * - grades entered, and grades pending (enrolled but not graded yet)
+ * - average score and GPA of the grades entered
+ *
+ * The views are built once from the gradebook and then maintained as a
+ * GradebookListener. Each course keeps its own totals, so when a course
+ * changes teacher its totals are moved from the old teacher (and
+ * department) to the new one in O(1). Enrollments and grades touch one
+ * course, one teacher and one department. Reading a view or printing the
+ * department report never walks courses, rosters or grades.
+ *
+ * Grades and enrollments count toward a teacher once the course is
+ * registered: registering a course moves its totals so far to its teacher
+ * in one step. Registering a stub course loads neither its grades nor its
+ * roster; the roster is counted when it is loaded (rosterLoaded).
+ *
+ * A teacher's department is read when their courses change; changing
+ * Teacher.setDepartment() afterwards is not tracked.
+ * Like Gradebook, the views are not thread-safe: with parallel graders,
+ * read them under the gradebook lock (see GradebookListener).
+ */
+public class WorkloadViews implements GradebookListener {
+
+    // Totals of one teacher or one department
+    public static class Workload {
+        private int teachers;
+        private int courses;
+        private int enrolled;
+        private final GradeStats grades = new GradeStats();
+
+        // Number of teachers (departments only)
+        public int getTeacherCount() {
+            return teachers;
+        }
+
+        public int getCourseCount() {
+            return courses;
+        }
+
+        public int getEnrolledCount() {
+            return enrolled;
+        }
+
+        public int getGradedCount() {
+            return grades.getCount();
+        }
+
+        public int getPendingGradeCount() {
+            return enrolled - grades.getCount();
+        }
+
+        public double getAverageScore() {
+            return grades.getAverageScore();
+        }
+
+        public GradeStats getGrades() {
+            return grades;
+        }
+    }
+
+    // Totals of one course, moved as a unit when its teacher changes
+    private static class CourseLoad {
+        boolean registered;  // Counted toward its teacher
+        int enrolled;
+        final GradeStats grades = new GradeStats();
+    }
+
+    // COLLECTIONS: Views by teacher ID and by department name, and per-course totals
+    private final HashMap<Integer, Workload> byTeacher = new HashMap<>();
+    private final TreeMap<String, Workload> byDepartment = new TreeMap<>();
+    private final HashMap<Course, CourseLoad> byCourse = new HashMap<>();
+
+    private WorkloadViews() {
+    }
+
+    // STATIC METHOD: Build the views from the gradebook and keep them up to date
+    public static WorkloadViews attach(Gradebook gradebook) {
+        WorkloadViews views = new WorkloadViews();
+        for (Teacher teacher : gradebook.getTeachers()) {
+            views.teacherAdded(teacher);
+        }
+        for (Course course : gradebook.getCourses()) {
+            views.courseAdded(course);
+        }
+        for (Grade grade : gradebook.getGrades().values()) {
+            views.gradeAdded(grade);
+        }
+        gradebook.addListener(views);
+        return views;
+    }
+
+    // ==================== READS ====================
+
+    public Workload getTeacherWorkload(Teacher teacher) {
+        Workload workload = byTeacher.get(teacher.getId());
+        return (workload == null) ? new Workload() : workload;
+    }
+
+    public Workload getDepartmentWorkload(String department) {
+        Workload workload = byDepartment.get(department);
+        return (workload == null) ? new Workload() : workload;
+    }
+
+    // Department chair dashboard, one line per department
+    public String report() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-20s %8s %7s %8s %7s %7s %8s%n",
+                "Department", "Teachers", "Courses", "Enrolled", "Graded", "Pending", "AvgScore"));
+        for (Map.Entry<String, Workload> entry : byDepartment.entrySet()) {
+            Workload w = entry.getValue();
+            text.append(String.format("%-20s %8d %7d %8d %7d %7d %8.1f%n",
+                    entry.getKey(), w.teachers, w.courses, w.enrolled,
+                    w.getGradedCount(), w.getPendingGradeCount(), w.getAverageScore()));
+        }
+        return text.toString();
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    @Override
+    public void teacherAdded(Teacher teacher) {
+        byTeacher.computeIfAbsent(teacher.getId(), id -> new Workload());
+        department(teacher).teachers++;
+    }
+
+    @Override
+    public void teacherRemoved(Teacher teacher) {
+        byTeacher.remove(teacher.getId());
+        department(teacher).teachers--;
+        dropIfEmpty(teacher);
+    }
+
+    // The grades reported before registration are already in the course's
+    // totals; enrollments before registration are not reported, so a roster
+    // already in memory is counted here
+    @Override
+    public void courseAdded(Course course) {
+        CourseLoad load = load(course);
+        if (load.registered) {
+            return;
+        }
+        load.registered = true;
+        load.enrolled = course.isRosterLoaded() ? course.getEnrolledStudents().size() : 0;
+        Teacher teacher = course.getTeacher();
+        if (teacher != null) {
+            move(teacher, load, 1);
+        }
+    }
+
+    @Override
+    public void rosterLoaded(Course course) {
+        changeEnrolled(course, course.getEnrolledStudents().size());
+    }
+
+    @Override
+    public void courseRemoved(Course course) {
+        CourseLoad load = byCourse.remove(course);
+        Teacher teacher = course.getTeacher();
+        if (load != null && teacher != null) {
+            move(teacher, load, -1);
+            dropIfEmpty(teacher);
+        }
+    }
+
+    @Override
+    public void courseTeacherChanged(Course course, Teacher oldTeacher, Teacher newTeacher) {
+        CourseLoad load = load(course);
+        if (oldTeacher != null) {
+            move(oldTeacher, load, -1);
+            dropIfEmpty(oldTeacher);
+        }
+        if (newTeacher != null) {
+            move(newTeacher, load, 1);
+        }
+    }
+
+    @Override
+    public void studentEnrolled(Student student, Course course) {
+        changeEnrolled(course, 1);
+    }
+
+    @Override
+    public void studentUnenrolled(Student student, Course course) {
+        changeEnrolled(course, -1);
+    }
+
+    @Override
+    public void gradeAdded(Grade grade) {
+        changeGrade(grade.getCourse(), grade.getScore(), 1);
+    }
+
+    @Override
+    public void gradeUpdated(Grade grade, double oldScore, double newScore) {
+        changeGrade(grade.getCourse(), oldScore, -1);
+        changeGrade(grade.getCourse(), newScore, 1);
+    }
+
+    @Override
+    public void gradeRemoved(Grade grade) {
+        changeGrade(grade.getCourse(), grade.getScore(), -1);
+    }
+
+    // Add (sign = 1) or take away (sign = -1) a whole course's totals
+    private void move(Teacher teacher, CourseLoad load, int sign) {
+        for (Workload workload : new Workload[] {teacher(teacher), department(teacher)}) {
+            workload.courses += sign;
+            workload.enrolled += sign * load.enrolled;
+            workload.grades.merge(load.grades, sign);
+        }
+    }
+
+    private void changeEnrolled(Course course, int delta) {
+        CourseLoad load = load(course);
+        load.enrolled += delta;
+        Teacher teacher = load.registered ? course.getTeacher() : null;
+        if (teacher != null) {
+            teacher(teacher).enrolled += delta;
+            department(teacher).enrolled += delta;
+        }
+    }
+
+    private void changeGrade(Course course, double score, int sign) {
+        CourseLoad load = load(course);
+        load.grades.apply(score, sign);
+        Teacher teacher = load.registered ? course.getTeacher() : null;
+        if (teacher != null) {
+            teacher(teacher).grades.apply(score, sign);
+            department(teacher).grades.apply(score, sign);
+        }
+    }
+
+    // A department with no teachers and no courses leaves the report
+    private void dropIfEmpty(Teacher teacher) {
+        String department = String.valueOf(teacher.getDepartment());
+        Workload workload = byDepartment.get(department);
+        if (workload != null && workload.teachers == 0 && workload.courses == 0) {
+            byDepartment.remove(department);
+        }
+    }
+
+    private CourseLoad load(Course course) {
+        return byCourse.computeIfAbsent(course, c -> new CourseLoad());
+    }
+
+    private Workload teacher(Teacher teacher) {
+        return byTeacher.computeIfAbsent(teacher.getId(), id -> new Workload());
+    }
+
+    private Workload department(Teacher teacher) {
+        return byDepartment.computeIfAbsent(String.valueOf(teacher.getDepartment()), d -> new Workload());
+    }
+}